@@ -0,0 +1,50 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.analytics.SalesColumns;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrégation par jeu de la projection des ventes, sans Spring ni base : les lignes sont générées au setup
+ * sur un an, dans l'ordre des paiements. On mesure l'année entière et un mois (segments hors période sautés).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AnalyticsBenchmark {
+
+    private static final long YEAR_MS = 365L * 24 * 3600 * 1000;
+
+    @Param({"1000000", "5000000"})
+    public int lines;
+
+    @Param({"10000"})
+    public int games;
+
+    private SalesColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        columns = new SalesColumns();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < lines; i++) {
+            int quantity = 1 + random.nextInt(3);
+            columns.append(random.nextInt(games), quantity, quantity * (499L + random.nextInt(6000)), i * (YEAR_MS / lines));
+        }
+    }
+
+    @Benchmark
+    public SalesColumns.Totals year() {
+        return columns.aggregate(0, YEAR_MS);
+    }
+
+    @Benchmark
+    public SalesColumns.Totals month() {
+        return columns.aggregate(YEAR_MS / 2, YEAR_MS / 2 + YEAR_MS / 12);
+    }
+}
@@ -0,0 +1,78 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.repository.UserDAO;
+import com.gamesup.security.CachingAuthenticationProvider;
+import com.gamesup.security.CustomUserDetailsService;
+import com.gamesup.security.TokenService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'authentification d'une requête : chargement CustomUserDetailsService seul,
+ * HTTP Basic complet (base + BCrypt), HTTP Basic avec cache d'identifiants, jeton signé.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthBenchmark {
+
+    private static final String ADMIN = "admin@gamesup.com";
+    private static final String PASSWORD = "123456";
+
+    @Param({"100"})
+    public int games;
+
+    private BenchmarkContext context;
+    private CustomUserDetailsService userDetailsService;
+    private DaoAuthenticationProvider basic;
+    private CachingAuthenticationProvider cachedBasic;
+    private TokenService tokenService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(games, Map.of());
+        userDetailsService = context.bean(CustomUserDetailsService.class);
+        basic = new DaoAuthenticationProvider(context.bean(PasswordEncoder.class));
+        basic.setUserDetailsService(userDetailsService);
+        cachedBasic = context.bean(CachingAuthenticationProvider.class);
+        tokenService = context.bean(TokenService.class);
+        token = tokenService.issue(context.bean(UserDAO.class).findByEmail(ADMIN).orElseThrow());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(ADMIN);
+    }
+
+    @Benchmark
+    public Authentication basic() {
+        return basic.authenticate(new UsernamePasswordAuthenticationToken(ADMIN, PASSWORD));
+    }
+
+    @Benchmark
+    public Authentication basicCached() {
+        return cachedBasic.authenticate(new UsernamePasswordAuthenticationToken(ADMIN, PASSWORD));
+    }
+
+    @Benchmark
+    public Optional<TokenService.TokenClaims> token() {
+        return tokenService.verify(token);
+    }
+}
@@ -0,0 +1,154 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.GamesUpApplication;
+import com.gamesup.search.CatalogSearchIndex;
+import com.gamesup.search.SimilarityIndex;
+import com.gamesup.service.ReviewService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Démarre l'application (sans serveur web) sur une base H2 en mémoire dédiée et la remplit
+ * avec un catalogue de taille donnée : games jeux, games / 10 utilisateurs, 5 avis par jeu.
+ * Les insertions passent par JDBC en batch pour que le remplissage reste rapide même à grande taille ;
+ * les agrégats d'avis des jeux sont ensuite recalculés comme le fait la tâche planifiée.
+ */
+public final class BenchmarkContext {
+
+    static final int CATEGORIES = 20;
+    static final int AUTHORS = 200;
+    static final int PUBLISHERS = 50;
+    static final int REVIEWS_PER_GAME = 5;
+
+    private final ConfigurableApplicationContext context;
+    private final int games;
+    private final int users;
+
+    private BenchmarkContext(ConfigurableApplicationContext context, int games) {
+        this.context = context;
+        this.games = games;
+        this.users = Math.max(1, games / 10);
+    }
+
+    public static BenchmarkContext start(int games, Map<String, Object> extraProperties) {
+        return start(games, extraProperties, WebApplicationType.NONE);
+    }
+
+    /**
+     * Avec WebApplicationType.SERVLET, Tomcat écoute sur le port donné par server.port (0 : port libre, cf. port()).
+     */
+    public static BenchmarkContext start(int games, Map<String, Object> extraProperties, WebApplicationType web) {
+        Map<String, Object> properties = new HashMap<>(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto", "create-drop",
+                "logging.level.root", "WARN"));
+        properties.putAll(extraProperties);
+        // passées comme arguments de ligne de commande pour primer sur application.properties
+        String[] args = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(GamesUpApplication.class)
+                .web(web)
+                .run(args);
+        BenchmarkContext benchmarkContext = new BenchmarkContext(context, games);
+        benchmarkContext.seed();
+        // avis insérés en JDBC sans passer par ReviewService : agrégats des jeux (nombre, moyenne, histogramme)
+        // recalculés avant les index, qui ont été construits au démarrage sur une base encore vide
+        benchmarkContext.bean(ReviewService.class).rebuildRatings();
+        benchmarkContext.bean(CatalogSearchIndex.class).rebuild();
+        benchmarkContext.bean(SimilarityIndex.class).rebuild();
+        return benchmarkContext;
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public int port() {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    public int games() {
+        return games;
+    }
+
+    public int users() {
+        return users;
+    }
+
+    /**
+     * Les ids sont générés par IDENTITY à partir de 1 sur une base neuve ; l'admin par défaut est l'utilisateur 1.
+     */
+    public long gameID(int index) {
+        return index % games + 1;
+    }
+
+    public long userID(int index) {
+        return index % users + 2;
+    }
+
+    public static String categoryName(int index) {
+        return "Catégorie " + index % CATEGORIES;
+    }
+
+    public static String authorName(int index) {
+        return "Auteur " + index % AUTHORS;
+    }
+
+    public void resetPurchases() {
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+        jdbc.update("delete from stock_reservation");
+        jdbc.update("delete from purchase_line");
+        jdbc.update("delete from purchase");
+    }
+
+    public void close() {
+        context.close();
+    }
+
+    private void seed() {
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+        batch(jdbc, "insert into category (name) values (?)", CATEGORIES, i -> new Object[]{categoryName(i)});
+        batch(jdbc, "insert into author (name) values (?)", AUTHORS, i -> new Object[]{authorName(i)});
+        batch(jdbc, "insert into publisher (name) values (?)", PUBLISHERS, i -> new Object[]{"Éditeur " + i});
+        batch(jdbc, "insert into game (title, description, price, stock, currency, category_id, author_id, publisher_id) " +
+                        "values (?, ?, ?, ?, 'EUR', ?, ?, ?)", games,
+                i -> new Object[]{"Jeu " + i, "Description du jeu numéro " + i + " pour le benchmark",
+                        5 + (i % 60), 1_000_000_000, i % CATEGORIES + 1, i % AUTHORS + 1, i % PUBLISHERS + 1});
+        batch(jdbc, "insert into users (email, password, role) values (?, 'x', 'CUSTOMER')", users,
+                i -> new Object[]{"bench" + i + "@example.com"});
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        batch(jdbc, "insert into review (rating, comment, created_at, game_id, user_id) values (?, ?, ?, ?, ?)",
+                games * REVIEWS_PER_GAME,
+                i -> new Object[]{i % 5 + 1, "Avis " + i, now, i % games + 1, i % users + 2});
+    }
+
+    private interface Row {
+        Object[] values(int index);
+    }
+
+    private static void batch(JdbcTemplate jdbc, String sql, int count, Row row) {
+        List<Object[]> rows = new ArrayList<>(1_000);
+        for (int i = 0; i < count; i++) {
+            rows.add(row.values(i));
+            if (rows.size() == 1_000) {
+                jdbc.batchUpdate(sql, rows);
+                rows.clear();
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbc.batchUpdate(sql, rows);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.entity.Game;
+import com.gamesup.service.GameService;
+import com.gamesup.service.PageResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameServiceImpl.filter / detail, avec le cache catalogue actif (TTL 60 s) ou désactivé (TTL 0).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogBenchmark {
+
+    @Param({"100", "10000"})
+    public int games;
+
+    @Param({"0", "60000"})
+    public long cacheTtlMs;
+
+    private BenchmarkContext context;
+    private GameService gameService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(games, Map.of("catalog.cache.ttl-ms", cacheTtlMs));
+        gameService = context.bean(GameService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Game detail() {
+        return gameService.detail(context.gameID(ThreadLocalRandom.current().nextInt(games)));
+    }
+
+    @Benchmark
+    public List<Game> filterByAuthor() {
+        return gameService.filter(null, BenchmarkContext.authorName(ThreadLocalRandom.current().nextInt(games)), null, null);
+    }
+
+    @Benchmark
+    public PageResult<Game> filterByCategoryPage() {
+        int index = ThreadLocalRandom.current().nextInt(games);
+        return gameService.filter(BenchmarkContext.categoryName(index), null, null, null, 0, 20, "id");
+    }
+}
@@ -0,0 +1,60 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.service.PurchaseService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jeu très demandé : 64 clients ajoutent chacun une unité du même jeu au panier d'un utilisateur au hasard,
+ * par le chemin habituel (un UPDATE de la ligne Game par ajout) ou en vente flash (décision par lots).
+ * Le stock du jeu est assez grand pour ne jamais s'épuiser : on mesure les décisions acceptées par seconde.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class FlashSaleBenchmark {
+
+    @Param({"1000"})
+    public int games;
+
+    @Param({"false", "true"})
+    public boolean flashSale;
+
+    private BenchmarkContext context;
+    private PurchaseService purchaseService;
+    private long gameID;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(games, Map.of("purchase.flash-sale.decision-timeout-ms", 10000));
+        purchaseService = context.bean(PurchaseService.class);
+        gameID = context.gameID(0);
+        if (flashSale) {
+            purchaseService.startFlashSale(gameID);
+        }
+    }
+
+    // les lignes grandissent à chaque ajout : les paniers sont vidés pour que les réservations ne dérivent pas
+    @Setup(Level.Iteration)
+    public void resetBaskets() {
+        context.resetPurchases();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        purchaseService.stopFlashSale(gameID);
+        context.close();
+    }
+
+    @Benchmark
+    public void addToBasket() {
+        purchaseService.addToBasket(context.userID(ThreadLocalRandom.current().nextInt(context.users())), gameID, 1);
+    }
+}
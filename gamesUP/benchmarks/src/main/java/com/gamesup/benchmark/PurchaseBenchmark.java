@@ -0,0 +1,64 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.entity.Purchase;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.service.PurchaseService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PurchaseServiceImpl.addToBasket / computeTotalPrice. Les paniers sont vidés à chaque itération
+ * pour que leur taille (et donc le coût de chargement) ne dérive pas pendant la mesure.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseBenchmark {
+
+    @Param({"100", "10000"})
+    public int games;
+
+    private BenchmarkContext context;
+    private PurchaseService purchaseService;
+    private long purchaseID;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(games, Map.of());
+        purchaseService = context.bean(PurchaseService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetBaskets() {
+        context.resetPurchases();
+        for (int i = 0; i < 10; i++) {
+            purchaseService.addToBasket(context.userID(0), context.gameID(i), 1);
+        }
+        purchaseID = context.bean(PurchaseDAO.class)
+                .findByUserIdAndStatusOrderByCreatedAtDesc(context.userID(0), Purchase.OrderStatus.BASKET)
+                .get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void addToBasket() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        purchaseService.addToBasket(context.userID(random.nextInt(context.users())), context.gameID(random.nextInt(games)), 1);
+    }
+
+    @Benchmark
+    public BigDecimal computeTotalPrice() {
+        return purchaseService.computeTotalPrice(purchaseID);
+    }
+}
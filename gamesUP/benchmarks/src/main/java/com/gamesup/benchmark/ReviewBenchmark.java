@@ -0,0 +1,44 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.service.ReviewService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReviewServiceImpl.addReview.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewBenchmark {
+
+    @Param({"100", "10000"})
+    public int games;
+
+    private BenchmarkContext context;
+    private ReviewService reviewService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(games, Map.of());
+        reviewService = context.bean(ReviewService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void addReview() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        reviewService.addReview(context.gameID(random.nextInt(games)), context.userID(random.nextInt(context.users())),
+                random.nextInt(1, 6), "Avis de benchmark");
+    }
+}
@@ -0,0 +1,138 @@
+package com.gamesup.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Review;
+import com.gamesup.repository.OffsetPageRequest;
+import com.gamesup.repository.ReviewDAO;
+import com.gamesup.repository.ReviewView;
+import com.gamesup.service.GameService;
+import com.gamesup.service.GameView;
+import com.gamesup.service.PageResult;
+import com.gamesup.service.ReviewService;
+import com.gamesup.service.WishlistService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation Jackson (ObjectMapper configuré par Spring, comme dans les contrôleurs)
+ * des entités Game et Review et des vues plates (GameView, ReviewView) que l'API renvoie à leur place.
+ * Les objets sont chargés une fois au setup : seule la sérialisation est mesurée. Les benchmarks *Response
+ * mesurent la réponse entière depuis le cache catalogue (copie, wishCount, sérialisation) ;
+ * lancer avec -prof gc pour comparer les allocations par opération.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    public int games;
+
+    private BenchmarkContext context;
+    private ObjectMapper objectMapper;
+    private Game game;
+    private List<Game> gamePage;
+    private PageResult<Review> reviewPage;
+    private GameView gameView;
+    private PageResult<GameView> gameViewPage;
+    private PageResult<ReviewView> reviewViewPage;
+    private GameService gameService;
+    private WishlistService wishlistService;
+    private long gameID;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(games, Map.of());
+        objectMapper = context.bean(ObjectMapper.class);
+        gameService = context.bean(GameService.class);
+        wishlistService = context.bean(WishlistService.class);
+        gameID = context.gameID(0);
+        game = gameService.detail(gameID);
+        gamePage = gameService.filter(BenchmarkContext.categoryName(0), null, null, null, 0, 100, "id").content();
+        // les entités de l'ancienne liste : avis chargés avec leur jeu, même ordre que listViews
+        reviewPage = PageResult.of(context.bean(ReviewDAO.class).findAll(OffsetPageRequest.of(0, 100,
+                Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id")))));
+        gameView = gameService.detailView(gameID, null);
+        gameViewPage = gameService.filterViews(BenchmarkContext.categoryName(0), null, null, null, 0, 100, "id", null);
+        reviewViewPage = context.bean(ReviewService.class).listViews(0, 100);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] game() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(game);
+    }
+
+    @Benchmark
+    public byte[] gamePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gamePage);
+    }
+
+    @Benchmark
+    public byte[] reviewPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reviewPage);
+    }
+
+    @Benchmark
+    public byte[] gameView() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gameView);
+    }
+
+    @Benchmark
+    public byte[] gameViewPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gameViewPage);
+    }
+
+    @Benchmark
+    public byte[] reviewViewPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(reviewViewPage);
+    }
+
+    // ancien chemin de /game/details : copie Game du cache, marquage wishCount, sérialisation de l'entité
+    @Benchmark
+    public byte[] detailEntityResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(flag(gameService.detail(gameID)));
+    }
+
+    @Benchmark
+    public byte[] detailViewResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(gameService.detailView(gameID, null));
+    }
+
+    // ancien chemin de /game/filter (page de 100, déjà en cache)
+    @Benchmark
+    public byte[] pageEntityResponse() throws JsonProcessingException {
+        PageResult<Game> page = gameService.filter(BenchmarkContext.categoryName(0), null, null, null, 0, 100, "id");
+        return objectMapper.writeValueAsBytes(new PageResult<>(page.content().stream().map(this::flag).toList(),
+                page.offset(), page.size(), page.totalElements(), page.hasNext()));
+    }
+
+    @Benchmark
+    public byte[] pageViewResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(
+                gameService.filterViews(BenchmarkContext.categoryName(0), null, null, null, 0, 100, "id", null));
+    }
+
+    // ce que faisait WishlistService.flag sans utilisateur : wishCount lu dans l'index, sérialisé avec l'entité
+    private FlaggedGame flag(Game game) {
+        return new FlaggedGame(game, wishlistService.wishCount(game.getId()));
+    }
+
+    // même JSON que l'ancienne entité Game et son champ wishCount
+    private record FlaggedGame(@JsonUnwrapped Game game, int wishCount) {
+    }
+}
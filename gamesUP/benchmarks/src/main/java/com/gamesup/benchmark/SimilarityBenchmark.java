@@ -0,0 +1,59 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.search.SimilarityIndex;
+import com.gamesup.service.GameService;
+import com.gamesup.service.GameView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * "Jeux similaires" : lecture des voisins précalculés (index seul, puis GameService.similarViews avec le cache détail)
+ * et reconstruction complète de SimilarityIndex, le coût payé au démarrage et après un import.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarityBenchmark {
+
+    @Param({"1000", "10000"})
+    public int games;
+
+    private BenchmarkContext context;
+    private SimilarityIndex similarityIndex;
+    private GameService gameService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(games, Map.of());
+        similarityIndex = context.bean(SimilarityIndex.class);
+        gameService = context.bean(GameService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SimilarityIndex.Neighbor> neighbors() {
+        return similarityIndex.similar(context.gameID(ThreadLocalRandom.current().nextInt(games)), 10);
+    }
+
+    @Benchmark
+    public List<GameView> similarViews() {
+        return gameService.similarViews(context.gameID(ThreadLocalRandom.current().nextInt(games)), 10, null);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void rebuild() {
+        similarityIndex.rebuild();
+    }
+}
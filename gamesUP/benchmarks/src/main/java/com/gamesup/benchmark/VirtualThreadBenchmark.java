@@ -0,0 +1,103 @@
+package com.gamesup.benchmark;
+
+import com.gamesup.entity.User;
+import com.gamesup.security.TokenService;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GET /recommendations avec un backend KNN lent (1 s), en pool fixe de 20 threads Tomcat puis en threads
+ * virtuels : 100 clients concurrents, chaque requête pour un utilisateur différent (pas de cache ni de
+ * regroupement d'appels). Pool fixe : au mieux 20 req/s ; threads virtuels : jusqu'à 100 req/s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(100)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int TOMCAT_THREADS = 20;
+    private static final long BACKEND_DELAY_MS = 1_000;
+
+    @Param({"100"})
+    public int games;
+
+    @Param({"false", "true"})
+    public boolean virtualThreads;
+
+    private HttpServer knn;
+    private BenchmarkContext context;
+    private TokenService tokenService;
+    private HttpClient client;
+    private URI uri;
+    private final AtomicLong nextUser = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        knn = slowKnn();
+        context = BenchmarkContext.start(games, Map.of(
+                "server.port", 0,
+                "spring.threads.virtual.enabled", virtualThreads,
+                "server.tomcat.threads.max", TOMCAT_THREADS,
+                "recommendation.base-url", "http://localhost:" + knn.getAddress().getPort(),
+                "recommendation.breaker.failure-threshold", 1000), WebApplicationType.SERVLET);
+        tokenService = context.bean(TokenService.class);
+        client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        uri = URI.create("http://localhost:" + context.port() + "/recommendations");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        knn.stop(0);
+    }
+
+    @Benchmark
+    public int recommendations() throws Exception {
+        User user = new User();
+        user.setId(nextUser.incrementAndGet());
+        user.setEmail("charge" + user.getId() + "@example.com");
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + tokenService.issue(user))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode();
+    }
+
+    // faux service KNN : répond après BACKEND_DELAY_MS, sans limite de requêtes simultanées
+    private static HttpServer slowKnn() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1_000);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/test/recommendations", exchange -> {
+            try {
+                Thread.sleep(BACKEND_DELAY_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"recommendations\": [{\"game_id\": 1}]}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+}
@@ -0,0 +1,184 @@
+package com.gamesup.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Lignes vendues rangées en colonnes (jeu, quantité, montant en centimes, date de paiement), par segments de
+ * 65536 lignes. Un segment ne fait que grossir et retient ses dates min/max : une agrégation sur une période saute
+ * les segments hors période et ne teste pas la date des segments entièrement couverts.
+ * L'agrégation répartit les segments sur le pool fork-join commun.
+ * Un seul écrivain à la fois (append est synchronized), les lectures ne prennent aucun verrou :
+ * la taille volatile d'un segment publie les lignes écrites avant elle.
+ */
+public class SalesColumns {
+
+    static final int SEGMENT_SIZE = 1 << 16;
+
+    // id du jeu -> indice dense, utilisé dans les colonnes à la place de l'id
+    private final Map<Long, Integer> gameIndex = new HashMap<>();
+    private volatile long[] gameIDs = new long[64];
+    private volatile int gameCount;
+    private volatile Segment[] segments = new Segment[0];
+
+    /**
+     * Ajoute une ligne ; une annulation s'ajoute avec une quantité et un montant négatifs.
+     */
+    public synchronized void append(long gameID, int quantity, long amountCents, long paidAtMillis) {
+        Integer game = gameIndex.get(gameID);
+        if (game == null) {
+            game = gameCount;
+            if (game == gameIDs.length) {
+                gameIDs = Arrays.copyOf(gameIDs, game * 2);
+            }
+            gameIDs[game] = gameID;
+            gameIndex.put(gameID, game);
+            gameCount = game + 1;
+        }
+        Segment[] current = segments;
+        Segment last = current.length == 0 ? null : current[current.length - 1];
+        if (last == null || last.size == SEGMENT_SIZE) {
+            last = new Segment();
+            Segment[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = last;
+            segments = grown;
+        }
+        last.add(game, quantity, amountCents, paidAtMillis);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    /**
+     * Totaux par jeu des lignes payées dans [fromMillis, toMillis[.
+     */
+    public Totals aggregate(long fromMillis, long toMillis) {
+        // segments et tailles d'abord : toute ligne vue référence un jeu déjà publié dans le dictionnaire
+        Segment[] snapshot = segments;
+        int[] sizes = new int[snapshot.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            sizes[i] = snapshot[i].size;
+        }
+        int games = gameCount;
+        long[] ids = Arrays.copyOf(gameIDs, games);
+        Partial partial = snapshot.length == 0 ? new Partial(games)
+                : ForkJoinPool.commonPool().invoke(new Aggregation(snapshot, sizes, 0, snapshot.length, games, fromMillis, toMillis));
+        return new Totals(ids, partial.quantity, partial.amountCents, partial.lines, partial.scanned);
+    }
+
+    /**
+     * Totaux indexés comme gameIDs. lines compte les lignes vendues moins les lignes annulées ;
+     * scanned compte les lignes effectivement lues (hors segments sautés).
+     */
+    public record Totals(long[] gameIDs, long[] quantity, long[] amountCents, long[] lines, long scanned) {
+    }
+
+    private static final class Segment {
+        final int[] game = new int[SEGMENT_SIZE];
+        final int[] quantity = new int[SEGMENT_SIZE];
+        final long[] amountCents = new long[SEGMENT_SIZE];
+        final long[] paidAt = new long[SEGMENT_SIZE];
+        volatile long minPaidAt = Long.MAX_VALUE;
+        volatile long maxPaidAt = Long.MIN_VALUE;
+        volatile int size;
+
+        void add(int gameIndex, int qty, long cents, long paidAtMillis) {
+            int row = size;
+            game[row] = gameIndex;
+            quantity[row] = qty;
+            amountCents[row] = cents;
+            paidAt[row] = paidAtMillis;
+            minPaidAt = Math.min(minPaidAt, paidAtMillis);
+            maxPaidAt = Math.max(maxPaidAt, paidAtMillis);
+            size = row + 1;
+        }
+    }
+
+    private static final class Partial {
+        final long[] quantity;
+        final long[] amountCents;
+        final long[] lines;
+        long scanned;
+
+        Partial(int games) {
+            quantity = new long[games];
+            amountCents = new long[games];
+            lines = new long[games];
+        }
+
+        Partial merge(Partial other) {
+            for (int i = 0; i < quantity.length; i++) {
+                quantity[i] += other.quantity[i];
+                amountCents[i] += other.amountCents[i];
+                lines[i] += other.lines[i];
+            }
+            scanned += other.scanned;
+            return this;
+        }
+    }
+
+    // un segment par tâche feuille : 65536 lignes suffisent à amortir le découpage
+    private static final class Aggregation extends RecursiveTask<Partial> {
+        private final Segment[] segments;
+        private final int[] sizes;
+        private final int from;
+        private final int to;
+        private final int games;
+        private final long fromMillis;
+        private final long toMillis;
+
+        Aggregation(Segment[] segments, int[] sizes, int from, int to, int games, long fromMillis, long toMillis) {
+            this.segments = segments;
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+            this.games = games;
+            this.fromMillis = fromMillis;
+            this.toMillis = toMillis;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                Aggregation left = new Aggregation(segments, sizes, from, middle, games, fromMillis, toMillis);
+                left.fork();
+                Partial right = new Aggregation(segments, sizes, middle, to, games, fromMillis, toMillis).compute();
+                return right.merge(left.join());
+            }
+            Partial partial = new Partial(games);
+            Segment segment = segments[from];
+            int size = sizes[from];
+            // lues après la taille : au pire plus larges que les lignes vues, le saut reste correct
+            long min = segment.minPaidAt;
+            long max = segment.maxPaidAt;
+            if (size == 0 || max < fromMillis || min >= toMillis) {
+                return partial;
+            }
+            boolean covered = min >= fromMillis && max < toMillis;
+            for (int row = 0; row < size; row++) {
+                if (!covered) {
+                    long paidAt = segment.paidAt[row];
+                    if (paidAt < fromMillis || paidAt >= toMillis) {
+                        continue;
+                    }
+                }
+                int game = segment.game[row];
+                int quantity = segment.quantity[row];
+                partial.quantity[game] += quantity;
+                partial.amountCents[game] += segment.amountCents[row];
+                partial.lines[game] += Integer.signum(quantity);
+            }
+            partial.scanned = size;
+            return partial;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.gamesup.analytics;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Projection courante des ventes. Reconstruite depuis la base par SalesAnalyticsServiceImpl (au démarrage puis
+ * chaque nuit), et complétée entre-temps par OrderProcessingServiceImpl à chaque paiement ou annulation traité.
+ * Les deux passent par OrderProcessingService.runExclusive : une reconstruction ne croise jamais un lot en cours.
+ */
+@Component
+public class SalesLedger {
+
+    private volatile SalesColumns columns = new SalesColumns();
+
+    public SalesColumns columns() {
+        return columns;
+    }
+
+    public void replace(SalesColumns rebuilt) {
+        this.columns = rebuilt;
+    }
+}
@@ -0,0 +1,12 @@
+package com.gamesup.cache;
+
+/**
+ * Photo des compteurs d'un {@link TtlCache} à un instant donné.
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+    public double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
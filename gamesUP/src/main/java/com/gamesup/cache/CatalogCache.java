@@ -0,0 +1,96 @@
+package com.gamesup.cache;
+
+import com.gamesup.service.PageResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Cache des lectures catalogue (détail d'un jeu et résultats de /game/filter, complets ou paginés).
+ * Les écritures de GameServiceImpl appellent {@link #invalidate} avec l'état du jeu avant et après :
+ * on retire le détail de ce jeu et seulement les filtres qui pouvaient le contenir.
+ */
+@Component
+public class CatalogCache {
+
+    /**
+     * Paramètres de /game/filter. La requête est un OU d'égalités, donc un jeu apparaît dans le résultat
+     * dès qu'un des quatre critères correspond.
+     */
+    public record FilterKey(String category, String author, String publisher, String name) {
+
+        boolean couldContain(GameSnapshot game) {
+            return game != null && (Objects.equals(category, game.categoryName())
+                    || Objects.equals(author, game.authorName())
+                    || Objects.equals(publisher, game.publisherName())
+                    || Objects.equals(name, game.title()));
+        }
+    }
+
+    /**
+     * Une page de /game/filter : mêmes critères qu'un FilterKey plus la fenêtre et le tri.
+     */
+    public record PageKey(FilterKey filter, long offset, int limit, String sort) {
+    }
+
+    private final TtlCache<Long, GameSnapshot> details;
+    private final TtlCache<FilterKey, List<GameSnapshot>> filters;
+    private final TtlCache<PageKey, PageResult<GameSnapshot>> pages;
+
+    public CatalogCache(@Value("${catalog.cache.max-entries}") int maxEntries,
+                        @Value("${catalog.cache.ttl-ms}") long ttlMillis) {
+        this.details = new TtlCache<>(maxEntries, ttlMillis);
+        this.filters = new TtlCache<>(maxEntries, ttlMillis);
+        this.pages = new TtlCache<>(maxEntries, ttlMillis);
+    }
+
+    public GameSnapshot detail(long id, Function<Long, GameSnapshot> loader) {
+        return details.getOrLoad(id, loader);
+    }
+
+    public Map<Long, GameSnapshot> details(Collection<Long> ids, Function<List<Long>, Map<Long, GameSnapshot>> loader) {
+        return details.getAllOrLoad(ids, loader);
+    }
+
+    public List<GameSnapshot> filter(FilterKey key, Supplier<List<GameSnapshot>> loader) {
+        return filters.getOrLoad(key, k -> List.copyOf(loader.get()));
+    }
+
+    public PageResult<GameSnapshot> page(PageKey key, Supplier<PageResult<GameSnapshot>> loader) {
+        return pages.getOrLoad(key, k -> loader.get());
+    }
+
+    /**
+     * @param before état du jeu avant l'écriture (null pour un ajout)
+     * @param after  état après l'écriture (null pour une suppression)
+     */
+    public void invalidate(long id, GameSnapshot before, GameSnapshot after) {
+        details.invalidate(id);
+        filters.invalidateIf(key -> key.couldContain(before) || key.couldContain(after));
+        pages.invalidateIf(key -> key.filter().couldContain(before) || key.filter().couldContain(after));
+    }
+
+    public void invalidateAll() {
+        details.invalidateAll();
+        filters.invalidateAll();
+        pages.invalidateAll();
+    }
+
+    public CacheStats detailStats() {
+        return details.stats();
+    }
+
+    public CacheStats filterStats() {
+        return filters.stats();
+    }
+
+    public CacheStats pageStats() {
+        return pages.stats();
+    }
+}
@@ -0,0 +1,50 @@
+package com.gamesup.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versions du catalogue pour les GET conditionnels de /game/details et /game/filter, tenues par GameServiceImpl
+ * à chaque écriture validée (même point que l'invalidation du cache). Un compteur unique : le catalogue porte
+ * sa dernière valeur, chaque jeu celle de sa dernière modification. Un jeu absent de la table n'a pas changé
+ * depuis le démarrage ou le dernier rechargement complet (floor).
+ * Écritures rares et synchronisées, lectures sans verrou.
+ */
+@Component
+public class CatalogVersions {
+
+    private final Map<Long, ContentVersion> games = new ConcurrentHashMap<>();
+    private long counter;
+    private volatile ContentVersion catalog = ContentVersion.initial();
+    private volatile ContentVersion floor = ContentVersion.initial();
+
+    public ContentVersion catalog() {
+        return catalog;
+    }
+
+    public ContentVersion game(long id) {
+        return games.getOrDefault(id, floor);
+    }
+
+    // après l'invalidation du cache : un lecteur qui voit la nouvelle version ne relit pas l'ancien contenu
+    public synchronized void changed(long id) {
+        ContentVersion version = next();
+        games.put(id, version);
+        catalog = version;
+    }
+
+    // écriture en masse hors JPA : tous les jeux changent de version
+    public synchronized void reloaded() {
+        ContentVersion version = next();
+        floor = version;
+        games.clear();
+        catalog = version;
+    }
+
+    private ContentVersion next() {
+        // jamais avant la version précédente, même si l'horloge recule
+        return new ContentVersion(++counter, Math.max(System.currentTimeMillis(), catalog.modifiedAt()));
+    }
+}
@@ -0,0 +1,29 @@
+package com.gamesup.cache;
+
+/**
+ * Version d'un contenu servi par l'API (jeu, catalogue, listes de souhaits), pour les GET conditionnels.
+ * value croît à chaque modification ; modifiedAt (epoch ms) ne précède jamais la dernière modification.
+ * Les versions sont tenues en mémoire et repartent au démarrage : les ETag portent donc l'identifiant
+ * du démarrage, et un contenu non modifié depuis est daté du démarrage.
+ */
+public record ContentVersion(long value, long modifiedAt) {
+
+    public static final long STARTED_AT = System.currentTimeMillis();
+
+    private static final String INSTANCE = Long.toString(STARTED_AT, 36);
+
+    public static ContentVersion initial() {
+        return new ContentVersion(0, STARTED_AT);
+    }
+
+    /**
+     * ETag fort construit à partir des versions (et compteurs) qui déterminent la réponse.
+     */
+    public static String etag(long... parts) {
+        StringBuilder etag = new StringBuilder("\"").append(INSTANCE);
+        for (long part : parts) {
+            etag.append('-').append(Long.toString(part, 36));
+        }
+        return etag.append('"').toString();
+    }
+}
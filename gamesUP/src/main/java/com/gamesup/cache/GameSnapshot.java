@@ -0,0 +1,145 @@
+package com.gamesup.cache;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Copie immuable d'un Game (et de ses catégorie/auteur/éditeur) telle que stockée dans le cache catalogue.
+ * On ne garde jamais l'entité elle-même : un appelant qui modifierait l'objet reçu corromprait le cache.
+ */
+public record GameSnapshot(Long id,
+                           String title,
+                           String slug,
+                           String description,
+                           LocalDate releaseDate,
+                           int stock,
+                           int reviewCount,
+                           long ratingSum,
+                           int[] ratingHistogram,
+                           float price,
+                           String currency,
+                           CategoryRef category,
+                           NamedRef author,
+                           NamedRef publisher) {
+
+    // le tableau est copié à l'entrée et à la sortie : ni la source ni un appelant ne modifient le cache
+    public GameSnapshot {
+        ratingHistogram = ratingHistogram.clone();
+    }
+
+    @Override
+    public int[] ratingHistogram() {
+        return ratingHistogram.clone();
+    }
+
+    public record CategoryRef(Long id, String name, String slug) {
+    }
+
+    public record NamedRef(Long id, String name) {
+    }
+
+    /**
+     * Une ligne de projection JPQL (select new, cf. GameDAO) : jeu et références lus à plat par jointures externes,
+     * sans passer par l'entité. Une référence absente arrive avec un id null.
+     */
+    public GameSnapshot(Long id, String title, String slug, String description, LocalDate releaseDate, int stock,
+                        int reviewCount, long ratingSum, int rating1, int rating2, int rating3, int rating4, int rating5,
+                        float price, String currency,
+                        Long categoryID, String categoryName, String categorySlug,
+                        Long authorID, String authorName,
+                        Long publisherID, String publisherName) {
+        this(id, title, slug, description, releaseDate, stock, reviewCount, ratingSum,
+                new int[]{rating1, rating2, rating3, rating4, rating5}, price, currency,
+                categoryID == null ? null : new CategoryRef(categoryID, categoryName, categorySlug),
+                authorID == null ? null : new NamedRef(authorID, authorName),
+                publisherID == null ? null : new NamedRef(publisherID, publisherName));
+    }
+
+    public static GameSnapshot of(Game game) {
+        Category category = game.getCategory();
+        Author author = game.getAuthor();
+        Publisher publisher = game.getPublisher();
+        return new GameSnapshot(game.getId(),
+                game.getTitle(),
+                game.getSlug(),
+                game.getDescription(),
+                game.getReleaseDate(),
+                game.getStock(),
+                game.getReviewCount(),
+                game.getRatingSum(),
+                game.getRatingHistogram(),
+                game.getPrice(),
+                game.getCurrency(),
+                category == null ? null : new CategoryRef(category.getId(), category.getName(), category.getSlug()),
+                author == null ? null : new NamedRef(author.getId(), author.getName()),
+                publisher == null ? null : new NamedRef(publisher.getId(), publisher.getName()));
+    }
+
+    /**
+     * Nouvelle instance détachée à chaque appel, que l'appelant peut modifier librement.
+     */
+    public Game toGame() {
+        Game game = new Game();
+        game.setId(id);
+        game.setTitle(title);
+        game.setSlug(slug);
+        game.setDescription(description);
+        game.setReleaseDate(releaseDate);
+        game.setStock(stock);
+        game.setReviewCount(reviewCount);
+        game.setRatingSum(ratingSum);
+        game.setRating1(ratingHistogram[0]);
+        game.setRating2(ratingHistogram[1]);
+        game.setRating3(ratingHistogram[2]);
+        game.setRating4(ratingHistogram[3]);
+        game.setRating5(ratingHistogram[4]);
+        game.setPrice(price);
+        game.setCurrency(currency);
+        if (category != null) {
+            Category c = new Category();
+            c.setId(category.id());
+            c.setName(category.name());
+            c.setSlug(category.slug());
+            game.setCategory(c);
+        }
+        if (author != null) {
+            Author a = new Author();
+            a.setId(author.id());
+            a.setName(author.name());
+            game.setAuthor(a);
+        }
+        if (publisher != null) {
+            Publisher p = new Publisher();
+            p.setId(publisher.id());
+            p.setName(publisher.name());
+            game.setPublisher(p);
+        }
+        return game;
+    }
+
+    // même arrondi que Game.getAverageRating
+    public Double averageRating() {
+        if (reviewCount == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(reviewCount), 2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    public String categoryName() {
+        return category == null ? null : category.name();
+    }
+
+    public String authorName() {
+        return author == null ? null : author.name();
+    }
+
+    public String publisherName() {
+        return publisher == null ? null : publisher.name();
+    }
+}
@@ -0,0 +1,173 @@
+package com.gamesup.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache mémoire borné avec expiration (TTL).
+ * Une entrée expirée n'est plus servie par {@link #get} mais reste lisible via {@link #getStale}
+ * tant qu'elle n'a pas été évincée, ce qui permet de répondre en mode dégradé.
+ * Quand la taille max est dépassée on retire d'abord les entrées expirées, puis les plus anciennes.
+ * Chaque invalidation incrémente une génération : un chargement commencé avant une invalidation
+ * n'est pas remis en cache, pour ne jamais resservir une valeur lue avant une écriture.
+ */
+public class TtlCache<K, V> {
+
+    private record Entry<V>(V value, long writtenAt) {
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong generation = new AtomicLong();
+
+    public TtlCache(int maxSize, long ttlMillis) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Valeur encore fraîche, ou null (compté comme miss).
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now() - entry.writtenAt() < ttlMillis) {
+            hits.increment();
+            return entry.value();
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Valeur même expirée, si son âge ne dépasse pas maxAgeMillis. Ne touche pas aux compteurs.
+     */
+    public V getStale(K key, long maxAgeMillis) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now() - entry.writtenAt() < maxAgeMillis) {
+            return entry.value();
+        }
+        return null;
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, now()));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * Lecture "read-through" : en cas de miss on charge via loader et on met en cache,
+     * sauf si une invalidation a eu lieu pendant le chargement. Une valeur null n'est pas mise en cache.
+     */
+    public V getOrLoad(K key, Function<K, V> loader) {
+        V cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        long startGeneration = generation.get();
+        V loaded = loader.apply(key);
+        if (loaded != null) {
+            putIfGeneration(key, loaded, startGeneration);
+        }
+        return loaded;
+    }
+
+    /**
+     * Comme getOrLoad pour plusieurs clés : les absentes sont chargées en un seul appel au loader.
+     * Les clés que le loader ne renvoie pas sont absentes du résultat.
+     */
+    public Map<K, V> getAllOrLoad(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            V cached = get(key);
+            if (cached != null) {
+                result.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long startGeneration = generation.get();
+            Map<K, V> loaded = loader.apply(missing);
+            loaded.forEach((key, value) -> putIfGeneration(key, value, startGeneration));
+            result.putAll(loaded);
+        }
+        return result;
+    }
+
+    public synchronized void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        generation.incrementAndGet();
+        entries.keySet().removeIf(predicate);
+    }
+
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private synchronized void putIfGeneration(K key, V value, long expectedGeneration) {
+        if (generation.get() == expectedGeneration) {
+            put(key, value);
+        }
+    }
+
+    // on redescend à 90% de la capacité pour ne pas refaire un parcours à chaque put
+    private synchronized void evict() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+        long now = now();
+        entries.entrySet().removeIf(e -> {
+            boolean expired = now - e.getValue().writtenAt() >= ttlMillis;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+        int target = Math.max(1, maxSize * 9 / 10);
+        if (entries.size() > target) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().writtenAt()))
+                    .limit(entries.size() - target)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(k -> {
+                        entries.remove(k);
+                        evictions.increment();
+                    });
+        }
+    }
+
+    private long now() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,52 @@
+package com.gamesup.cli;
+
+import com.gamesup.service.CatalogImportService;
+import com.gamesup.service.ImportReport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Mode ligne de commande : importe le fichier puis arrête l'application (SpringApplication.exit, code 0).
+ * Une erreur d'import fait échouer le démarrage : Spring Boot la journalise et le processus sort en erreur.
+ * <pre>java -jar target/gamesup-0.0.1-SNAPSHOT-exec.jar --spring.main.web-application-type=none --catalog.import.file=../KNN/synthetic_games.json</pre>
+ */
+@Component
+@ConditionalOnProperty("catalog.import.file")
+public class CatalogImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportRunner.class);
+
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Value("${catalog.import.file}")
+    private Path file;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ImportReport report;
+        try (InputStream in = Files.newInputStream(file)) {
+            report = catalogImportService.importGames(in);
+        }
+        log.info("{} jeux importés de {} en {} ms ({} lignes/s), {} ignorés ; créés : {} catégories, {} auteurs, {} éditeurs",
+                report.games(), file, report.elapsedMs(), Math.round(report.rowsPerSecond()), report.skipped(),
+                report.categories(), report.authors(), report.publishers());
+        // ferme le contexte (serveur web compris s'il y en a un) : la JVM s'arrête une fois run() terminé
+        SpringApplication.exit(context, () -> 0);
+    }
+}
@@ -0,0 +1,12 @@
+package com.gamesup.client;
+
+public class BackendUnavailableException extends RuntimeException {
+
+    public BackendUnavailableException(String message) {
+        super(message);
+    }
+
+    public BackendUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,68 @@
+package com.gamesup.client;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disjoncteur minimal : après N échecs consécutifs on arrête d'appeler le backend pendant openMillis,
+ * puis on laisse passer un seul appel de test (HALF_OPEN) qui referme ou rouvre le circuit.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    // 0 = circuit fermé, sinon instant d'ouverture
+    private final AtomicLong openedAt = new AtomicLong();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public boolean tryAcquire() {
+        long opened = openedAt.get();
+        if (opened == 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() - opened < openMillis) {
+            return false;
+        }
+        return probeInFlight.compareAndSet(false, true);
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        openedAt.set(0);
+        probeInFlight.set(false);
+    }
+
+    public void onFailure() {
+        if (openedAt.get() != 0) {
+            // l'appel de test a échoué : on repart pour une période d'ouverture
+            openedAt.set(System.currentTimeMillis());
+            probeInFlight.set(false);
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt.set(System.currentTimeMillis());
+        }
+    }
+
+    public State state() {
+        long opened = openedAt.get();
+        if (opened == 0) {
+            return State.CLOSED;
+        }
+        return System.currentTimeMillis() - opened < openMillis ? State.OPEN : State.HALF_OPEN;
+    }
+}
@@ -0,0 +1,85 @@
+package com.gamesup.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accès HTTP au service Python de recommandation (KNN).
+ * Le RestTemplate est partagé (pool de connexions + timeouts, cf. RecommendationClientConfig)
+ * et chaque appel passe par le disjoncteur.
+ */
+@Component
+public class KnnClient {
+
+    @Autowired
+    private RestTemplate recommendationRestTemplate;
+
+    @Value("${recommendation.base-url}")
+    private String baseUrl;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    public KnnClient(@Value("${recommendation.breaker.failure-threshold}") int failureThreshold,
+                     @Value("${recommendation.breaker.open-ms}") long openMillis) {
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openMillis);
+    }
+
+    public String fetchRecommendations() {
+        if (!circuitBreaker.tryAcquire()) {
+            rejected.increment();
+            throw new BackendUnavailableException("Circuit ouvert vers le service de recommandation");
+        }
+        long start = System.nanoTime();
+        try {
+            String body = recommendationRestTemplate.postForObject(baseUrl + "/test/recommendations", null, String.class);
+            circuitBreaker.onSuccess();
+            return body;
+        } catch (RestClientException e) {
+            failures.increment();
+            circuitBreaker.onFailure();
+            throw new BackendUnavailableException("Service de recommandation indisponible", e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            calls.increment();
+            totalLatencyNanos.add(elapsed);
+            maxLatencyNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    public long calls() {
+        return calls.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public double meanLatencyMillis() {
+        long n = calls.sum();
+        return n == 0 ? 0 : totalLatencyNanos.sum() / 1_000_000.0 / n;
+    }
+
+    public double maxLatencyMillis() {
+        return maxLatencyNanos.get() / 1_000_000.0;
+    }
+}
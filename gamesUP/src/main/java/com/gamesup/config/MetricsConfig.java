@@ -0,0 +1,33 @@
+package com.gamesup.config;
+
+import com.gamesup.metrics.SqlMetricsDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Chronométrage JDBC : le DataSource auto-configuré est enveloppé dans SqlMetricsDataSource.
+     * Les métriques Hikari restent disponibles, Spring Boot sait retrouver le pool derrière l'enveloppe.
+     * Un DataSource qui en enveloppe d'autres (routage primaire/réplica) n'est pas chronométré : ses cibles le sont.
+     */
+    @Bean
+    public static BeanPostProcessor sqlMetricsDataSourcePostProcessor(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                    return new SqlMetricsDataSource(dataSource, registry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
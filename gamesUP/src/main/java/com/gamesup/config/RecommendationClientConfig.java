@@ -0,0 +1,36 @@
+package com.gamesup.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+@Configuration
+public class RecommendationClientConfig {
+
+    /**
+     * Un seul HttpClient JDK pour toute l'appli : il garde les connexions keep-alive ouvertes (pool)
+     * au lieu d'en ouvrir une par requête comme le RestTemplate par défaut.
+     * En mode threads virtuels, ses tâches internes (réception des réponses) tournent aussi sur des threads virtuels.
+     */
+    @Bean
+    public RestTemplate recommendationRestTemplate(@Value("${recommendation.connect-timeout-ms}") long connectTimeoutMs,
+                                                   @Value("${recommendation.read-timeout-ms}") long readTimeoutMs,
+                                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        HttpClient httpClient = builder.build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
+    }
+}
@@ -0,0 +1,87 @@
+package com.gamesup.config;
+
+import com.gamesup.datasource.H2ReplicaCopier;
+import com.gamesup.datasource.ReadWriteRoutingDataSource;
+import com.gamesup.datasource.ReplicaLagMonitor;
+import com.gamesup.datasource.ReplicaState;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Primaire (spring.datasource.*) et réplica en lecture (datasource.replica.*), chacun avec son pool Hikari,
+ * derrière un DataSource qui route chaque transaction (ReadWriteRoutingDataSource).
+ * Sans datasource.replica.url, rien de tout ça : Spring Boot configure son DataSource unique habituel.
+ */
+@Configuration
+@ConditionalOnProperty("datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username}") String username,
+                                              @Value("${datasource.replica.password}") String password,
+                                              @Value("${datasource.replica.pool-size}") int poolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolSize);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaState replicaState(@Value("${datasource.replica.max-lag-ms}") long maxLagMillis, MeterRegistry registry) {
+        ReplicaState state = new ReplicaState(maxLagMillis);
+        Gauge.builder("gamesup.datasource.replica.lag", state, ReplicaState::lagMillis)
+                .description("Retard du réplica en ms (-1 : hors ligne)").register(registry);
+        return state;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaState state, MeterRegistry registry) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, state, registry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               ReplicaState state) {
+        return new ReplicaLagMonitor(primary, replica, state);
+    }
+
+    @Bean
+    @ConditionalOnProperty("datasource.replica.h2-copy-ms")
+    public H2ReplicaCopier h2ReplicaCopier(@Qualifier("primaryDataSource") DataSource primary,
+                                           @Qualifier("replicaDataSource") DataSource replica,
+                                           ReplicaState state, ReplicaLagMonitor monitor) {
+        return new H2ReplicaCopier(primary, replica, state, monitor);
+    }
+}
@@ -1,34 +1,77 @@
 package com.gamesup.config;
 
+import com.gamesup.ratelimit.AdmissionControl;
+import com.gamesup.ratelimit.AdmissionControlFilter;
+import com.gamesup.ratelimit.RateLimitProperties;
+import com.gamesup.security.CachingAuthenticationProvider;
+import com.gamesup.security.CustomUserDetailsService;
+import com.gamesup.security.TokenAuthenticationFilter;
+import com.gamesup.security.TokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
+    // Authentification par jeton (POST /auth/token) ; HTTP Basic seulement si activé explicitement
+    @Value("${security.http-basic.enabled}")
+    private boolean httpBasicEnabled;
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenService tokenService,
+                                                   AdmissionControl admissionControl) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/signup").permitAll() // ← Routes publiques
+                        .requestMatchers("/signup", "/auth/token").permitAll() // ← Routes publiques
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .headers(headers -> headers.frameOptions(frame -> frame.disable()))
-                .httpBasic(httpBasic -> {});
+                // limites par IP avant toute vérification d'identifiants (HMAC du jeton, BCrypt de HTTP Basic)
+                .addFilterBefore(AdmissionControlFilter.beforeAuthentication(admissionControl, httpBasicEnabled),
+                        BasicAuthenticationFilter.class)
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), BasicAuthenticationFilter.class)
+                // après l'authentification (limite par utilisateur), avant l'autorisation
+                .addFilterAfter(AdmissionControlFilter.afterAuthentication(admissionControl), BasicAuthenticationFilter.class);
+        if (httpBasicEnabled) {
+            http.httpBasic(httpBasic -> {});
+        } else {
+            http.exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+        }
         return http.build();
     }
 
+    @Bean
+    public CachingAuthenticationProvider authenticationProvider(CustomUserDetailsService userDetailsService,
+                                                                PasswordEncoder passwordEncoder,
+                                                                @Value("${security.credential-cache.max-entries}") int maxEntries,
+                                                                @Value("${security.credential-cache.ttl-ms}") long ttlMillis) {
+        DaoAuthenticationProvider daoProvider = new DaoAuthenticationProvider(passwordEncoder);
+        daoProvider.setUserDetailsService(userDetailsService);
+        return new CachingAuthenticationProvider(daoProvider, maxEntries, ttlMillis);
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(); // Cryptage des mots de passe
     }
-}
\ No newline at end of file
+}
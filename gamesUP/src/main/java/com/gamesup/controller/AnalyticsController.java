@@ -0,0 +1,30 @@
+package com.gamesup.controller;
+
+import com.gamesup.service.SalesAnalyticsService;
+import com.gamesup.service.SalesReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+public class AnalyticsController {
+
+    @Autowired
+    private SalesAnalyticsService salesAnalyticsService;
+
+    /**
+     * Classement des ventes payées sur [from, to[ (dates ISO, facultatives) ; limit est plafonné à 1000.
+     */
+    @GetMapping(path = "/analytics/sales")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SalesReport sales(@RequestParam(defaultValue = "GAME") SalesAnalyticsService.Dimension by,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                             @RequestParam(defaultValue = "REVENUE") SalesAnalyticsService.Sort sort,
+                             @RequestParam(defaultValue = "20") int limit) {
+        return salesAnalyticsService.report(by, from, to, sort, Math.max(1, Math.min(limit, 1000)));
+    }
+}
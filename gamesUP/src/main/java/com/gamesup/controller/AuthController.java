@@ -0,0 +1,42 @@
+package com.gamesup.controller;
+
+import com.gamesup.entity.User;
+import com.gamesup.security.TokenService;
+import com.gamesup.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+public class AuthController {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    /**
+     * Seul endroit où le mot de passe est vérifié (BCrypt) ; les requêtes suivantes présentent le jeton.
+     */
+    @PostMapping(path = "/auth/token")
+    public Map<String, String> token(String email, String password) {
+        User user = userService.connexion(email, password);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        return Map.of("token", tokenService.issue(user), "type", "Bearer");
+    }
+
+    @PostMapping(path = "/auth/logout")
+    public void logout(Authentication authentication) {
+        if (authentication.getDetails() instanceof TokenService.TokenClaims claims) {
+            tokenService.revoke(claims);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.gamesup.controller;
+
+import com.gamesup.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * Tous les avis d'id supérieur à afterID, par id croissant, un objet JSON par ligne ; sans limit, jusqu'au bout.
+     */
+    @GetMapping(path = "/export/reviews")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> reviews(@RequestParam(defaultValue = "0") long afterID,
+                                                         @RequestParam(required = false) Long limit) {
+        long max = limit == null ? Long.MAX_VALUE : Math.max(0, limit);
+        return ndjson(out -> exportService.exportReviews(afterID, max, out));
+    }
+
+    /**
+     * Commandes payées (PAID, SHIPPED, DELIVERED) d'id supérieur à afterID avec leurs lignes, même format.
+     */
+    @GetMapping(path = "/export/purchases")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> purchases(@RequestParam(defaultValue = "0") long afterID,
+                                                           @RequestParam(required = false) Long limit) {
+        long max = limit == null ? Long.MAX_VALUE : Math.max(0, limit);
+        return ndjson(out -> exportService.exportPurchases(afterID, max, out));
+    }
+
+    // écrit hors du thread de la requête, directement dans la réponse
+    private static ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
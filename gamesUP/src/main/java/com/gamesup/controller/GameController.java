@@ -1,15 +1,29 @@
 package com.gamesup.controller;
 
-import com.gamesup.entity.Game;
+import com.gamesup.cache.CacheStats;
+import com.gamesup.cache.ContentVersion;
+import com.gamesup.search.SearchQuery;
+import com.gamesup.service.PageResult;
 import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.OffsetPageRequest;
+import com.gamesup.service.CatalogImportService;
 import com.gamesup.service.GameService;
+import com.gamesup.service.GameView;
+import com.gamesup.service.ImportReport;
+import com.gamesup.service.WishlistService;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 public class GameController {
@@ -17,6 +31,12 @@ public class GameController {
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private CatalogImportService catalogImportService;
+
+    @Autowired
+    private WishlistService wishlistService;
+
     @PutMapping(path = "/game/update")
     @PreAuthorize("hasRole('ADMIN')")
     public void update(@RequestParam long id,
@@ -36,10 +56,23 @@ public class GameController {
     }
 
 
+    /**
+     * Les lectures du catalogue renvoient des GameView à plat, avec wishCount ; avec userID elles indiquent aussi si le jeu est dans sa liste (wished).
+     * GET conditionnel : ETag (version du jeu, wishCount, wished) et Last-Modified ; une requête dont
+     * If-None-Match / If-Modified-Since correspond reçoit 304 sans que le jeu soit lu ni sérialisé.
+     */
     @GetMapping(path = "/game/details")
-    public Game detail(@RequestParam long gameID) {
-        Game game = gameService.detail(gameID);
-        return game;
+    public GameView detail(@RequestParam long gameID,
+                       @RequestParam(required = false) Long userID,
+                       ServletWebRequest request) {
+        // versions lues avant le contenu : une réponse n'est jamais plus ancienne que son ETag
+        ContentVersion version = gameService.version(gameID);
+        String etag = ContentVersion.etag(version.value(), wishlistService.wishCount(gameID),
+                userID == null ? -1 : wishlistService.wished(userID, gameID) ? 1 : 0);
+        if (notModified(request, etag, Math.max(version.modifiedAt(), wishlistService.version().modifiedAt()))) {
+            return null;
+        }
+        return gameService.detailView(gameID, userID);
     }
 
 
@@ -54,13 +87,87 @@ public class GameController {
         gameService.add(title, price,stock,authorID,categoryID,publisherID);
     }
 
+    /**
+     * Import en masse, corps au format KNN/synthetic_games.json ; le flux est lu au fil de l'eau.
+     */
+    @PostMapping(path = "/game/import", consumes = "application/json")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportReport importGames(InputStream body) throws IOException {
+        return catalogImportService.importGames(body);
+    }
+
+    /**
+     * Pagination par numéro de page (page/size) ou par offset libre (offset/size) ; size est plafonné à 100.
+     * GET conditionnel sur la version du catalogue entier et des listes de souhaits : 304 tant que rien n'a changé.
+     */
     @GetMapping(path = "/game/filter")
-    public List<Game> filter(  @RequestParam(required = false) String category,
+    public PageResult<GameView> filter(  @RequestParam(required = false) String category,
                                 @RequestParam(required = false) String author,
                                 @RequestParam(required = false) String publisher,
-                                @RequestParam(required = false) String name) {
-        return gameService.filter(category, author, publisher, name);
+                                @RequestParam(required = false) String name,
+                                @RequestParam(defaultValue = "0") int page,
+                                @RequestParam(defaultValue = "20") int size,
+                                @RequestParam(required = false) Long offset,
+                                @RequestParam(defaultValue = "id") String sort,
+                                @RequestParam(required = false) Long userID,
+                                ServletWebRequest request) {
+        ContentVersion catalog = gameService.version();
+        ContentVersion wishes = wishlistService.version();
+        if (notModified(request, ContentVersion.etag(catalog.value(), wishes.value()),
+                Math.max(catalog.modifiedAt(), wishes.modifiedAt()))) {
+            return null;
+        }
+        int limit = OffsetPageRequest.limit(size);
+        long start = offset != null ? offset : (long) page * limit;
+        return gameService.filterViews(category, author, publisher, name, start, limit, sort, userID);
+    }
+
+    @GetMapping(path = "/game/search")
+    public List<GameView> search(@RequestParam(required = false) String q,
+                             @RequestParam(defaultValue = "all") String match,
+                             @RequestParam(required = false) String category,
+                             @RequestParam(required = false) String author,
+                             @RequestParam(required = false) String publisher,
+                             @RequestParam(required = false) Float minPrice,
+                             @RequestParam(required = false) Float maxPrice,
+                             @RequestParam(defaultValue = "false") boolean inStock,
+                             @RequestParam(defaultValue = "20") int limit,
+                             @RequestParam(required = false) Long userID) {
+        SearchQuery query = new SearchQuery(q, !"any".equalsIgnoreCase(match), category, author, publisher,
+                minPrice, maxPrice, inStock, Math.max(1, Math.min(limit, 100)));
+        return gameService.searchViews(query, userID);
+    }
+
+    /**
+     * Classement par note moyenne (à égalité, le plus d'avis d'abord) ; limit est plafonné à 100.
+     */
+    @GetMapping(path = "/game/top-rated")
+    public List<GameView> topRated(@RequestParam(defaultValue = "10") int limit,
+                               @RequestParam(defaultValue = "1") int minReviews,
+                               @RequestParam(required = false) Long userID) {
+        return gameService.topRatedViews(Math.max(1, Math.min(limit, 100)), Math.max(1, minReviews), userID);
+    }
+
+    /**
+     * "Jeux similaires" de la fiche produit, précalculés en mémoire ; limit est plafonné à similarity.neighbors.
+     */
+    @GetMapping(path = "/game/similar")
+    public List<GameView> similar(@RequestParam long gameID,
+                                  @RequestParam(defaultValue = "10") int limit,
+                                  @RequestParam(required = false) Long userID) {
+        return gameService.similarViews(gameID, Math.max(1, limit), userID);
     }
 
+    @GetMapping(path = "/game/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, CacheStats> cacheStats() {
+        return gameService.cacheStats();
+    }
 
+    // Spring Security interdit par défaut toute mise en cache (no-store) : le client peut garder la réponse
+    // à condition de la revalider à chaque fois
+    private static boolean notModified(ServletWebRequest request, String etag, long lastModified) {
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+        return request.checkNotModified(etag, lastModified);
+    }
 }
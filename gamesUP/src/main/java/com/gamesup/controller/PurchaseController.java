@@ -1,24 +1,58 @@
 package com.gamesup.controller;
 
+import com.gamesup.service.BasketItem;
+import com.gamesup.service.FlashSaleStats;
+import com.gamesup.service.OrderProcessingService;
+import com.gamesup.service.OrderProcessingStats;
 import com.gamesup.service.PurchaseService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.util.List;
+
 @RestController
 public class PurchaseController {
 
     @Autowired
     private PurchaseService purchaseService;
 
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
     @PutMapping(path = "/purchase/pay")
     public void toPay(@RequestParam long purchaseID) {
         purchaseService.pay(purchaseID);
     }
 
+    @PutMapping(path = "/purchase/ship")
+    @PreAuthorize("hasRole('ADMIN')")
+    public boolean ship(@RequestParam long purchaseID) {
+        return purchaseService.ship(purchaseID);
+    }
+
+    @PutMapping(path = "/purchase/deliver")
+    @PreAuthorize("hasRole('ADMIN')")
+    public boolean deliver(@RequestParam long purchaseID) {
+        return purchaseService.deliver(purchaseID);
+    }
+
+    @PutMapping(path = "/purchase/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public boolean cancel(@RequestParam long purchaseID) {
+        return purchaseService.cancel(purchaseID);
+    }
+
+    @GetMapping(path = "/purchase/orders/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public OrderProcessingStats orderStats() {
+        return orderProcessingService.stats();
+    }
+
     @GetMapping(path = "/purchase/compute")
-    public float computePrice(@RequestParam long idPurchase) {
-        float price = purchaseService.computeTotalPrice(idPurchase);
+    public BigDecimal computePrice(@RequestParam long idPurchase) {
+        BigDecimal price = purchaseService.computeTotalPrice(idPurchase);
         return price;
     }
 
@@ -29,9 +63,42 @@ public class PurchaseController {
         purchaseService.addToBasket(userID, gameID, quantity);
     }
 
+    /**
+     * Corps : [{"gameID": 1, "quantity": 2}, ...] ; tout est ajouté, ou rien (409 si un jeu manque de stock).
+     */
+    @PostMapping(path = "/purchase/add-all", consumes = "application/json")
+    public void addAllToBasket(@RequestParam long userID,
+                               @RequestBody List<BasketItem> items) {
+        purchaseService.addAllToBasket(userID, items);
+    }
+
     @DeleteMapping(path = "/purchase/delete")
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteBasket(@RequestParam long purchaseLineID) {
         purchaseService.removeFromBasket(purchaseLineID);
     }
+
+    @PostMapping(path = "/purchase/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    public int reconcileTotals() {
+        return purchaseService.reconcileTotals();
+    }
+
+    @PutMapping(path = "/purchase/flash-sale/start")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void startFlashSale(@RequestParam long gameID) {
+        purchaseService.startFlashSale(gameID);
+    }
+
+    @PutMapping(path = "/purchase/flash-sale/stop")
+    @PreAuthorize("hasRole('ADMIN')")
+    public boolean stopFlashSale(@RequestParam long gameID) {
+        return purchaseService.stopFlashSale(gameID);
+    }
+
+    @GetMapping(path = "/purchase/flash-sale/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<FlashSaleStats> flashSaleStats() {
+        return purchaseService.flashSaleStats();
+    }
 }
@@ -1,28 +1,28 @@
 package com.gamesup.controller;
 
-import org.springframework.http.ResponseEntity;
+import com.gamesup.service.RecommendationService;
+import com.gamesup.service.RecommendationStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.client.RestTemplate;
+
+import java.security.Principal;
 
 @RestController
 public class RecommendationController {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private RecommendationService recommendationService;
 
     @GetMapping("/recommendations")
-    public String showRecommendations() {
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    "http://localhost:8001/test/recommendations",
-                    null,
-                    String.class
-            );
-
-            return response.getBody();
+    public String showRecommendations(Principal principal) {
+        return recommendationService.recommendations(principal.getName());
+    }
 
-        } catch (Exception e) {
-            return "{\"error\": \"Service indisponible\"}";
-        }
+    @GetMapping("/recommendations/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public RecommendationStats stats() {
+        return recommendationService.stats();
     }
-}
\ No newline at end of file
+}
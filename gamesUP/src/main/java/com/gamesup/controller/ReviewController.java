@@ -1,13 +1,13 @@
 package com.gamesup.controller;
 
-import com.gamesup.entity.Review;
+import com.gamesup.repository.OffsetPageRequest;
+import com.gamesup.repository.ReviewView;
+import com.gamesup.service.PageResult;
 import com.gamesup.service.ReviewService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 public class ReviewController {
 
@@ -22,8 +22,18 @@ public class ReviewController {
 
     @GetMapping(path = "/review/list")
     @PreAuthorize("hasRole('ADMIN')")
-    public List<Review> list() {
-        return reviewService.list();
+    public PageResult<ReviewView> list(@RequestParam(defaultValue = "0") int page,
+                                   @RequestParam(defaultValue = "20") int size,
+                                   @RequestParam(required = false) Long offset) {
+        int limit = OffsetPageRequest.limit(size);
+        long start = offset != null ? offset : (long) page * limit;
+        return reviewService.listViews(start, limit);
+    }
+
+    @PostMapping(path = "/review/ratings/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public int rebuildRatings() {
+        return reviewService.rebuildRatings();
     }
 
     @PostMapping(path = "/review/add")
@@ -2,6 +2,7 @@ package com.gamesup.controller;
 
 import com.gamesup.entity.User;
 import com.gamesup.service.UserService;
+import com.gamesup.service.UserView;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -12,8 +13,9 @@ public class UserController {
     UserService userService;
 
     @GetMapping(path = "/login")
-    public User login(String email, String password) {
-        return userService.connexion(email, password);
+    public UserView login(String email, String password) {
+        User user = userService.connexion(email, password);
+        return user == null ? null : UserView.of(user);
     }
 
     @PostMapping(path = "/signup")
@@ -0,0 +1,40 @@
+package com.gamesup.controller;
+
+import com.gamesup.service.GameView;
+import com.gamesup.service.WishlistService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+public class WishlistController {
+
+    @Autowired
+    private WishlistService wishlistService;
+
+    @GetMapping(path = "/wishlist")
+    public List<GameView> list(@RequestParam long userID) {
+        return wishlistService.listViews(userID);
+    }
+
+    @PostMapping(path = "/wishlist/add")
+    public boolean add(@RequestParam long userID, @RequestParam long gameID) {
+        return wishlistService.add(userID, gameID);
+    }
+
+    @DeleteMapping(path = "/wishlist/delete")
+    public boolean remove(@RequestParam long userID, @RequestParam long gameID) {
+        return wishlistService.remove(userID, gameID);
+    }
+
+    /**
+     * Jeux les plus souhaités, pour la mise en avant ; limit est plafonné à 100.
+     */
+    @GetMapping(path = "/wishlist/most-wished")
+    @PreAuthorize("hasRole('ADMIN')")
+    public List<GameView> mostWished(@RequestParam(defaultValue = "10") int limit) {
+        return wishlistService.mostWishedViews(Math.max(1, Math.min(limit, 100)));
+    }
+}
@@ -0,0 +1,50 @@
+package com.gamesup.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Remplace la réplication en local, quand primaire et réplica sont deux bases H2 : recopie périodiquement tout
+ * le primaire (SCRIPT) dans le réplica vidé. Le réplica a donc un retard d'au plus un intervalle, comme un vrai.
+ * Pendant la copie il est déclaré hors ligne et les lectures vont au primaire. Pour le développement et les tests
+ * seulement : le coût d'une copie est proportionnel à la taille de la base.
+ */
+public class H2ReplicaCopier {
+
+    private static final Logger log = LoggerFactory.getLogger(H2ReplicaCopier.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReplicaState state;
+    private final ReplicaLagMonitor monitor;
+
+    public H2ReplicaCopier(DataSource primary, DataSource replica, ReplicaState state, ReplicaLagMonitor monitor) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.state = state;
+        this.monitor = monitor;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.h2-copy-ms}", initialDelayString = "${datasource.replica.h2-copy-ms}")
+    public synchronized void copy() {
+        long start = System.nanoTime();
+        // battement écrit avant l'export : relu ensuite sur le réplica, il date la copie
+        monitor.tick();
+        List<String> script = primary.queryForList("script nopasswords nosettings", String.class);
+        state.offline();
+        replica.execute("drop all objects");
+        for (String statement : script) {
+            // l'utilisateur existe déjà sur le réplica, avec son propre mot de passe
+            if (!statement.startsWith("CREATE USER")) {
+                replica.execute(statement);
+            }
+        }
+        monitor.tick();
+        log.debug("Réplica H2 recopié : {} instructions en {} ms", script.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
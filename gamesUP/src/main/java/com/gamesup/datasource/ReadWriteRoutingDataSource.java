@@ -0,0 +1,84 @@
+package com.gamesup.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Choisit le primaire ou le réplica à chaque connexion. Va sur le réplica une transaction en lecture seule ouverte
+ * par l'appli (@Transactional(readOnly = true) d'un service, TransactionTemplate en lecture seule), si ReplicaState
+ * l'autorise pour l'utilisateur courant ; tout le reste va sur le primaire. Les transactions que Spring Data ouvre
+ * d'office autour des méthodes de repository sont aussi en lecture seule, mais restent sur le primaire : ce sont
+ * les relectures juste après une écriture. Une transaction en lecture seule nommée PRIMARY_READ reste aussi sur le
+ * primaire, sans que l'utilisateur soit noté comme écrivain.
+ * Doit être enveloppé dans un LazyConnectionDataSourceProxy : la connexion n'est alors prise qu'à la première
+ * requête, une fois la transaction démarrée et son mode connu.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target { PRIMARY, REPLICA }
+
+    // nom de transaction (TransactionTemplate.setName) : lecture sur le primaire, sans effet sur ReplicaState
+    public static final String PRIMARY_READ = "gamesup.primary-read";
+
+    private static final String REPOSITORY_TRANSACTIONS = "org.springframework.data.";
+
+    private final ReplicaState state;
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaState state, MeterRegistry registry) {
+        this.state = state;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        FunctionCounter.builder("gamesup.datasource.connections", primaryConnections, LongAdder::sum)
+                .tag("target", "primary").register(registry);
+        FunctionCounter.builder("gamesup.datasource.connections", replicaConnections, LongAdder::sum)
+                .tag("target", "replica").register(registry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Target target = route();
+        (target == Target.REPLICA ? replicaConnections : primaryConnections).increment();
+        return target;
+    }
+
+    private Target route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // lecture de ses propres écritures : noté au commit, ses lectures restent sur le primaire jusqu'à réplication
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        state.wrote(user, System.currentTimeMillis());
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name != null && (name.startsWith(REPOSITORY_TRANSACTIONS) || name.equals(PRIMARY_READ))) {
+            return Target.PRIMARY;
+        }
+        return state.readable(user) ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    // les appels sans authentification (tâches planifiées, anonymes) partagent la même clé
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "" : authentication.getName();
+    }
+}
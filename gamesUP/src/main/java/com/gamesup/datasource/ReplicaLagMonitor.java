@@ -0,0 +1,56 @@
+package com.gamesup.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Mesure le retard du réplica par battement de cœur : à chaque passage, relit sur le réplica l'heure du dernier
+ * battement répliqué (ReplicaState.replicatedUpTo), puis en écrit un nouveau sur le primaire.
+ * Le retard mesuré inclut l'intervalle entre deux battements : la tolérance doit être plus grande.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReplicaState state;
+    private boolean warned;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, ReplicaState state) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.state = state;
+        // créée sur le primaire, la table arrive sur le réplica par la réplication
+        this.primary.execute("create table if not exists replica_heartbeat (id int primary key, written_at bigint not null)");
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.heartbeat-ms}", initialDelayString = "${datasource.replica.heartbeat-ms}")
+    public synchronized void tick() {
+        try {
+            Long heartbeat = replica.query("select written_at from replica_heartbeat where id = 1",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            if (heartbeat == null) {
+                state.offline();
+            } else {
+                state.replicatedUpTo(heartbeat);
+            }
+            warned = false;
+        } catch (DataAccessException e) {
+            state.offline();
+            if (!warned) {
+                log.warn("Réplica illisible, les lectures passent par le primaire : {}", e.getMessage());
+                warned = true;
+            }
+        }
+        long now = System.currentTimeMillis();
+        if (primary.update("update replica_heartbeat set written_at = ? where id = 1", now) == 0) {
+            primary.update("insert into replica_heartbeat (id, written_at) values (1, ?)", now);
+        }
+    }
+}
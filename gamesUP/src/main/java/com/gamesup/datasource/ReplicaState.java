@@ -0,0 +1,64 @@
+package com.gamesup.datasource;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ce que le routage sait du réplica : jusqu'où il a rattrapé le primaire (dernier battement de cœur relu dessus,
+ * cf. ReplicaLagMonitor) et, par utilisateur, l'heure de sa dernière écriture validée.
+ * Un utilisateur ne lit sur le réplica que si son retard est toléré et qu'il contient déjà ses propres écritures.
+ */
+public class ReplicaState {
+
+    private final long maxLagMillis;
+    private volatile long replicatedUpTo = Long.MIN_VALUE;
+    // seules les écritures pas encore répliquées sont gardées
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReplicaState(long maxLagMillis) {
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public boolean readable(String user) {
+        long upTo = replicatedUpTo;
+        if (upTo == Long.MIN_VALUE || System.currentTimeMillis() - upTo > maxLagMillis) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(user);
+        // strict : un battement écrit dans la même milliseconde a pu précéder le commit
+        return lastWrite == null || lastWrite < upTo;
+    }
+
+    /**
+     * @return true si le réplica, dans le retard toléré, contient tout ce qui a été validé jusqu'à at inclus
+     */
+    public boolean caughtUpWith(long at) {
+        long upTo = replicatedUpTo;
+        return upTo != Long.MIN_VALUE && System.currentTimeMillis() - upTo <= maxLagMillis && at < upTo;
+    }
+
+    public void wrote(String user, long at) {
+        lastWrites.merge(user, at, Math::max);
+    }
+
+    /**
+     * @param heartbeat heure du battement de cœur relu sur le réplica : tout ce qui a été validé avant y est
+     */
+    public void replicatedUpTo(long heartbeat) {
+        replicatedUpTo = heartbeat;
+        lastWrites.values().removeIf(at -> at < heartbeat);
+    }
+
+    // réplica illisible (injoignable, en cours de copie) : tout part sur le primaire
+    public void offline() {
+        replicatedUpTo = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return retard du réplica en ms, -1 tant qu'il n'a pas été mesuré ou s'il est hors ligne
+     */
+    public long lagMillis() {
+        long upTo = replicatedUpTo;
+        return upTo == Long.MIN_VALUE ? -1 : Math.max(0, System.currentTimeMillis() - upTo);
+    }
+}
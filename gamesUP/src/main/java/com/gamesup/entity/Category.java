@@ -4,13 +4,18 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 
 import java.util.List;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Category {
@@ -26,6 +31,23 @@ public class Category {
 	private String slug;
 
 	@JsonBackReference
+	@ToString.Exclude
 	@OneToMany(mappedBy = "category")
 	private List<Game> games;
-}
\ No newline at end of file
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+			return false;
+		}
+		return id != null && id.equals(((Category) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		return Hibernate.getClassLazy(this).hashCode();
+	}
+}
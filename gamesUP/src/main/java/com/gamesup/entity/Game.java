@@ -3,18 +3,26 @@ package com.gamesup.entity;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Game {
@@ -38,36 +46,115 @@ public class Game {
     @Column()
     private int stock;
 
+    // quantité bloquée par des paniers non payés ; modifiée uniquement par les UPDATE conditionnels de GameDAO
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int reserved;
+
+    // agrégats des avis : UPDATE atomiques de GameDAO à chaque ajout / suppression, recalculés par ReviewService.rebuildRatings
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int reviewCount;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long ratingSum;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int rating1;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int rating2;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int rating3;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int rating4;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int rating5;
+
     @Column(nullable = false)
     private float price;
 
     @Column(length = 3)
     private String currency;
 
+    // LAZY : chaque lecture déclare ce qu'elle charge (projections et @EntityGraph de GameDAO)
 //    @JsonManagedReference
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn
     private Category category;
 
 //    @JsonManagedReference
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn
     private Publisher publisher;
 
 //    @JsonManagedReference
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn
     private Author author;
 
     @JsonIgnore
+    @ToString.Exclude
     @OneToMany(mappedBy = "game")
     private List<PurchaseLine> purchaseLines;
 
     @JsonIgnore
+    @ToString.Exclude
     @OneToMany(mappedBy = "game")
     private List<Review> reviews;
 
     @JsonIgnore
+    @ToString.Exclude
     @ManyToMany(mappedBy = "gamesWished")
     private List<User> usersWishing = new ArrayList<>();
-}
\ No newline at end of file
+
+    // moyenne arrondie à 2 décimales, null tant qu'il n'y a pas d'avis
+    @JsonProperty
+    public Double getAverageRating() {
+        if (reviewCount == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(reviewCount), 2, RoundingMode.HALF_UP).doubleValue();
+    }
+
+    // nombre d'avis par note, de 1 à 5
+    @JsonProperty
+    public int[] getRatingHistogram() {
+        return new int[]{rating1, rating2, rating3, rating4, rating5};
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((Game) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+}
@@ -0,0 +1,82 @@
+package com.gamesup.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox des commandes : une ligne par changement de statut d'un Purchase, écrite dans la même transaction
+ * que le changement lui-même. OrderProcessingService applique ensuite les effets (stock, caches) en arrière-plan.
+ */
+@Entity
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(indexes = {
+        @Index(columnList = "status, nextAttemptAt"),
+        @Index(columnList = "purchaseId")
+})
+public class OrderEvent {
+
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // simple id : le traitement n'a besoin que des lignes du purchase
+    @Column(nullable = false)
+    private Long purchaseId;
+
+    // statut atteint par le purchase
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Purchase.OrderStatus orderStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column
+    private LocalDateTime processedAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((OrderEvent) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+}
@@ -3,13 +3,18 @@ package com.gamesup.entity;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 
 import java.util.List;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Publisher {
@@ -22,6 +27,23 @@ public class Publisher {
 	private String name;
 
 	@JsonBackReference
+	@ToString.Exclude
 	@OneToMany(mappedBy = "publisher")
 	private List<Game> games;
-}
\ No newline at end of file
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+			return false;
+		}
+		return id != null && id.equals(((Publisher) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		return Hibernate.getClassLazy(this).hashCode();
+	}
+}
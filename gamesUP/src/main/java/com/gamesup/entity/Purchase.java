@@ -2,15 +2,21 @@ package com.gamesup.entity;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Purchase {
@@ -37,21 +43,54 @@ public class Purchase {
 	@Column
 	private LocalDateTime paidAt;
 
-	@Column(nullable = true)
-	private float totalAmount;
+	// tenus à jour à chaque ajout/retrait de ligne (cf. PurchaseDAO.addToTotals)
+	@ColumnDefault("0")
+	@Column(nullable = false, precision = 12, scale = 2)
+	private BigDecimal totalAmount = BigDecimal.ZERO;
+
+	@ColumnDefault("0")
+	@Column(nullable = false)
+	private int lineCount;
+
+	@ColumnDefault("0")
+	@Column(nullable = false)
+	private int itemCount;
 
 	@Column(length = 3)
 	private String currency;
 
-	@ManyToOne
+	@ToString.Exclude
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(nullable = false)
 	private User user;
 
-	@OneToMany(mappedBy = "purchase", fetch = FetchType.EAGER)
+	// id de l'utilisateur tant que ce purchase est son panier en cours, null une fois payé :
+	// l'index unique garantit un seul panier actif par utilisateur et sert à le retrouver
+	@Column(unique = true)
+	private Long activeBasketOf;
+
+	@ToString.Exclude
+	@OneToMany(mappedBy = "purchase")
 	private List<PurchaseLine> purchaseLines;
 
 	@PrePersist
 	protected void onCreate() {
 		createdAt = LocalDateTime.now();
 	}
-}
\ No newline at end of file
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+			return false;
+		}
+		return id != null && id.equals(((Purchase) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		return Hibernate.getClassLazy(this).hashCode();
+	}
+}
@@ -3,14 +3,19 @@ package com.gamesup.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 public class Review {
@@ -29,12 +34,30 @@ public class Review {
 	private LocalDateTime createdAt;
 
 	@JsonIgnore
-	@ManyToOne
+	@ToString.Exclude
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn
 	private User user;
 
-	@ManyToOne
+	// chargé explicitement par les requêtes qui le sérialisent (ReviewDAO)
+	@ToString.Exclude
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn
 	private Game game;
 
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+			return false;
+		}
+		return id != null && id.equals(((Review) o).getId());
+	}
+
+	@Override
+	public int hashCode() {
+		return Hibernate.getClassLazy(this).hashCode();
+	}
 }
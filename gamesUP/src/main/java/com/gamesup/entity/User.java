@@ -3,13 +3,19 @@ package com.gamesup.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Data
+@Getter
+@Setter
+@ToString
 @Table(name = "users")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,6 +33,7 @@ public class User {
     @Column(nullable = false, unique = true, length = 255)
     private String email;
 
+    @ToString.Exclude
     @Column(nullable = false, length = 255)
     private String password;
 
@@ -34,16 +41,44 @@ public class User {
     @Column(nullable = false, length = 20)
     private Role role = Role.CUSTOMER;
 
+    // incrémentée à chaque changement de rôle et portée par les jetons : TokenService refuse ceux d'une époque antérieure
     @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int tokenEpoch;
+
+    @JsonIgnore
+    @ToString.Exclude
     @OneToMany(mappedBy = "user")
     private List<Purchase> purchases = new ArrayList<>();
 
     @JsonIgnore
+    @ToString.Exclude
     @OneToMany(mappedBy = "user")
     private List<Review> reviews = new ArrayList<>();
 
+    // table nommée explicitement : WishlistIndex et UserDAO l'écrivent en SQL natif
     @JsonIgnore
+    @ToString.Exclude
     @ManyToMany
-    @JoinTable
+    @JoinTable(name = "users_games_wished",
+            joinColumns = @JoinColumn(name = "users_wishing_id"),
+            inverseJoinColumns = @JoinColumn(name = "games_wished_id"))
     private List<Game> gamesWished = new ArrayList<>();
-}
\ No newline at end of file
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Hibernate.getClassLazy(this) != Hibernate.getClassLazy(o)) {
+            return false;
+        }
+        return id != null && id.equals(((User) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Hibernate.getClassLazy(this).hashCode();
+    }
+}
@@ -0,0 +1,64 @@
+package com.gamesup.metrics;
+
+import com.gamesup.cache.CacheStats;
+import com.gamesup.security.CachingAuthenticationProvider;
+import com.gamesup.service.GameService;
+import com.gamesup.service.PurchaseService;
+import com.gamesup.service.RecommendationService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Expose les compteurs des TtlCache de l'appli (catalogue, recommandations, identifiants vérifiés, paniers actifs)
+ * sous gamesup.cache.*, tag cache=nom. Lus à chaque scrape, rien n'est recopié entre-temps.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private CachingAuthenticationProvider authenticationProvider;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    // Micrometer ne garde qu'une référence faible sur l'objet mesuré
+    private final List<Supplier<CacheStats>> sources = new ArrayList<>();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : gameService.cacheStats().keySet()) {
+            bind(registry, "catalog." + name, () -> gameService.cacheStats().get(name));
+        }
+        bind(registry, "recommendations", () -> recommendationService.stats().cache());
+        bind(registry, "credentials", authenticationProvider::stats);
+        bind(registry, "baskets", purchaseService::basketCacheStats);
+    }
+
+    private void bind(MeterRegistry registry, String cache, Supplier<CacheStats> stats) {
+        sources.add(stats);
+        FunctionCounter.builder("gamesup.cache.hits", stats, s -> s.get().hits())
+                .tag("cache", cache).register(registry);
+        FunctionCounter.builder("gamesup.cache.misses", stats, s -> s.get().misses())
+                .tag("cache", cache).register(registry);
+        FunctionCounter.builder("gamesup.cache.evictions", stats, s -> s.get().evictions())
+                .tag("cache", cache).register(registry);
+        Gauge.builder("gamesup.cache.size", stats, s -> s.get().size())
+                .tag("cache", cache).register(registry);
+        Gauge.builder("gamesup.cache.hit.ratio", stats, s -> s.get().hitRatio())
+                .tag("cache", cache).register(registry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.gamesup.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enveloppe le DataSource (Hikari) pour chronométrer chaque exécution JDBC, qu'elle vienne d'Hibernate
+ * ou de JdbcTemplate : Timer global gamesup.sql.statements, plus les portées SqlStatementScope ouvertes
+ * sur le thread (requête HTTP en cours, tests).
+ */
+public class SqlMetricsDataSource extends DelegatingDataSource {
+
+    private final Timer statements;
+
+    public SqlMetricsDataSource(DataSource target, MeterRegistry registry) {
+        super(target);
+        this.statements = Timer.builder("gamesup.sql.statements")
+                .description("Exécutions de requêtes SQL")
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    // createStatement / prepareStatement / prepareCall renvoient un Statement chronométré
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                        return timed(method.getReturnType(), statement);
+                    }
+                    return result;
+                });
+    }
+
+    private Object timed(Class<?> type, Statement statement) {
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        long elapsed = System.nanoTime() - start;
+                        statements.record(elapsed, TimeUnit.NANOSECONDS);
+                        SqlStatementScope.record(elapsed);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.gamesup.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compte les requêtes SQL exécutées pendant chaque requête HTTP et leur durée cumulée, par route
+ * (gamesup.http.sql.statements et gamesup.http.sql.time, avec p50/p95/p99) : c'est ce qui permet de voir
+ * quelles routes /game, /purchase, /review chargent la base. Placé avant la sécurité pour inclure
+ * les lectures d'authentification.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlRequestMetricsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementScope scope = SqlStatementScope.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("gamesup.http.sql.statements")
+                    .description("Requêtes SQL par requête HTTP")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry)
+                    .record(scope.statements());
+            Timer.builder("gamesup.http.sql.time")
+                    .description("Temps SQL cumulé par requête HTTP")
+                    .tags("method", request.getMethod(), "uri", uri)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(registry)
+                    .record(scope.nanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
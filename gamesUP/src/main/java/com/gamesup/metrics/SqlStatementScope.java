@@ -0,0 +1,50 @@
+package com.gamesup.metrics;
+
+/**
+ * Compteur des exécutions SQL faites par le thread courant entre open() et close(), alimenté par
+ * SqlMetricsDataSource. Sert à SqlRequestMetricsFilter (par requête HTTP) et aux tests qui vérifient
+ * le nombre de requêtes d'un appel de service. Les portées peuvent s'imbriquer : chaque exécution
+ * compte pour toutes les portées ouvertes.
+ */
+public final class SqlStatementScope implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStatementScope> CURRENT = new ThreadLocal<>();
+
+    private final SqlStatementScope parent;
+    private long statements;
+    private long nanos;
+
+    private SqlStatementScope(SqlStatementScope parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStatementScope open() {
+        SqlStatementScope scope = new SqlStatementScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void record(long elapsedNanos) {
+        for (SqlStatementScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            scope.nanos += elapsedNanos;
+        }
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+}
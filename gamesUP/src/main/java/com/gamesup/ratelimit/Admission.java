@@ -0,0 +1,7 @@
+package com.gamesup.ratelimit;
+
+/**
+ * Décision pour une requête : jetons restants si admise, délai avant le prochain jeton sinon.
+ */
+public record Admission(boolean admitted, int limit, int remaining, long retryAfterMillis) {
+}
@@ -0,0 +1,197 @@
+package com.gamesup.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contrôle d'admission par route et par client (utilisateur ou IP) : un TokenBucket par couple, dans une
+ * ConcurrentHashMap lue sans verrou. La mémoire est bornée : les seaux redevenus pleins sont oubliés par sweep(),
+ * et au-delà de ratelimit.max-keys les nouveaux clients d'une route partagent un seau de débordement
+ * (une inondation de clients différents reste limitée, au débit d'un seul client).
+ */
+@Component
+public class AdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionControl.class);
+
+    // au plus un sweep forcé par seconde quand la table est pleine
+    private static final long FORCED_SWEEP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Autowired
+    private RateLimitProperties properties;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final Map<Key, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastForcedSweep = new AtomicLong(System.nanoTime() - FORCED_SWEEP_NANOS);
+    private List<Route> routes = List.of();
+    private Route basicAuth;
+    private Counter overflow;
+
+    private record Key(String route, String client) {
+    }
+
+    public static final class Route {
+
+        private final String name;
+        private final String method;
+        private final PathPattern pattern;
+        private final int capacity;
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final RateLimitProperties.KeyBy keyBy;
+        private final TokenBucket overflow;
+        private final Counter admitted;
+        private final Counter rejected;
+
+        private Route(String name, RateLimitProperties.Route route, MeterRegistry registry) {
+            this.name = name;
+            this.method = route.method().toUpperCase();
+            this.pattern = PathPatternParser.defaultInstance.parse(route.path());
+            this.capacity = route.capacity();
+            this.intervalNanos = route.period().toNanos() / route.capacity();
+            this.toleranceNanos = this.intervalNanos * route.capacity();
+            this.keyBy = route.key() == null ? RateLimitProperties.KeyBy.IP : route.key();
+            this.overflow = new TokenBucket(System.nanoTime());
+            this.admitted = Counter.builder("gamesup.ratelimit.requests").description("Requêtes soumises au contrôle d'admission")
+                    .tags("route", name, "outcome", "admitted").register(registry);
+            this.rejected = Counter.builder("gamesup.ratelimit.requests").description("Requêtes soumises au contrôle d'admission")
+                    .tags("route", name, "outcome", "rejected").register(registry);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public RateLimitProperties.KeyBy keyBy() {
+            return keyBy;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        List<Route> configured = new ArrayList<>();
+        if (properties.routes() != null) {
+            properties.routes().forEach((name, route) -> configured.add(new Route(name, route, registry)));
+        }
+        this.routes = List.copyOf(configured);
+        RateLimitProperties.Route basic = properties.basicAuth();
+        if (basic != null) {
+            this.basicAuth = new Route("basic-auth", new RateLimitProperties.Route("*", "/**", basic.capacity(),
+                    basic.period(), RateLimitProperties.KeyBy.IP), registry);
+        }
+        this.overflow = Counter.builder("gamesup.ratelimit.overflow")
+                .description("Admissions décidées sur le seau partagé, table des clients pleine").register(registry);
+        Gauge.builder("gamesup.ratelimit.keys", buckets, Map::size)
+                .description("Couples route / client suivis").register(registry);
+        log.info("Contrôle d'admission {} sur {} routes", properties.enabled() ? "actif" : "inactif", routes.size());
+    }
+
+    /**
+     * Route limitée correspondant à la requête, null si elle ne l'est pas (ou si le contrôle est désactivé).
+     */
+    public Route route(HttpServletRequest request) {
+        if (!properties.enabled()) {
+            return null;
+        }
+        PathContainer path = null;
+        for (Route route : routes) {
+            if (route.method.equals(request.getMethod())) {
+                if (path == null) {
+                    path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+                }
+                if (route.pattern.matches(path)) {
+                    return route;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Seau des tentatives HTTP Basic si la requête porte des identifiants Basic, null sinon (ou si non configuré).
+     */
+    public Route basicAuth(HttpServletRequest request) {
+        if (!properties.enabled() || basicAuth == null) {
+            return null;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6) ? basicAuth : null;
+    }
+
+    public Admission admit(Route route, String client) {
+        return admit(route, client, System.nanoTime());
+    }
+
+    Admission admit(Route route, String client, long now) {
+        TokenBucket bucket = bucket(new Key(route.name, client), route, now);
+        long wait = bucket.tryAcquire(now, route.intervalNanos, route.toleranceNanos);
+        if (wait == 0) {
+            route.admitted.increment();
+            return new Admission(true, route.capacity, bucket.remaining(now, route.intervalNanos, route.toleranceNanos), 0);
+        }
+        route.rejected.increment();
+        return new Admission(false, route.capacity, 0, TimeUnit.NANOSECONDS.toMillis(wait) + 1);
+    }
+
+    private TokenBucket bucket(Key key, Route route, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= properties.maxKeys()) {
+            long last = lastForcedSweep.get();
+            if (now - last >= FORCED_SWEEP_NANOS && lastForcedSweep.compareAndSet(last, now)) {
+                sweep(now);
+            }
+            if (buckets.size() >= properties.maxKeys()) {
+                overflow.increment();
+                return route.overflow;
+            }
+        }
+        TokenBucket created = new TokenBucket(now);
+        TokenBucket existing = buckets.putIfAbsent(key, created);
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Oublie les seaux pleins (clients inactifs depuis au moins une période). Un client qui reprend juste à ce
+     * moment peut obtenir un jeton de plus sur le seau oublié : sans conséquence, il était plein.
+     */
+    @Scheduled(fixedDelayString = "${ratelimit.sweep-ms}", initialDelayString = "${ratelimit.sweep-ms}")
+    public int sweep() {
+        return sweep(System.nanoTime());
+    }
+
+    int sweep(long now) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.idle(now));
+        int evicted = before - buckets.size();
+        log.debug("Contrôle d'admission : {} clients inactifs oubliés, {} suivis", evicted, buckets.size());
+        return evicted;
+    }
+
+    public int keys() {
+        return buckets.size();
+    }
+}
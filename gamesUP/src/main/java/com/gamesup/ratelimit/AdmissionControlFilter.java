@@ -0,0 +1,96 @@
+package com.gamesup.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applique AdmissionControl aux routes limitées, en deux instances : beforeAuthentication (routes par IP et
+ * tentatives HTTP Basic) passe avant les filtres d'authentification, pour qu'un client refusé ne coûte ni HMAC
+ * ni BCrypt ; afterAuthentication (routes par utilisateur) passe après, pour connaître l'utilisateur, et avant
+ * l'autorisation et les contrôleurs. Un refus répond 429 avec Retry-After (secondes), sans toucher à la base.
+ * Pas déclaré en @Component pour ne pas être enregistré une seconde fois comme filtre servlet.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionControl admissionControl;
+    private final RateLimitProperties.KeyBy keyBy;
+    private final boolean basicAuth;
+
+    private AdmissionControlFilter(AdmissionControl admissionControl, RateLimitProperties.KeyBy keyBy, boolean basicAuth) {
+        this.admissionControl = admissionControl;
+        this.keyBy = keyBy;
+        this.basicAuth = basicAuth;
+    }
+
+    /**
+     * @param basicAuth HTTP Basic activé : ses tentatives passent aussi par le seau ratelimit.basic-auth
+     */
+    public static AdmissionControlFilter beforeAuthentication(AdmissionControl admissionControl, boolean basicAuth) {
+        return new AdmissionControlFilter(admissionControl, RateLimitProperties.KeyBy.IP, basicAuth);
+    }
+
+    public static AdmissionControlFilter afterAuthentication(AdmissionControl admissionControl) {
+        return new AdmissionControlFilter(admissionControl, RateLimitProperties.KeyBy.USER, false);
+    }
+
+    // deux instances de la même classe dans la chaîne : chacune doit passer une fois par requête
+    @Override
+    protected String getAlreadyFilteredAttributeName() {
+        return super.getAlreadyFilteredAttributeName() + "." + keyBy;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        AdmissionControl.Route basic = basicAuth ? admissionControl.basicAuth(request) : null;
+        if (basic != null && !admit(basic, request, response)) {
+            return;
+        }
+        AdmissionControl.Route route = admissionControl.route(request);
+        if (route != null && route.keyBy() == keyBy && !admit(route, request, response)) {
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // false : la requête est refusée et la réponse 429 écrite
+    private boolean admit(AdmissionControl.Route route, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Admission admission = admissionControl.admit(route, client(route, request));
+        response.setHeader("X-RateLimit-Limit", String.valueOf(admission.limit()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(admission.remaining()));
+        if (admission.admitted()) {
+            return true;
+        }
+        long retryAfterSeconds = (admission.retryAfterMillis() + 999) / 1000;
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"too_many_requests\",\"route\":\"" + route.name()
+                + "\",\"retryAfterMillis\":" + admission.retryAfterMillis() + "}");
+        return false;
+    }
+
+    // derrière un proxy, getRemoteAddr n'est l'IP du client qu'avec server.forward-headers-strategy
+    private static String client(AdmissionControl.Route route, HttpServletRequest request) {
+        if (route.keyBy() == RateLimitProperties.KeyBy.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
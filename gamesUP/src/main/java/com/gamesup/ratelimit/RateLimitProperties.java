@@ -0,0 +1,25 @@
+package com.gamesup.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * ratelimit.* : une entrée de routes par route limitée, par exemple
+ * ratelimit.routes.signup.method=POST, .path=/signup, .capacity=5, .period=1m, .key=IP
+ * (5 requêtes d'affilée au plus, puis une toutes les 12 s).
+ * ratelimit.basic-auth.capacity et .period limitent par IP les requêtes portant des identifiants HTTP Basic,
+ * toutes routes confondues (method, path et key n'y servent pas).
+ */
+@ConfigurationProperties("ratelimit")
+public record RateLimitProperties(boolean enabled, int maxKeys, Map<String, Route> routes, Route basicAuth) {
+
+    public enum KeyBy { IP, USER }
+
+    /**
+     * capacity requêtes par period et par client, en rafale au plus capacity ; USER retombe sur l'IP pour un anonyme.
+     */
+    public record Route(String method, String path, int capacity, Duration period, KeyBy key) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.gamesup.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seau à jetons sans verrou. Tout l'état tient dans un long : l'instant (System.nanoTime) où le seau sera de
+ * nouveau plein (GCRA). Prendre un jeton recule cet instant d'un intervalle, et c'est refusé s'il dépasserait
+ * maintenant + capacité x intervalle. Une décision = un compare-and-set, sans allocation.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long now) {
+        this.fullAt = new AtomicLong(now);
+    }
+
+    /**
+     * @return 0 si un jeton a été pris, sinon le temps d'attente (ns) avant qu'il y en ait un
+     */
+    long tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    int remaining(long now, long intervalNanos, long toleranceNanos) {
+        return (int) ((now + toleranceNanos - Math.max(fullAt.get(), now)) / intervalNanos);
+    }
+
+    // plein : ne se distingue pas d'un seau neuf, peut être oublié sans rien perdre
+    boolean idle(long now) {
+        return fullAt.get() <= now;
+    }
+}
@@ -0,0 +1,8 @@
+package com.gamesup.repository;
+
+/**
+ * Ligne d'un jeu dans le panier actif d'un utilisateur, avec sa réservation (null si elle n'en a plus),
+ * pour qu'une vente flash décompte le stock d'une fusion sans charger les entités.
+ */
+public record BasketLine(Long userID, int quantity, Long reservationID) {
+}
@@ -1,10 +1,103 @@
 package com.gamesup.repository;
 
+import com.gamesup.cache.GameSnapshot;
 import com.gamesup.entity.Game;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface GameDAO extends JpaRepository<Game, Long> {
-    public List<Game> findByCategoryNameOrAuthorNameOrPublisherNameOrTitle(String category, String author, String publisher, String title);
+
+    // Lectures du catalogue : projection à plat vers GameSnapshot (cache, index), jeu et références en une requête,
+    // sans entité ni contexte de persistance à remplir
+
+    String SNAPSHOT = "select new com.gamesup.cache.GameSnapshot(g.id, g.title, g.slug, g.description, g.releaseDate, g.stock, " +
+            "g.reviewCount, g.ratingSum, g.rating1, g.rating2, g.rating3, g.rating4, g.rating5, g.price, g.currency, " +
+            "c.id, c.name, c.slug, a.id, a.name, p.id, p.name) " +
+            "from Game g left join g.category c left join g.author a left join g.publisher p ";
+
+    // même règle que l'ancienne requête dérivée findByCategoryNameOrAuthorNameOrPublisherNameOrTitle :
+    // un critère null correspond aux jeux dont la valeur est nulle
+    String FILTER = "where (c.name = :category or (:category is null and c.name is null)) " +
+            "or (a.name = :author or (:author is null and a.name is null)) " +
+            "or (p.name = :publisher or (:publisher is null and p.name is null)) " +
+            "or (g.title = :title or (:title is null and g.title is null))";
+
+    @Query(SNAPSHOT + FILTER)
+    public List<GameSnapshot> findSnapshots(String category, String author, String publisher, String title);
+
+    @Query(value = SNAPSHOT + FILTER,
+            countQuery = "select count(g) from Game g left join g.category c left join g.author a left join g.publisher p " + FILTER)
+    public Page<GameSnapshot> findSnapshots(String category, String author, String publisher, String title, Pageable pageable);
+
+    @Query(SNAPSHOT + "where g.id = :id")
+    public Optional<GameSnapshot> findSnapshotById(long id);
+
+    @Query(SNAPSHOT)
+    public List<GameSnapshot> findAllSnapshots();
+
+    @Query(SNAPSHOT + "where g.id in :ids")
+    public List<GameSnapshot> findSnapshotsByIdIn(Collection<Long> ids);
+
+    // entité et références pour une modification (GameService.update)
+    @EntityGraph(attributePaths = {"category", "author", "publisher"})
+    @Query("select g from Game g where g.id = :id")
+    public Optional<Game> findWithReferencesById(long id);
+
+    @Query("select g.stock - g.reserved from Game g where g.id = :id")
+    public int findAvailable(long id);
+
+    // Mouvements de stock : un seul UPDATE conditionnel chacun, 0 ligne modifiée = stock insuffisant
+
+    @Modifying
+    @Query("update Game g set g.reserved = g.reserved + :quantity where g.id = :id and g.stock - g.reserved >= :quantity")
+    public int reserve(long id, int quantity);
+
+    @Modifying
+    @Query("update Game g set g.reserved = g.reserved - :quantity where g.id = :id and g.reserved >= :quantity")
+    public int release(long id, int quantity);
+
+    @Modifying
+    @Query("update Game g set g.stock = g.stock - :quantity, g.reserved = g.reserved - :quantity where g.id = :id and g.reserved >= :quantity and g.stock >= :quantity")
+    public int commitReserved(long id, int quantity);
+
+    @Modifying
+    @Query("update Game g set g.stock = g.stock - :quantity where g.id = :id and g.stock - g.reserved >= :quantity")
+    public int decrementStock(long id, int quantity);
+
+    @Modifying
+    @Query("update Game g set g.stock = g.stock + :quantity where g.id = :id")
+    public int restock(long id, int quantity);
+
+    // Agrégats des avis : delta = +1 à l'ajout d'un avis, -1 à sa suppression
+
+    @Modifying
+    @Query("update Game g set g.reviewCount = g.reviewCount + :delta, g.ratingSum = g.ratingSum + :delta * :rating, " +
+            "g.rating1 = g.rating1 + case when :rating = 1 then :delta else 0 end, " +
+            "g.rating2 = g.rating2 + case when :rating = 2 then :delta else 0 end, " +
+            "g.rating3 = g.rating3 + case when :rating = 3 then :delta else 0 end, " +
+            "g.rating4 = g.rating4 + case when :rating = 4 then :delta else 0 end, " +
+            "g.rating5 = g.rating5 + case when :rating = 5 then :delta else 0 end " +
+            "where g.id = :id")
+    public int addRating(long id, int rating, int delta);
+
+    @Modifying
+    @Query("update Game g set g.reviewCount = :count, g.ratingSum = :sum, g.rating1 = :r1, g.rating2 = :r2, " +
+            "g.rating3 = :r3, g.rating4 = :r4, g.rating5 = :r5 where g.id = :id")
+    public int setRatings(long id, int count, long sum, int r1, int r2, int r3, int r4, int r5);
+
+    @Modifying
+    @Query("update Game g set g.reviewCount = 0, g.ratingSum = 0, g.rating1 = 0, g.rating2 = 0, g.rating3 = 0, " +
+            "g.rating4 = 0, g.rating5 = 0 where g.reviewCount <> 0 or g.ratingSum <> 0")
+    public int clearRatings();
+
+    @Query("select new com.gamesup.repository.RatingTotals(g.id, g.reviewCount, g.ratingSum) from Game g where g.reviewCount > 0")
+    public List<RatingTotals> findRatingTotals();
 }
@@ -0,0 +1,7 @@
+package com.gamesup.repository;
+
+/**
+ * Quantité et prix d'une ligne de purchase, pour recalculer les totaux.
+ */
+public record LineAmount(Long purchaseID, int quantity, float unitPriceAtPurchase) {
+}
@@ -0,0 +1,50 @@
+package com.gamesup.repository;
+
+import com.gamesup.entity.OrderEvent;
+import com.gamesup.entity.Purchase;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderEventDAO extends JpaRepository<OrderEvent, Long> {
+
+    /**
+     * Événements à traiter, dans l'ordre d'écriture. Un événement dont un prédécesseur du même purchase
+     * attend encore un nouvel essai n'est pas proposé : les effets d'un purchase s'appliquent toujours dans l'ordre.
+     */
+    @Query("select e from OrderEvent e where e.status = com.gamesup.entity.OrderEvent.Status.PENDING and e.nextAttemptAt <= :now " +
+            "and not exists (select 1 from OrderEvent p where p.purchaseId = e.purchaseId " +
+            "and p.status = com.gamesup.entity.OrderEvent.Status.PENDING and p.id < e.id and p.nextAttemptAt > :now) " +
+            "order by e.id")
+    public List<OrderEvent> findDue(LocalDateTime now, Pageable pageable);
+
+    /**
+     * @return nombre d'événements passés à DONE, à comparer au nombre demandé
+     */
+    @Modifying
+    @Query("update OrderEvent e set e.status = com.gamesup.entity.OrderEvent.Status.DONE, e.processedAt = :now " +
+            "where e.id in :ids and e.status = com.gamesup.entity.OrderEvent.Status.PENDING")
+    public int markDone(Collection<Long> ids, LocalDateTime now);
+
+    @Modifying
+    @Query("update OrderEvent e set e.status = :status, e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error where e.id = :id")
+    public int recordFailure(long id, OrderEvent.Status status, LocalDateTime nextAttemptAt, String error);
+
+    // ex. paiement enregistré mais pas (encore) appliqué au stock : statut autre que DONE
+    public boolean existsByPurchaseIdAndOrderStatusAndStatusNot(long purchaseId, Purchase.OrderStatus orderStatus,
+                                                                 OrderEvent.Status status);
+
+    public List<OrderEvent> findByPurchaseIdInAndOrderStatus(Collection<Long> purchaseIds, Purchase.OrderStatus orderStatus);
+
+    public long countByStatus(OrderEvent.Status status);
+
+    @Query("select min(e.createdAt) from OrderEvent e where e.status = com.gamesup.entity.OrderEvent.Status.PENDING")
+    public Optional<LocalDateTime> findOldestPendingCreatedAt();
+}
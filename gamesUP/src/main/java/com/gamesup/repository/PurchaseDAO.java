@@ -1,10 +1,103 @@
 package com.gamesup.repository;
 
 import com.gamesup.entity.Purchase;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface PurchaseDAO extends JpaRepository<Purchase, Long> {
     public List<Purchase> findByUserIdAndStatusOrderByCreatedAtDesc(long userID, Purchase.OrderStatus orderStatus);
+
+    /**
+     * Panier en cours de l'utilisateur, lu sur l'index unique de activeBasketOf (au plus une ligne).
+     */
+    @Query("select p.id from Purchase p where p.activeBasketOf = :userID")
+    public Optional<Long> findActiveBasketId(long userID);
+
+    /**
+     * Change le statut seulement s'il vaut encore "from" : 0 = un autre appel a déjà fait la transition.
+     * Aucune transition ne ramène au statut BASKET, le purchase n'est donc plus le panier actif.
+     */
+    @Modifying
+    @Query("update Purchase p set p.status = :to, p.activeBasketOf = null where p.id = :id and p.status = :from")
+    public int transition(long id, Purchase.OrderStatus from, Purchase.OrderStatus to);
+
+    /**
+     * Transition BASKET -> PAID avec la date de paiement ; 0 = déjà payé (ou plus un panier).
+     */
+    @Modifying
+    @Query("update Purchase p set p.status = com.gamesup.entity.Purchase.OrderStatus.PAID, p.paidAt = :paidAt, " +
+            "p.activeBasketOf = null where p.id = :id and p.status = com.gamesup.entity.Purchase.OrderStatus.BASKET")
+    public int markPaid(long id, LocalDateTime paidAt);
+
+    /**
+     * Compte les articles ajoutés seulement si le purchase est encore un panier actif : 0 = payé entre-temps
+     * (ou inexistant). Montant et lignes suivent (addToTotals) une fois les fusions connues. Ce premier UPDATE
+     * verrouille le panier jusqu'au commit : un paiement concurrent attend, et les ajouts concurrents d'un même
+     * utilisateur fusionnent l'un après l'autre.
+     */
+    @Modifying
+    @Query("update Purchase p set p.itemCount = p.itemCount + :quantity where p.id = :id and p.activeBasketOf is not null")
+    public int addItemsToBasket(long id, int quantity);
+
+    /**
+     * Bases antérieures à activeBasketOf : le panier le plus récent de chaque utilisateur redevient son panier actif.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Purchase p set p.activeBasketOf = p.user.id where p.status = com.gamesup.entity.Purchase.OrderStatus.BASKET " +
+            "and p.activeBasketOf is null " +
+            "and p.id = (select max(q.id) from Purchase q where q.user.id = p.user.id and q.status = com.gamesup.entity.Purchase.OrderStatus.BASKET) " +
+            "and not exists (select 1 from Purchase r where r.activeBasketOf = p.user.id)")
+    public int claimLegacyBaskets();
+
+    @Query("select p.totalAmount from Purchase p where p.id = :id")
+    public Optional<BigDecimal> findTotalAmountById(long id);
+
+    /**
+     * Ajoute (ou retire avec des valeurs négatives) une ligne aux totaux, en un seul UPDATE atomique,
+     * seulement si le purchase est encore un panier actif : 0 = payé entre-temps (ou inexistant).
+     */
+    @Modifying
+    @Query("update Purchase p set p.totalAmount = coalesce(p.totalAmount, 0) + :amount, " +
+            "p.lineCount = p.lineCount + :lines, p.itemCount = p.itemCount + :items " +
+            "where p.id = :id and p.activeBasketOf is not null")
+    public int addToTotals(long id, BigDecimal amount, int lines, int items);
+
+    @Query("select new com.gamesup.repository.PurchaseTotals(p.id, p.totalAmount, p.lineCount, p.itemCount) " +
+            "from Purchase p where p.id > :afterID order by p.id")
+    public List<PurchaseTotals> findTotalsAfter(long afterID, Pageable pageable);
+
+    /**
+     * Corrige les totaux seulement s'ils n'ont pas bougé depuis leur lecture par la réconciliation.
+     */
+    @Modifying
+    @Query("update Purchase p set p.totalAmount = :amount, p.lineCount = :lines, p.itemCount = :items " +
+            "where p.id = :id and coalesce(p.totalAmount, 0) = :seenAmount and p.lineCount = :seenLines and p.itemCount = :seenItems")
+    public int fixTotals(long id, BigDecimal amount, int lines, int items,
+                         BigDecimal seenAmount, int seenLines, int seenItems);
+
+    /**
+     * Purchases payés (PAID, SHIPPED, DELIVERED) d'id supérieur à afterID, une ligne par ligne de commande,
+     * triés par purchase puis par ligne pour être regroupés à la lecture (à consommer dans une transaction).
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.gamesup.repository.PurchaseExportRow(p.id, p.user.id, p.status, p.createdAt, p.paidAt, " +
+            "p.totalAmount, p.currency, l.id, l.game.id, l.quantity, l.unitPriceAtPurchase) " +
+            "from Purchase p left join p.purchaseLines l where p.id > :afterID and p.status in (" +
+            "com.gamesup.entity.Purchase.OrderStatus.PAID, com.gamesup.entity.Purchase.OrderStatus.SHIPPED, " +
+            "com.gamesup.entity.Purchase.OrderStatus.DELIVERED) order by p.id, l.id")
+    public Stream<PurchaseExportRow> streamPaidExport(long afterID);
 }
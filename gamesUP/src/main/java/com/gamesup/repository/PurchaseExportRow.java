@@ -0,0 +1,15 @@
+package com.gamesup.repository;
+
+import com.gamesup.entity.Purchase;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Une ligne d'un purchase payé avec l'en-tête du purchase, pour l'export ; champs de ligne null si le purchase
+ * n'en a aucune.
+ */
+public record PurchaseExportRow(Long purchaseID, Long userID, Purchase.OrderStatus status, LocalDateTime createdAt,
+                                LocalDateTime paidAt, BigDecimal totalAmount, String currency,
+                                Long lineID, Long gameID, Integer quantity, Float unitPriceAtPurchase) {
+}
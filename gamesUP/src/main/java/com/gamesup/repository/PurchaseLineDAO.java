@@ -1,7 +1,66 @@
 package com.gamesup.repository;
 
 import com.gamesup.entity.PurchaseLine;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface PurchaseLineDAO extends JpaRepository<PurchaseLine, Long> {
+
+    // lignes d'un ou plusieurs purchases, sans charger le purchase ni les jeux (seul leur id sert)
+    public List<PurchaseLine> findByPurchaseId(long purchaseID);
+
+    public List<PurchaseLine> findByPurchaseIdIn(Collection<Long> purchaseIDs);
+
+    // lignes déjà présentes dans le panier pour ces jeux, avec lesquelles fusionner un ajout (la plus ancienne d'abord)
+    public List<PurchaseLine> findByPurchaseIdAndGameIdInOrderById(long purchaseID, Collection<Long> gameIDs);
+
+    // lignes du jeu au prix actuel dans les paniers actifs de ces utilisateurs, dans l'ordre de findByPurchaseIdAndGameIdInOrderById
+    @Query("select new com.gamesup.repository.BasketLine(p.activeBasketOf, l.quantity, r.id) from PurchaseLine l " +
+            "join l.purchase p join l.game g left join StockReservation r on r.purchaseLine = l " +
+            "where p.activeBasketOf in :userIDs and g.id = :gameID and l.unitPriceAtPurchase = g.price order by l.id")
+    public List<BasketLine> findBasketLines(long gameID, Collection<Long> userIDs);
+
+    /**
+     * @return 1 si la ligne existait, 0 si un autre appel l'a déjà supprimée
+     */
+    @Modifying
+    @Query("delete from PurchaseLine l where l.id = :id")
+    public int deleteLine(long id);
+
+    @Query("select new com.gamesup.repository.LineAmount(l.purchase.id, l.quantity, l.unitPriceAtPurchase) " +
+            "from PurchaseLine l where l.purchase.id in :purchaseIDs")
+    public List<LineAmount> findAmountsByPurchaseIds(Collection<Long> purchaseIDs);
+
+    /*
+     * Une vente est comptée quand l'événement PAID de son purchase a été traité, ou sans aucun événement PAID
+     * pour les purchases payés avant l'outbox. Une annulation traitée la retire.
+     */
+    String COUNTED_SALE = "(exists (select 1 from OrderEvent e where e.purchaseId = p.id " +
+            "and e.orderStatus = com.gamesup.entity.Purchase.OrderStatus.PAID " +
+            "and e.status = com.gamesup.entity.OrderEvent.Status.DONE) " +
+            "or (p.status <> com.gamesup.entity.Purchase.OrderStatus.BASKET and not exists (select 1 from OrderEvent e " +
+            "where e.purchaseId = p.id and e.orderStatus = com.gamesup.entity.Purchase.OrderStatus.PAID)))";
+
+    String SALE_LINE = "select new com.gamesup.repository.SaleLine(l.game.id, l.quantity, l.unitPriceAtPurchase, " +
+            "coalesce(p.paidAt, p.createdAt)) from PurchaseLine l join l.purchase p ";
+
+    // toutes les ventes comptées et non annulées, lues en flux pour reconstruire l'analyse (dans une transaction)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "10000"))
+    @Query(SALE_LINE + "where " + COUNTED_SALE + " and not exists (select 1 from OrderEvent c where c.purchaseId = p.id " +
+            "and c.orderStatus = com.gamesup.entity.Purchase.OrderStatus.CANCELED " +
+            "and c.status = com.gamesup.entity.OrderEvent.Status.DONE)")
+    public Stream<SaleLine> streamSales();
+
+    // ventes comptées des purchases donnés, quel que soit leur statut actuel
+    @Query(SALE_LINE + "where p.id in :purchaseIDs and " + COUNTED_SALE)
+    public List<SaleLine> findCountedSales(Collection<Long> purchaseIDs);
 }
@@ -0,0 +1,9 @@
+package com.gamesup.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Totaux stockés d'un purchase, lus sans charger l'entité ni ses lignes.
+ */
+public record PurchaseTotals(Long id, BigDecimal totalAmount, int lineCount, int itemCount) {
+}
@@ -0,0 +1,7 @@
+package com.gamesup.repository;
+
+/**
+ * Nombre d'avis et somme des notes d'un jeu, pour construire le classement des mieux notés.
+ */
+public record RatingTotals(Long gameID, int reviewCount, long ratingSum) {
+}
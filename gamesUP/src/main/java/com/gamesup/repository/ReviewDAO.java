@@ -1,7 +1,48 @@
 package com.gamesup.repository;
 
 import com.gamesup.entity.Review;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 public interface ReviewDAO extends JpaRepository<Review, Long> {
+
+    // un avis chargé en entité l'est avec son jeu : jeu et références lus dans la même requête
+    @Override
+    @EntityGraph(attributePaths = {"game", "game.category", "game.author", "game.publisher"})
+    public Page<Review> findAll(Pageable pageable);
+
+    @Query(value = "select new com.gamesup.repository.ReviewView(r.id, g.id, g.title, r.rating, r.comment, r.createdAt) " +
+            "from Review r left join r.game g",
+            countQuery = "select count(r) from Review r")
+    public Page<ReviewView> findViews(Pageable pageable);
+
+    // 0 si l'avis a déjà été supprimé (suppression concurrente)
+    @Modifying
+    @Query("delete from Review r where r.id = :id")
+    public int deleteReview(long id);
+
+    @Query("select new com.gamesup.repository.ReviewRating(r.game.id, r.rating) from Review r where r.id = :id")
+    public Optional<ReviewRating> findRatingById(long id);
+
+    // lu en flux, groupé par jeu, pour le recalcul des agrégats (à consommer dans une transaction)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.gamesup.repository.ReviewRating(r.game.id, r.rating) from Review r order by r.game.id")
+    public Stream<ReviewRating> streamRatingsByGame();
+
+    // export en flux, reprise après le dernier id reçu (à consommer dans une transaction)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.gamesup.repository.ReviewExport(r.id, r.game.id, r.user.id, r.rating, r.comment, r.createdAt) " +
+            "from Review r where r.id > :afterID order by r.id")
+    public Stream<ReviewExport> streamExport(long afterID);
 }
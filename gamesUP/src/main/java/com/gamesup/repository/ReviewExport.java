@@ -0,0 +1,9 @@
+package com.gamesup.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un avis tel qu'exporté : ids du jeu et de l'auteur seulement, sans charger les entités.
+ */
+public record ReviewExport(Long id, Long gameID, Long userID, int rating, String comment, LocalDateTime createdAt) {
+}
@@ -0,0 +1,7 @@
+package com.gamesup.repository;
+
+/**
+ * Note d'un avis et son jeu, pour recalculer les agrégats sans charger les entités Review.
+ */
+public record ReviewRating(Long gameID, int rating) {
+}
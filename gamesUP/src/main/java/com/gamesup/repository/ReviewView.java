@@ -0,0 +1,9 @@
+package com.gamesup.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Un avis tel que listé par l'API : le jeu réduit à son id et son titre, lus dans la même projection.
+ */
+public record ReviewView(Long id, Long gameID, String gameTitle, int rating, String comment, LocalDateTime createdAt) {
+}
@@ -0,0 +1,9 @@
+package com.gamesup.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ligne vendue (jeu, quantité, prix payé, date du paiement), pour alimenter l'analyse des ventes.
+ */
+public record SaleLine(Long gameID, int quantity, float unitPriceAtPurchase, LocalDateTime paidAt) {
+}
@@ -0,0 +1,41 @@
+package com.gamesup.repository;
+
+import com.gamesup.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StockReservationDAO extends JpaRepository<StockReservation, Long> {
+    public Optional<StockReservation> findByPurchaseLineId(long purchaseLineID);
+
+    public List<StockReservation> findByPurchaseLineIdIn(Collection<Long> purchaseLineIDs);
+
+    public List<StockReservation> findTop500ByExpiresAtBefore(LocalDateTime now);
+
+    /**
+     * @return 1 si la réservation existait encore ; 0 si elle a déjà été consommée ou libérée par un autre thread
+     */
+    @Modifying
+    @Query("delete from StockReservation r where r.id = :id")
+    public int deleteReservation(long id);
+
+    /**
+     * Comme deleteReservation, mais seulement si la réservation est toujours expirée : une réservation
+     * prolongée entre-temps par un paiement n'est pas libérée.
+     */
+    @Modifying
+    @Query("delete from StockReservation r where r.id = :id and r.expiresAt < :now")
+    public int deleteExpired(long id, LocalDateTime now);
+
+    /**
+     * @return nombre de lignes qui avaient encore leur réservation
+     */
+    @Modifying
+    @Query("update StockReservation r set r.expiresAt = :until where r.purchaseLine.id in :purchaseLineIDs")
+    public int extendAll(Collection<Long> purchaseLineIDs, LocalDateTime until);
+}
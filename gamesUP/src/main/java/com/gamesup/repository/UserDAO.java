@@ -2,10 +2,39 @@ package com.gamesup.repository;
 
 import com.gamesup.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserDAO extends JpaRepository<User, Long> {
 //    User findByEmailAndAndPassword(String email, String password);
     Optional<User> findByEmail(String email);
+
+    // rôle et époque des jetons changent ensemble : un jeton émis depuis une lecture de l'utilisateur porte l'un et l'autre
+    @Modifying
+    @Query("update User u set u.role = :role, u.tokenEpoch = u.tokenEpoch + 1 where u.id = :id")
+    int updateRole(long id, User.Role role);
+
+    @Query("select u.tokenEpoch from User u where u.id = :id")
+    int findTokenEpochById(long id);
+
+    // Liste de souhaits : écrite directement dans la table de jointure, sans charger User.gamesWished
+
+    // 0 ligne insérée = utilisateur ou jeu inconnu, ou jeu déjà dans la liste
+    @Modifying
+    @Query(value = "insert into users_games_wished (users_wishing_id, games_wished_id) " +
+            "select u.id, g.id from users u, game g where u.id = :userID and g.id = :gameID and not exists " +
+            "(select 1 from users_games_wished w where w.users_wishing_id = :userID and w.games_wished_id = :gameID)",
+            nativeQuery = true)
+    int addWish(long userID, long gameID);
+
+    @Modifying
+    @Query(value = "delete from users_games_wished where users_wishing_id = :userID and games_wished_id = :gameID",
+            nativeQuery = true)
+    int removeWish(long userID, long gameID);
+
+    @Query("select distinct new com.gamesup.repository.Wish(u.id, g.id) from User u join u.gamesWished g")
+    List<Wish> findAllWishes();
 }
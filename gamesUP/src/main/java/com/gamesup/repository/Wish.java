@@ -0,0 +1,7 @@
+package com.gamesup.repository;
+
+/**
+ * Une ligne de la table users_games_wished, pour reconstruire WishlistIndex.
+ */
+public record Wish(Long userID, Long gameID) {
+}
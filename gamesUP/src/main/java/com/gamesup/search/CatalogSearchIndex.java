@@ -0,0 +1,204 @@
+package com.gamesup.search;
+
+import com.gamesup.cache.GameSnapshot;
+import com.gamesup.repository.GameDAO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire sur le catalogue : mot -> (id du jeu -> poids).
+ * Construit au démarrage à partir de la base puis tenu à jour par GameServiceImpl à chaque écriture,
+ * les recherches ne touchent donc jamais la base.
+ * Le score est un TF-IDF pondéré par champ (le titre compte plus que la description) ;
+ * un mot de la requête matche aussi les mots qui commencent par lui, avec un poids moindre.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float NAME_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_DISCOUNT = 0.5f;
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}");
+
+    @Autowired
+    private GameDAO gameDAO;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // trié pour pouvoir parcourir les mots par préfixe
+    private final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private final Map<Long, GameSnapshot> documents = new HashMap<>();
+    private final Map<Long, Set<String>> termsByGame = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        List<GameSnapshot> games = gameDAO.findAllSnapshots();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            termsByGame.clear();
+            games.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remplace le document d'un jeu ; game null = le jeu a été supprimé.
+     */
+    public void update(long id, GameSnapshot game) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            if (game != null) {
+                add(game);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<GameSnapshot> search(SearchQuery query) {
+        List<String> terms = tokenize(query.text());
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores;
+            if (terms.isEmpty()) {
+                scores = new HashMap<>();
+                documents.keySet().forEach(id -> scores.put(id, 0f));
+            } else {
+                scores = score(terms, query.matchAll());
+            }
+            return scores.entrySet().stream()
+                    .filter(e -> matchesFilters(documents.get(e.getKey()), query))
+                    .sorted(Map.Entry.<Long, Float>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(query.limit())
+                    .map(e -> documents.get(e.getKey()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Float> score(List<String> terms, boolean matchAll) {
+        int total = documents.size();
+        Map<Long, Float> scores = new HashMap<>();
+        Map<Long, Integer> matchedTerms = new HashMap<>();
+        for (String term : new HashSet<>(terms)) {
+            Map<Long, Float> termScores = new HashMap<>();
+            collect(term, postings.get(term), 1f, total, termScores);
+            if (term.length() >= MIN_PREFIX_LENGTH) {
+                postings.subMap(term, false, term + Character.MAX_VALUE, false)
+                        .forEach((t, docs) -> collect(t, docs, PREFIX_DISCOUNT, total, termScores));
+            }
+            termScores.forEach((id, s) -> {
+                scores.merge(id, s, Float::sum);
+                matchedTerms.merge(id, 1, Integer::sum);
+            });
+        }
+        if (matchAll) {
+            int required = new HashSet<>(terms).size();
+            scores.keySet().removeIf(id -> matchedTerms.get(id) < required);
+        }
+        return scores;
+    }
+
+    private void collect(String term, Map<Long, Float> docs, float factor, int total, Map<Long, Float> into) {
+        if (docs == null) {
+            return;
+        }
+        float idf = (float) Math.log(1 + (double) total / docs.size());
+        docs.forEach((id, weight) -> into.merge(id, weight * idf * factor, Math::max));
+    }
+
+    private boolean matchesFilters(GameSnapshot game, SearchQuery query) {
+        return equalsIgnoreCase(query.category(), game.categoryName())
+                && equalsIgnoreCase(query.author(), game.authorName())
+                && equalsIgnoreCase(query.publisher(), game.publisherName())
+                && (query.minPrice() == null || game.price() >= query.minPrice())
+                && (query.maxPrice() == null || game.price() <= query.maxPrice())
+                && (!query.inStockOnly() || game.stock() > 0);
+    }
+
+    private static boolean equalsIgnoreCase(String expected, String actual) {
+        return expected == null || expected.equalsIgnoreCase(actual);
+    }
+
+    // appelé sous verrou d'écriture
+    private void add(GameSnapshot game) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, game.title(), TITLE_WEIGHT);
+        addField(weights, game.categoryName(), NAME_WEIGHT);
+        addField(weights, game.authorName(), NAME_WEIGHT);
+        addField(weights, game.publisherName(), NAME_WEIGHT);
+        addField(weights, game.description(), DESCRIPTION_WEIGHT);
+
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(game.id(), weight));
+        documents.put(game.id(), game);
+        termsByGame.put(game.id(), weights.keySet());
+    }
+
+    // appelé sous verrou d'écriture
+    private void remove(long id) {
+        Set<String> terms = termsByGame.remove(id);
+        documents.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Float> docs = postings.get(term);
+            docs.remove(id);
+            if (docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, fieldWeight, Float::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase();
+        for (String term : NON_ALNUM.split(normalized)) {
+            if (term.length() >= 2) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,19 @@
+package com.gamesup.search;
+
+/**
+ * Critères de /game/search. Les champs null ne filtrent pas.
+ *
+ * @param text      mots recherchés dans titre, description, catégorie, auteur et éditeur
+ * @param matchAll  true : tous les mots doivent correspondre (ET), false : au moins un (OU)
+ * @param category  nom exact de la catégorie (insensible à la casse)
+ */
+public record SearchQuery(String text,
+                          boolean matchAll,
+                          String category,
+                          String author,
+                          String publisher,
+                          Float minPrice,
+                          Float maxPrice,
+                          boolean inStockOnly,
+                          int limit) {
+}
@@ -0,0 +1,321 @@
+package com.gamesup.search;
+
+import com.gamesup.cache.GameSnapshot;
+import com.gamesup.repository.GameDAO;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * "Jeux similaires" calculés dans la JVM, à la place d'un appel au service Python (KNN/knn_model.py) :
+ * même similarité cosinus sur un vecteur par jeu, les k plus proches voisins de chaque jeu précalculés.
+ * <p>
+ * Vecteur d'un jeu : catégorie, auteur et éditeur en one-hot pondéré (gardés sous forme d'id : le produit scalaire
+ * de deux one-hot vaut 1 si les ids sont égaux), puis des caractéristiques numériques centrées sur des valeurs fixes
+ * (prix en échelle log, note moyenne, popularité, année de sortie). Joueurs, durée et complexité du modèle Python
+ * n'existent pas dans la base. Centrage fixe plutôt que StandardScaler : un jeu modifié ne change pas les vecteurs
+ * des autres, d'où une mise à jour incrémentale exacte.
+ * <p>
+ * Stockage en colonnes de tableaux primitifs, une ligne (slot) par jeu. Construction complète au démarrage et après
+ * un import, voisins calculés en parallèle ; ensuite GameServiceImpl signale chaque jeu modifié : seuls ses voisins
+ * et les jeux qui l'avaient pour voisin sont recalculés. Les lectures ne touchent jamais la base.
+ */
+@Component
+public class SimilarityIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarityIndex.class);
+
+    public record Neighbor(long gameID, float similarity) {
+    }
+
+    // poids au carré : contribution d'une catégorie commune au produit scalaire
+    private static final float CATEGORY_WEIGHT = 1f;
+    private static final float AUTHOR_WEIGHT = 0.5f;
+    private static final float PUBLISHER_WEIGHT = 0.25f;
+    private static final int NUMERIC = 4;
+    private static final double REFERENCE_PRICE = Math.log1p(30);
+    private static final double REFERENCE_REVIEWS = Math.log1p(5);
+
+    @Autowired
+    private GameDAO gameDAO;
+
+    @Value("${similarity.neighbors}")
+    private int neighbors;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private int size;
+    private long[] ids = new long[0];
+    // ids de catégorie, d'auteur, d'éditeur ; 0 = aucun
+    private long[] categories = new long[0];
+    private long[] authors = new long[0];
+    private long[] publishers = new long[0];
+    // NUMERIC valeurs par slot, à la suite
+    private float[] numeric = new float[0];
+    private float[] norms = new float[0];
+    // voisins de chaque slot, du plus similaire au moins similaire (ids de jeux : un slot peut changer de jeu)
+    private long[][] neighborIDs = new long[0][];
+    private float[][] neighborScores = new float[0][];
+
+    @PostConstruct
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<GameSnapshot> games = gameDAO.findAllSnapshots();
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            size = 0;
+            resize(games.size());
+            for (GameSnapshot game : games) {
+                int slot = size++;
+                slots.put(game.id(), slot);
+                write(slot, game);
+            }
+            IntStream.range(0, size).parallel().forEach(this::computeNeighbors);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Index de similarité : {} jeux, {} voisins chacun, en {} ms", games.size(), neighbors,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * game = null : jeu supprimé. Sans effet si le vecteur du jeu n'a pas changé (stock, titre...).
+     */
+    public void update(long gameID, GameSnapshot game) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slots.get(gameID);
+            if (game == null) {
+                if (slot != null) {
+                    remove(slot);
+                    refreshNeighborsOf(gameID, -1);
+                }
+                return;
+            }
+            if (slot == null) {
+                if (size == ids.length) {
+                    resize(Math.max(16, size * 2));
+                }
+                slot = size++;
+                slots.put(gameID, slot);
+            } else if (sameVector(slot, game)) {
+                return;
+            }
+            write(slot, game);
+            computeNeighbors(slot);
+            refreshNeighborsOf(gameID, slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Au plus limit jeux (et au plus similarity.neighbors), du plus similaire au moins similaire ;
+     * vide pour un jeu inconnu ou sans rien en commun avec le reste du catalogue.
+     */
+    public List<Neighbor> similar(long gameID, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer slot = slots.get(gameID);
+            if (slot == null) {
+                return List.of();
+            }
+            long[] found = neighborIDs[slot];
+            float[] scores = neighborScores[slot];
+            int count = Math.min(limit, found.length);
+            List<Neighbor> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(new Neighbor(found[i], scores[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Après la modification du jeu gameID (slot = -1 s'il a été supprimé) : un jeu qui l'avait pour voisin est
+    // recalculé entièrement (sa place a pu reculer), les autres ne font que comparer leur pire voisin au jeu modifié
+    private void refreshNeighborsOf(long gameID, int slot) {
+        List<Integer> stale = new ArrayList<>();
+        for (int other = 0; other < size; other++) {
+            if (other == slot) {
+                continue;
+            }
+            if (contains(neighborIDs[other], gameID)) {
+                stale.add(other);
+            } else if (slot >= 0) {
+                offer(other, gameID, similarity(other, slot));
+            }
+        }
+        stale.parallelStream().forEach(this::computeNeighbors);
+    }
+
+    private void computeNeighbors(int slot) {
+        long[] bestIDs = new long[neighbors];
+        float[] best = new float[neighbors];
+        int count = 0;
+        for (int other = 0; other < size; other++) {
+            if (other == slot) {
+                continue;
+            }
+            float score = similarity(slot, other);
+            if (score > 0 && (count < neighbors || before(ids[other], score, bestIDs[count - 1], best[count - 1]))) {
+                count = insert(bestIDs, best, count, ids[other], score);
+            }
+        }
+        neighborIDs[slot] = Arrays.copyOf(bestIDs, count);
+        neighborScores[slot] = Arrays.copyOf(best, count);
+    }
+
+    // insère le jeu dans la liste du slot s'il y a sa place ; nouvelles copies, les tableaux publiés ne changent pas
+    private void offer(int slot, long gameID, float score) {
+        long[] currentIDs = neighborIDs[slot];
+        float[] current = neighborScores[slot];
+        int count = currentIDs.length;
+        if (score <= 0 || (count == neighbors && !before(gameID, score, currentIDs[count - 1], current[count - 1]))) {
+            return;
+        }
+        long[] bestIDs = Arrays.copyOf(currentIDs, neighbors);
+        float[] best = Arrays.copyOf(current, neighbors);
+        count = insert(bestIDs, best, count, gameID, score);
+        neighborIDs[slot] = Arrays.copyOf(bestIDs, count);
+        neighborScores[slot] = Arrays.copyOf(best, count);
+    }
+
+    // tri par insertion dans des tableaux de capacité neighbors ; le dernier sort si c'est plein
+    private int insert(long[] bestIDs, float[] best, int count, long gameID, float score) {
+        int position = Math.min(count, neighbors - 1);
+        while (position > 0 && before(gameID, score, bestIDs[position - 1], best[position - 1])) {
+            bestIDs[position] = bestIDs[position - 1];
+            best[position] = best[position - 1];
+            position--;
+        }
+        bestIDs[position] = gameID;
+        best[position] = score;
+        return Math.min(count + 1, neighbors);
+    }
+
+    // ordre des voisins : similarité décroissante, puis id croissant ; sans départage, le résultat dépendrait
+    // de l'ordre des slots et une mise à jour incrémentale pourrait différer d'une reconstruction
+    private static boolean before(long gameID, float score, long otherID, float otherScore) {
+        return score > otherScore || (score == otherScore && gameID < otherID);
+    }
+
+    // cosinus des deux vecteurs
+    private float similarity(int a, int b) {
+        if (norms[a] == 0 || norms[b] == 0) {
+            return 0;
+        }
+        float dot = 0;
+        if (categories[a] != 0 && categories[a] == categories[b]) {
+            dot += CATEGORY_WEIGHT;
+        }
+        if (authors[a] != 0 && authors[a] == authors[b]) {
+            dot += AUTHOR_WEIGHT;
+        }
+        if (publishers[a] != 0 && publishers[a] == publishers[b]) {
+            dot += PUBLISHER_WEIGHT;
+        }
+        int i = a * NUMERIC;
+        int j = b * NUMERIC;
+        for (int k = 0; k < NUMERIC; k++) {
+            dot += numeric[i + k] * numeric[j + k];
+        }
+        return dot / (norms[a] * norms[b]);
+    }
+
+    private void write(int slot, GameSnapshot game) {
+        ids[slot] = game.id();
+        categories[slot] = game.category() == null ? 0 : game.category().id();
+        authors[slot] = game.author() == null ? 0 : game.author().id();
+        publishers[slot] = game.publisher() == null ? 0 : game.publisher().id();
+        float[] features = features(game);
+        System.arraycopy(features, 0, numeric, slot * NUMERIC, NUMERIC);
+        float norm = (categories[slot] != 0 ? CATEGORY_WEIGHT : 0)
+                + (authors[slot] != 0 ? AUTHOR_WEIGHT : 0)
+                + (publishers[slot] != 0 ? PUBLISHER_WEIGHT : 0);
+        for (float feature : features) {
+            norm += feature * feature;
+        }
+        norms[slot] = (float) Math.sqrt(norm);
+        neighborIDs[slot] = new long[0];
+        neighborScores[slot] = new float[0];
+    }
+
+    private boolean sameVector(int slot, GameSnapshot game) {
+        return categories[slot] == (game.category() == null ? 0 : game.category().id())
+                && authors[slot] == (game.author() == null ? 0 : game.author().id())
+                && publishers[slot] == (game.publisher() == null ? 0 : game.publisher().id())
+                && Arrays.equals(features(game), 0, NUMERIC, numeric, slot * NUMERIC, slot * NUMERIC + NUMERIC);
+    }
+
+    // 0 quand la valeur est inconnue : le centre de chaque échelle
+    private static float[] features(GameSnapshot game) {
+        Double average = game.averageRating();
+        return new float[]{
+                (float) ((Math.log1p(Math.max(0, game.price())) - REFERENCE_PRICE) / 2),
+                average == null ? 0 : (float) ((average - 3) / 2),
+                (float) ((Math.log1p(game.reviewCount()) - REFERENCE_REVIEWS) / 3),
+                game.releaseDate() == null ? 0 : Math.max(-2, Math.min(2, (game.releaseDate().getYear() - 2015) / 10f))};
+    }
+
+    // le dernier slot prend la place du slot libéré
+    private void remove(int slot) {
+        slots.remove(ids[slot]);
+        int last = --size;
+        if (slot != last) {
+            ids[slot] = ids[last];
+            categories[slot] = categories[last];
+            authors[slot] = authors[last];
+            publishers[slot] = publishers[last];
+            System.arraycopy(numeric, last * NUMERIC, numeric, slot * NUMERIC, NUMERIC);
+            norms[slot] = norms[last];
+            neighborIDs[slot] = neighborIDs[last];
+            neighborScores[slot] = neighborScores[last];
+            slots.put(ids[slot], slot);
+        }
+        neighborIDs[last] = null;
+        neighborScores[last] = null;
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        authors = Arrays.copyOf(authors, capacity);
+        publishers = Arrays.copyOf(publishers, capacity);
+        numeric = Arrays.copyOf(numeric, capacity * NUMERIC);
+        norms = Arrays.copyOf(norms, capacity);
+        neighborIDs = Arrays.copyOf(neighborIDs, capacity);
+        neighborScores = Arrays.copyOf(neighborScores, capacity);
+    }
+
+    private static boolean contains(long[] values, long value) {
+        for (long v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package com.gamesup.search;
+
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.RatingTotals;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Classement en mémoire des jeux par note moyenne (puis nombre d'avis, puis id), tenu à jour par
+ * GameServiceImpl à partir des agrégats stockés sur Game. Les lectures parcourent la skip list sans verrou ;
+ * les mises à jour (retrait puis réinsertion d'un jeu) sont sérialisées.
+ */
+@Component
+public class TopRatedIndex {
+
+    public record Entry(long gameID, int reviewCount, long ratingSum) {
+    }
+
+    // moyennes comparées en produit croisé (sum1 * count2 vs sum2 * count1) : pas d'arrondi flottant
+    private static final Comparator<Entry> BEST_FIRST = ((Comparator<Entry>) (a, b) ->
+            Long.compare(b.ratingSum() * a.reviewCount(), a.ratingSum() * b.reviewCount()))
+            .thenComparing(Comparator.comparingInt(Entry::reviewCount).reversed())
+            .thenComparingLong(Entry::gameID);
+
+    @Autowired
+    private GameDAO gameDAO;
+
+    private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>(BEST_FIRST);
+    private final Map<Long, Entry> byGame = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        List<RatingTotals> totals = gameDAO.findRatingTotals();
+        ranking.clear();
+        byGame.clear();
+        for (RatingTotals t : totals) {
+            Entry entry = new Entry(t.gameID(), t.reviewCount(), t.ratingSum());
+            byGame.put(entry.gameID(), entry);
+            ranking.add(entry);
+        }
+    }
+
+    /**
+     * reviewCount = 0 (ou jeu supprimé) retire le jeu du classement.
+     */
+    public synchronized void update(long gameID, int reviewCount, long ratingSum) {
+        Entry previous = byGame.remove(gameID);
+        if (previous != null) {
+            ranking.remove(previous);
+        }
+        if (reviewCount > 0) {
+            Entry entry = new Entry(gameID, reviewCount, ratingSum);
+            byGame.put(gameID, entry);
+            ranking.add(entry);
+        }
+    }
+
+    public List<Entry> top(int limit, int minReviews) {
+        List<Entry> result = new ArrayList<>(limit);
+        for (Entry entry : ranking) {
+            if (result.size() == limit) {
+                break;
+            }
+            if (entry.reviewCount() >= minReviews) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return byGame.size();
+    }
+}
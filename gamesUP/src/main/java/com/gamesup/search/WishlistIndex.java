@@ -0,0 +1,146 @@
+package com.gamesup.search;
+
+import com.gamesup.cache.ContentVersion;
+import com.gamesup.repository.UserDAO;
+import com.gamesup.repository.Wish;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Copie en mémoire de la table users_games_wished, tenue à jour par WishlistServiceImpl après chaque commit.
+ * Chaque utilisateur a un tableau trié d'ids de jeux (test d'appartenance par recherche dichotomique,
+ * 8 octets par souhait) et chaque jeu son nombre de souhaits. Les tableaux publiés ne sont jamais modifiés :
+ * une écriture en publie un nouveau, les lectures se font sans verrou, les écritures sont sérialisées.
+ * Chaque écriture qui change l'index incrémente sa version (ETag des lectures du catalogue).
+ */
+@Component
+public class WishlistIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    public record Entry(long gameID, int wishes) {
+    }
+
+    @Autowired
+    private UserDAO userDAO;
+
+    private final Map<Long, long[]> byUser = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> counts = new ConcurrentHashMap<>();
+    private volatile ContentVersion version = ContentVersion.initial();
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        Map<Long, List<Long>> lists = new HashMap<>();
+        for (Wish wish : userDAO.findAllWishes()) {
+            lists.computeIfAbsent(wish.userID(), k -> new ArrayList<>()).add(wish.gameID());
+        }
+        byUser.clear();
+        counts.clear();
+        lists.forEach((userID, games) -> {
+            long[] sorted = games.stream().mapToLong(Long::longValue).sorted().toArray();
+            byUser.put(userID, sorted);
+            for (long gameID : sorted) {
+                counts.merge(gameID, 1, Integer::sum);
+            }
+        });
+        changed();
+    }
+
+    /**
+     * @return false si le jeu était déjà dans la liste
+     */
+    public synchronized boolean add(long userID, long gameID) {
+        long[] games = byUser.getOrDefault(userID, EMPTY);
+        int pos = Arrays.binarySearch(games, gameID);
+        if (pos >= 0) {
+            return false;
+        }
+        int insertAt = -pos - 1;
+        long[] updated = new long[games.length + 1];
+        System.arraycopy(games, 0, updated, 0, insertAt);
+        updated[insertAt] = gameID;
+        System.arraycopy(games, insertAt, updated, insertAt + 1, games.length - insertAt);
+        byUser.put(userID, updated);
+        counts.merge(gameID, 1, Integer::sum);
+        changed();
+        return true;
+    }
+
+    /**
+     * @return false si le jeu n'était pas dans la liste
+     */
+    public synchronized boolean remove(long userID, long gameID) {
+        long[] games = byUser.getOrDefault(userID, EMPTY);
+        int pos = Arrays.binarySearch(games, gameID);
+        if (pos < 0) {
+            return false;
+        }
+        if (games.length == 1) {
+            byUser.remove(userID);
+        } else {
+            long[] updated = new long[games.length - 1];
+            System.arraycopy(games, 0, updated, 0, pos);
+            System.arraycopy(games, pos + 1, updated, pos, games.length - pos - 1);
+            byUser.put(userID, updated);
+        }
+        counts.computeIfPresent(gameID, (id, n) -> n > 1 ? n - 1 : null);
+        changed();
+        return true;
+    }
+
+    public boolean contains(long userID, long gameID) {
+        return Arrays.binarySearch(byUser.getOrDefault(userID, EMPTY), gameID) >= 0;
+    }
+
+    /**
+     * Ids des jeux souhaités, triés. Tableau partagé : ne pas le modifier.
+     */
+    public long[] games(long userID) {
+        return byUser.getOrDefault(userID, EMPTY);
+    }
+
+    public int count(long gameID) {
+        return counts.getOrDefault(gameID, 0);
+    }
+
+    /**
+     * Les jeux les plus souhaités (à égalité, le plus petit id d'abord), via un tas borné à limit.
+     */
+    public List<Entry> mostWished(int limit) {
+        Comparator<Entry> order = Comparator.comparingInt(Entry::wishes).reversed().thenComparingLong(Entry::gameID);
+        PriorityQueue<Entry> heap = new PriorityQueue<>(limit + 1, order.reversed());
+        counts.forEach((gameID, wishes) -> {
+            heap.add(new Entry(gameID, wishes));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+        List<Entry> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+
+    public int size() {
+        return byUser.size();
+    }
+
+    public ContentVersion version() {
+        return version;
+    }
+
+    // après la modification : un lecteur qui voit la nouvelle version voit aussi les nouvelles données
+    private void changed() {
+        ContentVersion current = version;
+        version = new ContentVersion(current.value() + 1, Math.max(System.currentTimeMillis(), current.modifiedAt()));
+    }
+}
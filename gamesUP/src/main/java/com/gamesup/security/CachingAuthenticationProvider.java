@@ -0,0 +1,83 @@
+package com.gamesup.security;
+
+import com.gamesup.cache.CacheStats;
+import com.gamesup.cache.TtlCache;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * Mode HTTP Basic : mémorise pendant quelques secondes les identifiants déjà vérifiés,
+ * pour ne pas refaire la lecture en base et le BCrypt à chaque requête d'un même client.
+ * On ne garde pas le mot de passe mais un HMAC avec une clé aléatoire propre au processus.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private record VerifiedCredential(byte[] digest, Authentication authentication) {
+    }
+
+    private final AuthenticationProvider delegate;
+    private final TtlCache<String, VerifiedCredential> verified;
+    private final SecretKeySpec key;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, int maxEntries, long ttlMillis) {
+        this.delegate = delegate;
+        this.verified = new TtlCache<>(maxEntries, ttlMillis);
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, "HmacSHA256");
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String email = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+        byte[] digest = digest(email, credentials.toString());
+
+        VerifiedCredential cached = verified.get(email);
+        if (cached != null && MessageDigest.isEqual(cached.digest(), digest)) {
+            return cached.authentication();
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        verified.put(email, new VerifiedCredential(digest, UsernamePasswordAuthenticationToken.authenticated(
+                result.getPrincipal(), null, result.getAuthorities())));
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    public void evict(String email) {
+        verified.invalidate(email);
+    }
+
+    public CacheStats stats() {
+        return verified.stats();
+    }
+
+    private byte[] digest(String email, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            mac.update(email.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.gamesup.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gamesup.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jetons signés (HMAC-SHA256, format header.payload.signature façon JWT) qui portent l'email, l'id et le rôle :
+ * les vérifier ne demande ni base ni BCrypt, juste un HMAC.
+ * Les révocations (logout, changement de rôle) sont gardées en mémoire jusqu'à l'expiration des jetons concernés.
+ */
+@Component
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String HEADER = base64("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    /**
+     * Contenu d'un jeton. iat et exp sont en millisecondes epoch ; epoch est l'époque des jetons de l'utilisateur
+     * à l'émission (User.tokenEpoch).
+     */
+    public record TokenClaims(String sub, long uid, String role, long iat, long exp, String jti, int epoch) {
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SecretKeySpec key;
+    private final long ttlMillis;
+
+    // jti -> expiration du jeton révoqué
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // email -> époque en dessous de laquelle les jetons de l'utilisateur sont refusés
+    private final ConcurrentHashMap<String, Revocation> revokedBelow = new ConcurrentHashMap<>();
+
+    private record Revocation(int epoch, long at) {
+    }
+
+    public TokenService(@Value("${security.token.secret}") String secret,
+                        @Value("${security.token.ttl-ms}") long ttlMillis) {
+        byte[] secretBytes;
+        if (secret == null || secret.isBlank()) {
+            log.warn("security.token.secret non défini : clé aléatoire, les jetons ne survivront pas à un redémarrage");
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+        } else {
+            secretBytes = Base64.getDecoder().decode(secret);
+        }
+        this.key = new SecretKeySpec(secretBytes, "HmacSHA256");
+        this.ttlMillis = ttlMillis;
+    }
+
+    public String issue(User user) {
+        long now = System.currentTimeMillis();
+        TokenClaims claims = new TokenClaims(user.getEmail(), user.getId(), user.getRole().name(),
+                now, now + ttlMillis, UUID.randomUUID().toString(), user.getTokenEpoch());
+        try {
+            String payload = base64(objectMapper.writeValueAsBytes(claims));
+            String signingInput = HEADER + "." + payload;
+            return signingInput + "." + base64(sign(signingInput));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return les claims si le jeton est bien signé, non expiré et non révoqué
+     */
+    public Optional<TokenClaims> verify(String token) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot < 0 || firstDot == lastDot) {
+            return Optional.empty();
+        }
+        String signingInput = token.substring(0, lastDot);
+        try {
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(signature, sign(signingInput))) {
+                return Optional.empty();
+            }
+            TokenClaims claims = objectMapper.readValue(
+                    Base64.getUrlDecoder().decode(token.substring(firstDot + 1, lastDot)), TokenClaims.class);
+            if (claims.exp() <= System.currentTimeMillis() || isRevoked(claims)) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (IllegalArgumentException | java.io.IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    public void revoke(TokenClaims claims) {
+        revokedTokens.put(claims.jti(), claims.exp());
+    }
+
+    /**
+     * Invalide tous les jetons de cet utilisateur émis avant l'époque epoch (rôle modifié...). Pas d'horloge :
+     * un jeton émis juste après, même dans la même milliseconde, porte déjà la nouvelle époque.
+     */
+    public void revokeAllFor(String email, int epoch) {
+        Revocation revocation = new Revocation(epoch, System.currentTimeMillis());
+        revokedBelow.merge(email, revocation, (current, next) -> next.epoch() >= current.epoch() ? next : current);
+    }
+
+    // une révocation n'a plus d'intérêt une fois les jetons concernés expirés
+    @Scheduled(fixedDelayString = "${security.token.ttl-ms}")
+    public void purgeRevocations() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(exp -> exp <= now);
+        revokedBelow.values().removeIf(revocation -> revocation.at() + ttlMillis <= now);
+    }
+
+    private boolean isRevoked(TokenClaims claims) {
+        if (revokedTokens.containsKey(claims.jti())) {
+            return true;
+        }
+        Revocation revocation = revokedBelow.get(claims.sub());
+        return revocation != null && claims.epoch() < revocation.epoch();
+    }
+
+    private byte[] sign(String signingInput) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,7 @@
+package com.gamesup.service;
+
+/**
+ * Un jeu et une quantité à ajouter au panier ; corps de POST /purchase/add-all (tableau JSON).
+ */
+public record BasketItem(long gameID, int quantity) {
+}
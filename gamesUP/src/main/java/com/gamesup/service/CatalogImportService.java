@@ -0,0 +1,9 @@
+package com.gamesup.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface CatalogImportService {
+
+    public ImportReport importGames(InputStream json) throws IOException;
+}
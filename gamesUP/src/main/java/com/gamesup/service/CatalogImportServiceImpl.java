@@ -0,0 +1,207 @@
+package com.gamesup.service;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Import en masse de jeux au format KNN/synthetic_games.json (tableau d'objets), lu en flux :
+ * seul le lot courant est en mémoire. Les catégories / auteurs / éditeurs sont dédoublonnés par nom
+ * (ceux déjà en base sont réutilisés) et les jeux insérés par lots JDBC, un lot par transaction.
+ * Hibernate ne sait pas grouper les INSERT en GenerationType.IDENTITY, d'où le passage par JdbcTemplate.
+ */
+@Service
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogImportServiceImpl.class);
+
+    // longueur de la colonne game.title
+    private static final int MAX_TITLE = 255;
+
+    private static final String INSERT_GAME = "insert into game (title, description, release_date, stock, price, currency, " +
+            "category_id, author_id, publisher_id) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GameService gameService;
+
+    @Value("${catalog.import.batch-size}")
+    private int batchSize;
+
+    @Value("${catalog.import.progress-every}")
+    private long progressEvery;
+
+    @Override
+    public ImportReport importGames(InputStream json) throws IOException {
+        long start = System.currentTimeMillis();
+        References categories = new References("category", 100);
+        References authors = new References("author", 200);
+        References publishers = new References("publisher", 200);
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        long games = 0;
+        long skipped = 0;
+        long nextProgress = progressEvery;
+
+        // un tableau racine est déroulé élément par élément, sans être chargé en entier
+        try (MappingIterator<ImportedGame> entries = objectMapper.readerFor(ImportedGame.class).readValues(json)) {
+            while (entries.hasNextValue()) {
+                ImportedGame entry = entries.nextValue();
+                if (entry.name() == null || entry.name().isBlank()
+                        || (entry.currency() != null && entry.currency().length() > 3)) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(row(entry, categories, authors, publishers));
+                if (batch.size() == batchSize) {
+                    games += flush(batch);
+                    if (games >= nextProgress) {
+                        log.info("Import catalogue : {}", report(games, categories, authors, publishers, skipped, start));
+                        nextProgress += progressEvery;
+                    }
+                }
+            }
+            games += flush(batch);
+        } finally {
+            // même après une erreur : les lots déjà validés sont en base, caches et index doivent les voir
+            gameService.catalogReloaded();
+        }
+
+        ImportReport report = report(games, categories, authors, publishers, skipped, start);
+        log.info("Import catalogue terminé : {} ({} lignes/s)", report, Math.round(report.rowsPerSecond()));
+        return report;
+    }
+
+    private Object[] row(ImportedGame entry, References categories, References authors, References publishers) {
+        String category = entry.categories() == null || entry.categories().isEmpty() ? null : entry.categories().get(0);
+        return new Object[]{
+                truncate(entry.name().trim(), MAX_TITLE),
+                entry.description() != null ? entry.description() : describe(entry),
+                entry.year() != null ? Date.valueOf(LocalDate.of(entry.year(), 1, 1)) : null,
+                entry.stock() != null ? entry.stock() : 0,
+                entry.price() != null ? entry.price() : 0f,
+                entry.currency() != null ? entry.currency() : "EUR",
+                categories.idOf(category),
+                authors.idOf(entry.author()),
+                publishers.idOf(entry.publisher())
+        };
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    // le jeu n'a qu'une catégorie : les suivantes et les mécaniques vont dans la description
+    private static String describe(ImportedGame entry) {
+        StringBuilder description = new StringBuilder();
+        if (entry.categories() != null && !entry.categories().isEmpty()) {
+            description.append(String.join(", ", entry.categories())).append(". ");
+        }
+        if (entry.mechanics() != null && !entry.mechanics().isEmpty()) {
+            description.append("Mécaniques : ").append(String.join(", ", entry.mechanics())).append(". ");
+        }
+        if (entry.minPlayers() != null && entry.maxPlayers() != null) {
+            description.append(entry.minPlayers()).append("-").append(entry.maxPlayers()).append(" joueurs. ");
+        }
+        if (entry.playtime() != null) {
+            description.append(entry.playtime()).append(" min. ");
+        }
+        if (entry.complexity() != null) {
+            description.append("Complexité ").append(entry.complexity()).append("/5.");
+        }
+        return description.toString().trim();
+    }
+
+    private int flush(List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = List.copyOf(batch);
+        batch.clear();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_GAME, rows));
+        return rows.size();
+    }
+
+    private static ImportReport report(long games, References categories, References authors, References publishers,
+                                       long skipped, long start) {
+        return new ImportReport(games, categories.created, authors.created, publishers.created, skipped,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Table de référence (name → id), chargée une fois puis complétée au fil de l'import.
+     * Les nouvelles entrées sont insérées immédiatement : elles sont peu nombreuses comparées aux jeux.
+     */
+    private class References {
+
+        private final Map<String, Long> ids = new HashMap<>();
+        private final SimpleJdbcInsert insert;
+        private final int maxLength;
+        private int created;
+
+        References(String table, int maxLength) {
+            this.maxLength = maxLength;
+            this.insert = new SimpleJdbcInsert(jdbcTemplate).withTableName(table)
+                    .usingColumns("name").usingGeneratedKeyColumns("id");
+            jdbcTemplate.query("select id, name from " + table,
+                    rs -> { ids.putIfAbsent(rs.getString("name"), rs.getLong("id")); });
+        }
+
+        Long idOf(String name) {
+            if (name == null || name.isBlank()) {
+                return null;
+            }
+            String key = truncate(name.trim(), maxLength);
+            Long id = ids.get(key);
+            if (id == null) {
+                id = insert.executeAndReturnKey(Map.of("name", key)).longValue();
+                ids.put(key, id);
+                created++;
+            }
+            return id;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ImportedGame(@JsonAlias("title") String name,
+                        String description,
+                        List<String> categories,
+                        List<String> mechanics,
+                        @JsonProperty("min_players") Integer minPlayers,
+                        @JsonProperty("max_players") Integer maxPlayers,
+                        @JsonProperty("avg_playtime_minutes") Integer playtime,
+                        Float complexity,
+                        @JsonProperty("year_published") Integer year,
+                        Float price,
+                        Integer stock,
+                        String currency,
+                        String author,
+                        String publisher) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.gamesup.service;
+
+import java.io.OutputStream;
+
+public interface ExportService {
+
+    public long exportReviews(long afterID, long limit, OutputStream out);
+    public long exportPurchases(long afterID, long limit, OutputStream out);
+}
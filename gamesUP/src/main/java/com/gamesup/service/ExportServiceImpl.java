@@ -0,0 +1,130 @@
+package com.gamesup.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.PurchaseExportRow;
+import com.gamesup.repository.ReviewDAO;
+import com.gamesup.repository.ReviewExport;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exports NDJSON (un objet JSON par ligne) lus par curseur : les requêtes renvoient des projections, jamais
+ * d'entités, donc rien ne s'accumule dans le contexte de persistance, et chaque objet est écrit dans la réponse
+ * dès sa lecture. La mémoire utilisée ne dépend pas de la taille des tables. Les objets sortent par id croissant :
+ * un export interrompu reprend avec afterID = dernier id reçu.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportServiceImpl.class);
+
+    // même valeur que la taille de lot des curseurs : le client reçoit les données au rythme de leur lecture
+    private static final int FLUSH_EVERY = 500;
+
+    @Autowired
+    private ReviewDAO reviewDAO;
+
+    @Autowired
+    private PurchaseDAO purchaseDAO;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter writer;
+
+    // sans vidage après chaque objet : write vide le tampon tous les FLUSH_EVERY objets
+    @PostConstruct
+    void init() {
+        this.writer = this.objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportReviews(long afterID, long limit, OutputStream out) {
+        long start = System.nanoTime();
+        long count = 0;
+        try (Stream<ReviewExport> reviews = this.reviewDAO.streamExport(afterID);
+             JsonGenerator json = generator(out)) {
+            Iterator<ReviewExport> it = reviews.iterator();
+            while (count < limit && it.hasNext()) {
+                write(json, it.next(), ++count);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Export des avis après {} : {} avis en {} ms", afterID, count, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    /**
+     * Les lignes arrivent triées par purchase : un purchase est écrit dès que la ligne suivante en change,
+     * seul le purchase en cours est gardé en mémoire.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportPurchases(long afterID, long limit, OutputStream out) {
+        long start = System.nanoTime();
+        long count = 0;
+        try (Stream<PurchaseExportRow> rows = this.purchaseDAO.streamPaidExport(afterID);
+             JsonGenerator json = generator(out)) {
+            Iterator<PurchaseExportRow> it = rows.iterator();
+            PurchaseExport current = null;
+            while (it.hasNext()) {
+                PurchaseExportRow row = it.next();
+                if (current == null || !current.id().equals(row.purchaseID())) {
+                    if (current != null) {
+                        write(json, current, ++count);
+                    }
+                    if (count >= limit) {
+                        current = null;
+                        break;
+                    }
+                    current = new PurchaseExport(row.purchaseID(), row.userID(), row.status(), row.createdAt(),
+                            row.paidAt(), row.totalAmount(), row.currency(), new ArrayList<>());
+                }
+                if (row.lineID() != null) {
+                    current.lines().add(new PurchaseExport.Line(row.lineID(), row.gameID(), row.quantity(),
+                            row.unitPriceAtPurchase()));
+                }
+            }
+            if (current != null) {
+                write(json, current, ++count);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Export des commandes après {} : {} commandes en {} ms", afterID, count, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+
+    private JsonGenerator generator(OutputStream out) throws IOException {
+        // la réponse reste au conteneur, qui la ferme ; objets séparés par '\n' seulement (cf. write)
+        JsonGenerator json = this.objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        json.setRootValueSeparator(null);
+        return json;
+    }
+
+    private void write(JsonGenerator json, Object value, long count) throws IOException {
+        this.writer.writeValue(json, value);
+        json.writeRaw('\n');
+        if (count % FLUSH_EVERY == 0) {
+            json.flush();
+        }
+    }
+}
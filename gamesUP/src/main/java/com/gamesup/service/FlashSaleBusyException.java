@@ -0,0 +1,16 @@
+package com.gamesup.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Vente flash saturée : la file du jeu est pleine, ou aucune décision n'a pu être prise dans le délai.
+ * Rien n'a été réservé, la demande peut être refaite.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class FlashSaleBusyException extends RuntimeException {
+
+    public FlashSaleBusyException(long gameID) {
+        super("Vente flash du jeu " + gameID + " saturée, réessayer");
+    }
+}
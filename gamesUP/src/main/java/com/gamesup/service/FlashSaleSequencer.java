@@ -0,0 +1,200 @@
+package com.gamesup.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ajouts au panier d'un jeu en vente flash : les demandes attendent dans une file bornée, un seul thread les
+ * prend par lots, décide en mémoire à partir du stock disponible et des lignes sans réservation qu'elles
+ * rejoignent, lus une fois par lot, et valide les acceptées en une transaction (un seul UPDATE de la ligne Game
+ * au lieu d'un par panier). Si le lot échoue, ses demandes
+ * sont rejouées une par une par le chemin habituel.
+ * L'appelant attend sa décision au plus decision-timeout : passé ce délai, une demande pas encore prise est
+ * abandonnée (FlashSaleBusyException) ; une demande déjà prise reçoit sa décision au commit de son lot.
+ */
+final class FlashSaleSequencer {
+
+    private static final Logger log = LoggerFactory.getLogger(FlashSaleSequencer.class);
+
+    private static final int PENDING = 0;
+    private static final int TAKEN = 1;
+    private static final int EXPIRED = 2;
+
+    interface Committer {
+        // stock disponible (stock - reserved) lu en base
+        int available(long gameID);
+
+        // utilisateur -> quantité de la ligne du jeu que sa demande rejoindrait, si elle n'a plus de réservation :
+        // la fusion la réserve à nouveau en entier
+        Map<Long, Integer> unreserved(long gameID, List<Intent> intents);
+
+        // toutes les demandes dans une transaction ; une exception annule tout le lot
+        void commit(long gameID, List<Intent> accepted);
+
+        // repli, une demande dans sa propre transaction : false si plus de stock
+        boolean commitOne(long gameID, Intent intent);
+    }
+
+    record Intent(long userID, int quantity, AtomicInteger state, CompletableFuture<Boolean> decision) {
+
+        Intent(long userID, int quantity) {
+            this(userID, quantity, new AtomicInteger(PENDING), new CompletableFuture<>());
+        }
+    }
+
+    private final long gameID;
+    private final BlockingQueue<Intent> queue;
+    private final int batchSize;
+    private final Committer committer;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder busy = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder replayedBatches = new LongAdder();
+
+    FlashSaleSequencer(long gameID, int queueCapacity, int batchSize, Committer committer) {
+        this.gameID = gameID;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.committer = committer;
+        this.writer = Thread.ofPlatform().name("flash-sale-" + gameID).daemon().start(this::run);
+    }
+
+    /**
+     * @return true si la quantité est réservée dans le panier, false si le stock est épuisé
+     */
+    boolean submit(long userID, int quantity, long timeoutMillis) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("La quantité doit être positive");
+        }
+        Intent intent = new Intent(userID, quantity);
+        if (!running || !queue.offer(intent)) {
+            busy.increment();
+            throw new FlashSaleBusyException(gameID);
+        }
+        // stop() entre le test et l'offer : le thread a pu sortir sans voir la demande, on la reprend si personne ne l'a prise
+        if (!running && intent.state().compareAndSet(PENDING, EXPIRED)) {
+            busy.increment();
+            throw new FlashSaleBusyException(gameID);
+        }
+        try {
+            return intent.decision().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (intent.state().compareAndSet(PENDING, EXPIRED)) {
+                busy.increment();
+                throw new FlashSaleBusyException(gameID);
+            }
+            // déjà dans le lot en cours : la décision suit son commit
+            return intent.decision().join();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Plus de nouvelles demandes ; celles déjà en file sont traitées avant l'arrêt du thread. Une demande mise
+     * en file pendant l'arrêt est soit traitée, soit refusée par submit (FlashSaleBusyException).
+     */
+    void stop() {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    FlashSaleStats stats() {
+        return new FlashSaleStats(gameID, queue.size(), accepted.sum(), rejected.sum(), busy.sum(),
+                batches.sum(), replayedBatches.sum());
+    }
+
+    private void run() {
+        List<Intent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Intent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                decide(batch);
+            } catch (InterruptedException e) {
+                // seul stop() arrête le thread, après avoir vidé la file
+            } catch (RuntimeException e) {
+                log.error("Vente flash du jeu {} : lot de {} demandes en échec", gameID, batch.size(), e);
+                batch.forEach(intent -> intent.decision().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void decide(List<Intent> batch) {
+        List<Intent> taken = new ArrayList<>(batch.size());
+        for (Intent intent : batch) {
+            if (intent.state().compareAndSet(PENDING, TAKEN)) {
+                taken.add(intent);
+            }
+        }
+        if (taken.isEmpty()) {
+            return;
+        }
+        int available = committer.available(gameID);
+        Map<Long, Integer> unreserved = committer.unreserved(gameID, taken);
+        List<Intent> acceptedNow = new ArrayList<>(taken.size());
+        for (Intent intent : taken) {
+            int needed = intent.quantity() + unreserved.getOrDefault(intent.userID(), 0);
+            if (needed <= available) {
+                available -= needed;
+                // une fois la ligne réservée, les demandes suivantes du même utilisateur n'ajoutent que leur quantité
+                unreserved.remove(intent.userID());
+                acceptedNow.add(intent);
+            } else {
+                rejected.increment();
+                intent.decision().complete(false);
+            }
+        }
+        if (acceptedNow.isEmpty()) {
+            return;
+        }
+        try {
+            committer.commit(gameID, acceptedNow);
+            batches.increment();
+            accepted.add(acceptedNow.size());
+            acceptedNow.forEach(intent -> intent.decision().complete(true));
+        } catch (RuntimeException e) {
+            // panier créé en parallèle, stock modifié hors vente flash... : chaque demande retente seule
+            log.warn("Vente flash du jeu {} : lot de {} rejoué demande par demande ({})", gameID, acceptedNow.size(), e.toString());
+            replayedBatches.increment();
+            for (Intent intent : acceptedNow) {
+                try {
+                    boolean ok = committer.commitOne(gameID, intent);
+                    (ok ? accepted : rejected).increment();
+                    intent.decision().complete(ok);
+                } catch (RuntimeException failure) {
+                    intent.decision().completeExceptionally(failure);
+                }
+            }
+        }
+    }
+}
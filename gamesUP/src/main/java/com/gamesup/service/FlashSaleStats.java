@@ -0,0 +1,13 @@
+package com.gamesup.service;
+
+/**
+ * Compteurs d'une vente flash depuis son lancement ; queued est la file au moment de la lecture.
+ */
+public record FlashSaleStats(long gameID,
+                             int queued,
+                             long accepted,
+                             long rejected,
+                             long busy,
+                             long batches,
+                             long replayedBatches) {
+}
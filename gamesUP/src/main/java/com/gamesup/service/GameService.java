@@ -1,14 +1,38 @@
 package com.gamesup.service;
 
+import com.gamesup.cache.CacheStats;
+import com.gamesup.cache.ContentVersion;
 import com.gamesup.entity.Game;
+import com.gamesup.search.SearchQuery;
 
 import java.util.List;
+import java.util.Map;
 
 public interface GameService {
     public List<Game> filter(String category, String author, String publisher, String name);
 
+    public PageResult<Game> filter(String category, String author, String publisher, String name,
+                                   long offset, int limit, String sort);
+
     public Game detail(long id);
 
+    public List<Game> details(List<Long> ids);
+
+    // Lectures servies par l'API : vues plates, avec wishCount et, si userID est fourni, wished
+
+    public PageResult<GameView> filterViews(String category, String author, String publisher, String name,
+                                            long offset, int limit, String sort, Long userID);
+
+    public List<GameView> searchViews(SearchQuery query, Long userID);
+
+    public GameView detailView(long id, Long userID);
+
+    public List<GameView> detailViews(List<Long> ids, Long userID);
+
+    public List<GameView> topRatedViews(int limit, int minReviews, Long userID);
+
+    public List<GameView> similarViews(long id, int limit, Long userID);
+
     public void add(String title, float price, int stock, long authorID, long categoryID, long publisherID);
 
     public void add(Game game);
@@ -17,4 +41,16 @@ public interface GameService {
 
     public void update(long id,String title, float price, int stock, long authorID, long categoryID, long publisherID);
 
+    public void stockChanged(long id);
+
+    public void ratingsChanged(long id);
+
+    public void catalogReloaded();
+
+    public Map<String, CacheStats> cacheStats();
+
+    public ContentVersion version();
+
+    public ContentVersion version(long id);
+
 }
@@ -1,14 +1,40 @@
 package com.gamesup.service;
 
+import com.gamesup.cache.CacheStats;
+import com.gamesup.cache.CatalogCache;
+import com.gamesup.cache.CatalogVersions;
+import com.gamesup.cache.ContentVersion;
+import com.gamesup.cache.GameSnapshot;
+import com.gamesup.datasource.ReadWriteRoutingDataSource;
+import com.gamesup.datasource.ReplicaState;
 import com.gamesup.entity.Game;
 import com.gamesup.repository.AuthorDAO;
 import com.gamesup.repository.CategoryDAO;
 import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.OffsetPageRequest;
 import com.gamesup.repository.PublisherDAO;
+import com.gamesup.search.CatalogSearchIndex;
+import com.gamesup.search.SearchQuery;
+import com.gamesup.search.SimilarityIndex;
+import com.gamesup.search.TopRatedIndex;
+import com.gamesup.search.WishlistIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class GameServiceImpl implements GameService{
@@ -25,14 +51,115 @@ public class GameServiceImpl implements GameService{
     @Autowired
     private AuthorDAO authorDAO;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private CatalogVersions catalogVersions;
+
+    @Autowired
+    private CatalogSearchIndex searchIndex;
+
+    @Autowired
+    private TopRatedIndex topRatedIndex;
+
+    @Autowired
+    private WishlistIndex wishlistIndex;
+
+    @Autowired
+    private SimilarityIndex similarityIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // absent sans réplica (datasource.replica.url)
+    @Autowired(required = false)
+    private ReplicaState replicaState;
+
     @Override
     public List<Game> filter(String category, String author, String publisher, String name) {
-        return this.gameDAO.findByCategoryNameOrAuthorNameOrPublisherNameOrTitle(category,author,publisher,name);
+        CatalogCache.FilterKey key = new CatalogCache.FilterKey(category, author, publisher, name);
+        return catalogCache.filter(key, () -> read(() -> this.gameDAO.findSnapshots(category, author, publisher, name)))
+                .stream().map(GameSnapshot::toGame).toList();
+    }
+
+    @Override
+    public PageResult<Game> filter(String category, String author, String publisher, String name,
+                                   long offset, int limit, String sort) {
+        return page(category, author, publisher, name, offset, limit, sort).map(GameSnapshot::toGame);
+    }
+
+    @Override
+    public PageResult<GameView> filterViews(String category, String author, String publisher, String name,
+                                            long offset, int limit, String sort, Long userID) {
+        PageResult<GameSnapshot> page = page(category, author, publisher, name, offset, limit, sort);
+        List<GameView> views = views(page.content(), userID);
+        return new PageResult<>(views, page.offset(), page.size(), page.totalElements(), page.hasNext());
+    }
+
+    private PageResult<GameSnapshot> page(String category, String author, String publisher, String name,
+                                          long offset, int limit, String sort) {
+        // tri toujours complété par l'id pour qu'un même offset renvoie toujours les mêmes lignes
+        String sortField = switch (sort == null ? "" : sort) {
+            case "title", "price" -> sort;
+            default -> "id";
+        };
+        Sort order = sortField.equals("id") ? Sort.by("id") : Sort.by(sortField).and(Sort.by("id"));
+        OffsetPageRequest pageable = OffsetPageRequest.of(offset, limit, order);
+        CatalogCache.PageKey key = new CatalogCache.PageKey(new CatalogCache.FilterKey(category, author, publisher, name),
+                pageable.getOffset(), pageable.getPageSize(), sortField);
+        return catalogCache.page(key, () -> read(() -> PageResult.of(
+                this.gameDAO.findSnapshots(category, author, publisher, name, pageable))));
+    }
+
+    @Override
+    public List<GameView> searchViews(SearchQuery query, Long userID) {
+        return views(searchIndex.search(query), userID);
     }
 
     @Override
     public Game detail(long id) {
-        return this.gameDAO.findById(id).get();
+        return snapshot(id).toGame();
+    }
+
+    @Override
+    public GameView detailView(long id, Long userID) {
+        return views(List.of(snapshot(id)), userID).get(0);
+    }
+
+    /**
+     * Plusieurs jeux dans l'ordre des ids (les ids inconnus sont ignorés) ; ceux absents du cache
+     * sont relus en une seule requête.
+     */
+    @Override
+    public List<Game> details(List<Long> ids) {
+        return snapshots(ids).stream().map(GameSnapshot::toGame).toList();
+    }
+
+    @Override
+    public List<GameView> detailViews(List<Long> ids, Long userID) {
+        return views(snapshots(ids), userID);
+    }
+
+    private GameSnapshot snapshot(long id) {
+        GameSnapshot snapshot = catalogCache.detail(id, key -> read(() -> load(key)));
+        if (snapshot == null) {
+            throw new NoSuchElementException("No value present");
+        }
+        return snapshot;
+    }
+
+    private List<GameSnapshot> snapshots(List<Long> ids) {
+        Map<Long, GameSnapshot> snapshots = catalogCache.details(ids, missing -> read(() -> this.gameDAO.findSnapshotsByIdIn(missing)
+                .stream().collect(Collectors.toMap(GameSnapshot::id, Function.identity()))));
+        return ids.stream().map(snapshots::get).filter(Objects::nonNull).toList();
+    }
+
+    // wishCount et wished lus dans WishlistIndex, en mémoire : aucune requête
+    private List<GameView> views(List<GameSnapshot> games, Long userID) {
+        long[] wished = userID == null ? null : wishlistIndex.games(userID);
+        return games.stream().map(game -> GameView.of(game, wishlistIndex.count(game.id()),
+                wished == null ? null : Arrays.binarySearch(wished, game.id()) >= 0)).toList();
     }
 
     @Override
@@ -44,17 +171,21 @@ public class GameServiceImpl implements GameService{
         game.setAuthor(authorDAO.getReferenceById(authorID));
         game.setCategory(categoryDAO.getReferenceById(categoryID));
         game.setPublisher(publisherDAO.getReferenceById(publisherID));
-        this.gameDAO.save(game);
+        Game saved = this.gameDAO.save(game);
+        catalogChanged(saved.getId(), null, load(saved.getId()));
     }
 
     @Override
     public void add(Game game) {
-        this.gameDAO.save(game);
+        Game saved = this.gameDAO.save(game);
+        catalogChanged(saved.getId(), null, load(saved.getId()));
     }
 
     @Override
     public void remove(long id) {
+        GameSnapshot before = load(id);
         this.gameDAO.deleteById(id);
+        catalogChanged(id, before, null);
     }
 
     @Override
@@ -62,7 +193,8 @@ public class GameServiceImpl implements GameService{
     public void update(long id,String title, float price, int stock, long authorID, long categoryID, long publisherID) {
 
         // recup le game par son id
-        Game game = gameDAO.findById(id).get();
+        Game game = gameDAO.findWithReferencesById(id).get();
+        GameSnapshot before = GameSnapshot.of(game);
 
         // set sur mes champs
         game.setTitle(title);
@@ -73,5 +205,128 @@ public class GameServiceImpl implements GameService{
         game.setPublisher(publisherDAO.getReferenceById(publisherID));
         // save
         this.gameDAO.save(game);
+        catalogChanged(id, before, load(id));
+    }
+
+    /**
+     * Le stock a bougé hors de ce service (paiement). Si on est dans une transaction,
+     * on attend le commit pour rafraîchir, sinon un lecteur pourrait remettre en cache l'ancien stock.
+     */
+    @Override
+    public void stockChanged(long id) {
+        afterCommit(() -> refresh(id));
+    }
+
+    /**
+     * Les agrégats d'avis du jeu ont bougé (ReviewService) ; même règle que stockChanged.
+     */
+    @Override
+    public void ratingsChanged(long id) {
+        afterCommit(() -> refresh(id));
+    }
+
+    /**
+     * Après une écriture en masse hors JPA (import, recalcul des agrégats) : vide le cache catalogue
+     * et reconstruit les index, après le commit si on est dans une transaction.
+     */
+    @Override
+    public void catalogReloaded() {
+        afterCommit(() -> {
+            catalogCache.invalidateAll();
+            catalogVersions.reloaded();
+            searchIndex.rebuild();
+            topRatedIndex.rebuild();
+            similarityIndex.rebuild();
+        });
+    }
+
+    /**
+     * Jeux les mieux notés ayant au moins minReviews avis, servis depuis le classement en mémoire et le cache détail.
+     */
+    @Override
+    public List<GameView> topRatedViews(int limit, int minReviews, Long userID) {
+        return detailViews(topRatedIndex.top(limit, minReviews).stream().map(TopRatedIndex.Entry::gameID).toList(), userID);
+    }
+
+    /**
+     * Jeux les plus proches de id (SimilarityIndex), du plus similaire au moins similaire ; vide pour un jeu inconnu.
+     */
+    @Override
+    public List<GameView> similarViews(long id, int limit, Long userID) {
+        return detailViews(similarityIndex.similar(id, limit).stream().map(SimilarityIndex.Neighbor::gameID).toList(), userID);
+    }
+
+    @Override
+    public Map<String, CacheStats> cacheStats() {
+        return Map.of("details", catalogCache.detailStats(),
+                "filters", catalogCache.filterStats(),
+                "pages", catalogCache.pageStats());
+    }
+
+    /**
+     * Version du catalogue entier (tout ajout, modification ou suppression de jeu), lue sans toucher la base.
+     */
+    @Override
+    public ContentVersion version() {
+        return catalogVersions.catalog();
+    }
+
+    @Override
+    public ContentVersion version(long id) {
+        return catalogVersions.game(id);
+    }
+
+    // à appeler après chaque écriture sur un jeu, une fois la transaction validée
+    private void catalogChanged(long id, GameSnapshot before, GameSnapshot after) {
+        catalogCache.invalidate(id, before, after);
+        catalogVersions.changed(id);
+        searchIndex.update(id, after);
+        if (after == null) {
+            topRatedIndex.update(id, 0, 0);
+        } else {
+            topRatedIndex.update(id, after.reviewCount(), after.ratingSum());
+        }
+        similarityIndex.update(id, after);
+    }
+
+    // après le commit, l'EntityManager de la transaction est encore lié au thread et peut contenir
+    // le jeu dans son ancien état (UPDATE en masse) : on relit dans une nouvelle transaction,
+    // pas en lecture seule pour rester sur le primaire (un réplica n'a peut-être pas encore l'écriture)
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    TransactionTemplate fresh = new TransactionTemplate(transactionManager);
+                    fresh.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                    fresh.executeWithoutResult(status -> action.run());
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // chargement d'une entrée de cache absente, en lecture seule : l'entrée est partagée par tous les utilisateurs
+    // jusqu'à son expiration, elle ne vient du réplica que s'il contient déjà la dernière écriture du catalogue
+    // (une écriture validée pendant la lecture invalide le cache, qui ne garde pas l'entrée, cf. TtlCache) ;
+    // sinon lecture sur le primaire, sans noter le lecteur comme écrivain. Pas de transaction quand le cache répond
+    private <T> T read(Supplier<T> query) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        if (replicaState == null || !replicaState.caughtUpWith(catalogVersions.catalog().modifiedAt())) {
+            readOnly.setName(ReadWriteRoutingDataSource.PRIMARY_READ);
+        }
+        return readOnly.execute(status -> query.get());
+    }
+
+    private void refresh(long id) {
+        GameSnapshot current = load(id);
+        catalogChanged(id, current, current);
+    }
+
+    // relit le jeu en base (les références getReferenceById ne sont pas chargées hors session)
+    private GameSnapshot load(long id) {
+        return this.gameDAO.findSnapshotById(id).orElse(null);
     }
 }
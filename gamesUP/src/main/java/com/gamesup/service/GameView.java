@@ -0,0 +1,55 @@
+package com.gamesup.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.gamesup.cache.GameSnapshot;
+
+import java.time.LocalDate;
+
+/**
+ * Jeu tel que renvoyé par l'API : enregistrement plat et immuable construit depuis le cache (GameSnapshot),
+ * sans entité ni proxy Hibernate à parcourir. Les références sont réduites à leur id et leur nom.
+ */
+public record GameView(Long id,
+                       String title,
+                       String slug,
+                       String description,
+                       LocalDate releaseDate,
+                       int stock,
+                       float price,
+                       String currency,
+                       Long categoryID,
+                       String categoryName,
+                       Long authorID,
+                       String authorName,
+                       Long publisherID,
+                       String publisherName,
+                       int reviewCount,
+                       Double averageRating,
+                       int[] ratingHistogram,
+                       int wishCount,
+                       // null quand la requête ne précise pas d'utilisateur
+                       @JsonInclude(JsonInclude.Include.NON_NULL) Boolean wished) {
+
+    public static GameView of(GameSnapshot game, int wishCount, Boolean wished) {
+        return new GameView(game.id(),
+                game.title(),
+                game.slug(),
+                game.description(),
+                game.releaseDate(),
+                game.stock(),
+                game.price(),
+                game.currency(),
+                game.category() == null ? null : game.category().id(),
+                game.categoryName(),
+                game.author() == null ? null : game.author().id(),
+                game.authorName(),
+                game.publisher() == null ? null : game.publisher().id(),
+                game.publisherName(),
+                game.reviewCount(),
+                game.averageRating(),
+                // déjà une copie (cf. GameSnapshot.ratingHistogram)
+                game.ratingHistogram(),
+                wishCount,
+                wished);
+    }
+}
@@ -0,0 +1,11 @@
+package com.gamesup.service;
+
+/**
+ * Bilan (ou avancement) d'un import de catalogue : lignes insérées par table, entrées ignorées et débit.
+ */
+public record ImportReport(long games, int categories, int authors, int publishers, long skipped, long elapsedMs) {
+
+    public double rowsPerSecond() {
+        return elapsedMs == 0 ? 0 : games * 1000.0 / elapsedMs;
+    }
+}
@@ -0,0 +1,7 @@
+package com.gamesup.service;
+
+public interface OrderProcessingService {
+    public int processPending();
+    public OrderProcessingStats stats();
+    public void runExclusive(Runnable action);
+}
@@ -0,0 +1,270 @@
+package com.gamesup.service;
+
+import com.gamesup.analytics.SalesColumns;
+import com.gamesup.analytics.SalesLedger;
+import com.gamesup.entity.OrderEvent;
+import com.gamesup.entity.Purchase;
+import com.gamesup.entity.PurchaseLine;
+import com.gamesup.repository.OrderEventDAO;
+import com.gamesup.repository.PurchaseLineDAO;
+import com.gamesup.repository.SaleLine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Traite l'outbox OrderEvent en arrière-plan : sortie du stock des commandes payées, retour au stock
+ * des commandes annulées. Un lot d'événements est appliqué dans une seule transaction qui les marque aussi
+ * DONE, un effet n'est donc jamais appliqué deux fois. Si le lot échoue, on le rejoue événement par événement
+ * pour isoler le fautif, qui est retenté plus tard (délai doublé à chaque essai) puis abandonné (FAILED).
+ * Un seul traitement à la fois : l'appli tourne sur une seule instance.
+ * Une fois le lot validé, ses ventes et annulations sont ajoutées à la projection des ventes (SalesLedger).
+ */
+@Service
+public class OrderProcessingServiceImpl implements OrderProcessingService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderProcessingServiceImpl.class);
+
+    @Autowired
+    private OrderEventDAO orderEventDAO;
+
+    @Autowired
+    private PurchaseLineDAO purchaseLineDAO;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private SalesLedger salesLedger;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${order.processing.batch-size}")
+    private int batchSize;
+
+    @Value("${order.processing.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${order.processing.retry-backoff-ms}")
+    private long retryBackoffMillis;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong pending = new AtomicLong();
+    private volatile double lastRunEventsPerSecond;
+    private Timer lag;
+
+    @PostConstruct
+    public void registerMeters() {
+        lag = Timer.builder("gamesup.orders.lag")
+                .description("Délai entre un changement de statut et son traitement")
+                .publishPercentileHistogram()
+                .register(registry);
+        FunctionCounter.builder("gamesup.orders.events", processed, LongAdder::sum)
+                .tag("outcome", "processed").register(registry);
+        FunctionCounter.builder("gamesup.orders.events", retried, LongAdder::sum)
+                .tag("outcome", "retried").register(registry);
+        FunctionCounter.builder("gamesup.orders.events", failed, LongAdder::sum)
+                .tag("outcome", "failed").register(registry);
+        Gauge.builder("gamesup.orders.pending", pending, AtomicLong::get)
+                .description("Événements en attente au dernier passage").register(registry);
+    }
+
+    /**
+     * Traite par lots tous les événements dus.
+     * @return nombre d'événements traités
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${order.processing.poll-ms}")
+    public int processPending() {
+        running.lock();
+        try {
+            long start = System.nanoTime();
+            int done = 0;
+            List<OrderEvent> batch;
+            do {
+                batch = orderEventDAO.findDue(LocalDateTime.now(), PageRequest.of(0, batchSize));
+                done += process(batch);
+            } while (batch.size() == batchSize);
+            pending.set(orderEventDAO.countByStatus(OrderEvent.Status.PENDING));
+            if (done > 0) {
+                lastRunEventsPerSecond = done * 1e9 / (System.nanoTime() - start);
+            }
+            return done;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    /**
+     * Exécute action sans qu'aucun lot ne soit traité en même temps (reconstruction de la projection des ventes).
+     */
+    @Override
+    public void runExclusive(Runnable action) {
+        running.lock();
+        try {
+            action.run();
+        } finally {
+            running.unlock();
+        }
+    }
+
+    @Override
+    public OrderProcessingStats stats() {
+        long oldestPendingAgeMs = orderEventDAO.findOldestPendingCreatedAt()
+                .map(createdAt -> Duration.between(createdAt, LocalDateTime.now()).toMillis())
+                .orElse(0L);
+        return new OrderProcessingStats(processed.sum(), retried.sum(), failed.sum(),
+                orderEventDAO.countByStatus(OrderEvent.Status.PENDING), oldestPendingAgeMs, lastRunEventsPerSecond,
+                lag.mean(TimeUnit.MILLISECONDS), lag.max(TimeUnit.MILLISECONDS));
+    }
+
+    private int process(List<OrderEvent> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            Sales sales = transactionTemplate.execute(status -> apply(batch));
+            completed(batch, sales);
+            return batch.size();
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed(batch.get(0), e);
+                return 0;
+            }
+        }
+
+        // un événement du lot a échoué : un par un, et les suivants d'un purchase en échec attendent son prochain essai
+        int done = 0;
+        Set<Long> blocked = new HashSet<>();
+        for (OrderEvent event : batch) {
+            if (blocked.contains(event.getPurchaseId())) {
+                continue;
+            }
+            try {
+                Sales sales = transactionTemplate.execute(status -> apply(List.of(event)));
+                completed(List.of(event), sales);
+                done++;
+            } catch (RuntimeException e) {
+                failed(event, e);
+                blocked.add(event.getPurchaseId());
+            }
+        }
+        return done;
+    }
+
+    private Sales apply(List<OrderEvent> events) {
+        List<Long> paid = purchasesAt(events, Purchase.OrderStatus.PAID);
+        List<Long> canceled = purchasesAt(events, Purchase.OrderStatus.CANCELED);
+        // payé puis annulé dans le même lot : le stock sort d'abord, puis revient
+        if (!paid.isEmpty()) {
+            stockService.commit(purchaseLineDAO.findByPurchaseIdIn(paid));
+        }
+        if (!canceled.isEmpty()) {
+            cancel(canceled, paid);
+        }
+        List<Long> ids = events.stream().map(OrderEvent::getId).toList();
+        if (orderEventDAO.markDone(ids, LocalDateTime.now()) != ids.size()) {
+            throw new IllegalStateException("Événements déjà traités : " + ids);
+        }
+        // après markDone : une annulation ne retire que des ventes comptées (paiement traité, dans ce lot ou avant)
+        return new Sales(paid.isEmpty() ? List.of() : purchaseLineDAO.findCountedSales(paid),
+                canceled.isEmpty() ? List.of() : purchaseLineDAO.findCountedSales(canceled));
+    }
+
+    // le stock ne revient que s'il est sorti : paiement traité (avant ou dans ce lot) ou commande antérieure à l'outbox
+    private void cancel(List<Long> canceled, List<Long> paid) {
+        Map<Long, OrderEvent.Status> payments = new HashMap<>();
+        orderEventDAO.findByPurchaseIdInAndOrderStatus(canceled, Purchase.OrderStatus.PAID)
+                .forEach(event -> payments.put(event.getPurchaseId(), event.getStatus()));
+        Set<Long> abandoned = new HashSet<>();
+        for (long purchaseID : canceled) {
+            OrderEvent.Status payment = paid.contains(purchaseID) ? OrderEvent.Status.DONE : payments.get(purchaseID);
+            if (payment == OrderEvent.Status.FAILED) {
+                abandoned.add(purchaseID);
+            } else if (payment == OrderEvent.Status.PENDING) {
+                // findDue ne propose pas l'annulation avant le paiement : ne devrait pas arriver, on retentera
+                throw new IllegalStateException("Paiement du purchase " + purchaseID + " pas encore traité");
+            }
+        }
+        List<PurchaseLine> lines = purchaseLineDAO.findByPurchaseIdIn(canceled);
+        Map<Boolean, List<PurchaseLine>> byAbandon = lines.stream()
+                .collect(Collectors.partitioningBy(line -> abandoned.contains(line.getPurchase().getId())));
+        if (!byAbandon.get(false).isEmpty()) {
+            stockService.restock(byAbandon.get(false));
+        }
+        if (!byAbandon.get(true).isEmpty()) {
+            stockService.releaseAll(byAbandon.get(true));
+        }
+    }
+
+    private record Sales(List<SaleLine> sold, List<SaleLine> canceled) {
+    }
+
+    private static List<Long> purchasesAt(List<OrderEvent> events, Purchase.OrderStatus orderStatus) {
+        return events.stream()
+                .filter(event -> event.getOrderStatus() == orderStatus)
+                .map(OrderEvent::getPurchaseId)
+                .toList();
+    }
+
+    private void completed(List<OrderEvent> events, Sales sales) {
+        SalesColumns columns = salesLedger.columns();
+        sales.sold().forEach(line -> SalesAnalyticsServiceImpl.append(columns, line, 1));
+        sales.canceled().forEach(line -> SalesAnalyticsServiceImpl.append(columns, line, -1));
+        LocalDateTime now = LocalDateTime.now();
+        for (OrderEvent event : events) {
+            lag.record(Duration.between(event.getCreatedAt(), now));
+        }
+        processed.add(events.size());
+    }
+
+    private void failed(OrderEvent event, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        boolean giveUp = attempts >= maxAttempts;
+        LocalDateTime nextAttemptAt = LocalDateTime.now()
+                .plusNanos(retryBackoffMillis * (1L << Math.min(attempts - 1, 16)) * 1_000_000);
+        String error = String.valueOf(e);
+        String truncated = error.substring(0, Math.min(error.length(), 500));
+        transactionTemplate.executeWithoutResult(status -> orderEventDAO.recordFailure(event.getId(),
+                giveUp ? OrderEvent.Status.FAILED : OrderEvent.Status.PENDING, nextAttemptAt, truncated));
+        if (giveUp) {
+            failed.increment();
+            log.error("Événement {} ({} du purchase {}) abandonné après {} essais", event.getId(),
+                    event.getOrderStatus(), event.getPurchaseId(), attempts, e);
+        } else {
+            retried.increment();
+            log.warn("Événement {} ({} du purchase {}) en échec, nouvel essai à {} : {}", event.getId(),
+                    event.getOrderStatus(), event.getPurchaseId(), nextAttemptAt, error);
+        }
+    }
+}
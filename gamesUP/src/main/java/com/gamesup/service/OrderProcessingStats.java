@@ -0,0 +1,15 @@
+package com.gamesup.service;
+
+/**
+ * Débit et retard du traitement des commandes. Les compteurs partent de zéro au démarrage ;
+ * pending et oldestPendingAgeMs sont lus en base.
+ */
+public record OrderProcessingStats(long processed,
+                                   long retried,
+                                   long failed,
+                                   long pending,
+                                   long oldestPendingAgeMs,
+                                   double lastRunEventsPerSecond,
+                                   double meanLagMs,
+                                   double maxLagMs) {
+}
@@ -0,0 +1,12 @@
+package com.gamesup.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OutOfStockException extends RuntimeException {
+
+    public OutOfStockException(long gameID, int quantity) {
+        super("Stock insuffisant pour le jeu " + gameID + " (quantité demandée : " + quantity + ")");
+    }
+}
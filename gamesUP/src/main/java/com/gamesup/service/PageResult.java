@@ -0,0 +1,30 @@
+package com.gamesup.service;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Une page de résultats avec le total, renvoyée telle quelle en JSON.
+ */
+public record PageResult<T>(List<T> content,
+                            long offset,
+                            int size,
+                            long totalElements,
+                            boolean hasNext) {
+
+    // pas Page.hasNext : il raisonne en numéros de page, faux quand l'offset n'est pas un multiple de la taille
+    public static <T> PageResult<T> of(Page<T> page) {
+        long offset = page.getPageable().getOffset();
+        return new PageResult<>(List.copyOf(page.getContent()),
+                offset,
+                page.getPageable().getPageSize(),
+                page.getTotalElements(),
+                offset + page.getNumberOfElements() < page.getTotalElements());
+    }
+
+    public <R> PageResult<R> map(Function<T, R> mapper) {
+        return new PageResult<>(content.stream().map(mapper).toList(), offset, size, totalElements, hasNext);
+    }
+}
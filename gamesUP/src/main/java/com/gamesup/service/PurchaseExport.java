@@ -0,0 +1,17 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Purchase;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Un purchase payé et ses lignes, une ligne NDJSON de l'export.
+ */
+public record PurchaseExport(Long id, Long userID, Purchase.OrderStatus status, LocalDateTime createdAt,
+                             LocalDateTime paidAt, BigDecimal totalAmount, String currency, List<Line> lines) {
+
+    public record Line(Long id, Long gameID, int quantity, float unitPriceAtPurchase) {
+    }
+}
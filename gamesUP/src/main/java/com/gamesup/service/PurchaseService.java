@@ -1,8 +1,22 @@
 package com.gamesup.service;
 
+import com.gamesup.cache.CacheStats;
+
+import java.math.BigDecimal;
+import java.util.List;
+
 public interface PurchaseService {
     public void addToBasket(long userID, long gameID, int quantity);
+    public void addAllToBasket(long userID, List<BasketItem> items);
     public void removeFromBasket(long purchaseLineID);
     public void pay(long purchaseID);
-    public float computeTotalPrice(long purchaseID);
+    public boolean ship(long purchaseID);
+    public boolean deliver(long purchaseID);
+    public boolean cancel(long purchaseID);
+    public BigDecimal computeTotalPrice(long purchaseID);
+    public int reconcileTotals();
+    public CacheStats basketCacheStats();
+    public void startFlashSale(long gameID);
+    public boolean stopFlashSale(long gameID);
+    public List<FlashSaleStats> flashSaleStats();
 }
@@ -1,22 +1,56 @@
 package com.gamesup.service;
 
+import com.gamesup.cache.CacheStats;
+import com.gamesup.cache.TtlCache;
 import com.gamesup.entity.Game;
+import com.gamesup.entity.OrderEvent;
 import com.gamesup.entity.Purchase;
 import com.gamesup.entity.PurchaseLine;
-import com.gamesup.entity.User;
+import com.gamesup.repository.BasketLine;
 import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.LineAmount;
+import com.gamesup.repository.OrderEventDAO;
 import com.gamesup.repository.PurchaseDAO;
 import com.gamesup.repository.PurchaseLineDAO;
+import com.gamesup.repository.PurchaseTotals;
 import com.gamesup.repository.UserDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongToIntFunction;
 
 @Service
 public class PurchaseServiceImpl implements PurchaseService{
 
+    private static final Logger log = LoggerFactory.getLogger(PurchaseServiceImpl.class);
+
+    private static final int RECONCILE_BATCH = 500;
+
+    // recherches du panier actif quand celui trouvé vient d'être payé par un appel concurrent
+    private static final int BASKET_ATTEMPTS = 3;
+
     @Autowired
     private PurchaseLineDAO purchaseLineDAO;
 
@@ -29,76 +63,455 @@ public class PurchaseServiceImpl implements PurchaseService{
     @Autowired
     private GameDAO gameDAO;
 
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private OrderEventDAO orderEventDAO;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${purchase.basket.max-items}")
+    private int maxBasketItems;
+
+    @Value("${purchase.flash-sale.games}")
+    private List<Long> flashSaleGames;
+
+    @Value("${purchase.flash-sale.queue-capacity}")
+    private int flashSaleQueueCapacity;
+
+    @Value("${purchase.flash-sale.batch-size}")
+    private int flashSaleBatchSize;
+
+    @Value("${purchase.flash-sale.decision-timeout-ms}")
+    private long flashSaleTimeoutMillis;
+
+    // userID -> id du panier actif ; vérifié à chaque usage par addItemsToBasket, jamais invalidé explicitement
+    private final TtlCache<Long, Long> basketIds;
+
+    // jeux en vente flash : leurs ajouts au panier passent par le séquenceur du jeu
+    private final Map<Long, FlashSaleSequencer> flashSales = new ConcurrentHashMap<>();
+
+    private final FlashSaleSequencer.Committer flashSaleCommitter = new FlashSaleSequencer.Committer() {
+        @Override
+        public int available(long gameID) {
+            return gameDAO.findAvailable(gameID);
+        }
+
+        @Override
+        public Map<Long, Integer> unreserved(long gameID, List<FlashSaleSequencer.Intent> intents) {
+            Set<Long> userIDs = new HashSet<>();
+            intents.forEach(intent -> userIDs.add(intent.userID()));
+            // la ligne avec laquelle mergeLines fusionnera : la première de chaque panier
+            Set<Long> seen = new HashSet<>();
+            Map<Long, Integer> unreserved = new HashMap<>();
+            for (BasketLine line : purchaseLineDAO.findBasketLines(gameID, userIDs)) {
+                if (seen.add(line.userID()) && line.reservationID() == null) {
+                    unreserved.put(line.userID(), line.quantity());
+                }
+            }
+            return unreserved;
+        }
+
+        @Override
+        public void commit(long gameID, List<FlashSaleSequencer.Intent> accepted) {
+            transactionTemplate.executeWithoutResult(status -> addLines(gameID, accepted));
+        }
+
+        @Override
+        public boolean commitOne(long gameID, FlashSaleSequencer.Intent intent) {
+            try {
+                addToBasketNow(intent.userID(), List.of(new BasketItem(gameID, intent.quantity())));
+                return true;
+            } catch (OutOfStockException e) {
+                return false;
+            }
+        }
+    };
+
+    public PurchaseServiceImpl(@Value("${purchase.basket-cache.max-entries}") int maxEntries,
+                               @Value("${purchase.basket-cache.ttl-ms}") long ttlMillis) {
+        this.basketIds = new TtlCache<>(maxEntries, ttlMillis);
+    }
+
+    @PostConstruct
+    public void init() {
+        claimLegacyBaskets();
+        flashSaleGames.forEach(this::startFlashSale);
+    }
+
+    public void claimLegacyBaskets() {
+        int claimed = purchaseDAO.claimLegacyBaskets();
+        if (claimed > 0) {
+            log.info("{} paniers existants rattachés à leur utilisateur comme panier actif", claimed);
+        }
+    }
+
+    @PreDestroy
+    public void stopFlashSales() {
+        flashSales.keySet().forEach(this::stopFlashSale);
+    }
+
     /**
-     * Crée nouveau Purchase en BD si existe pas encore ( on a déjà un f° qui récup les derniers basket d'un user ds stats
-     * OU récupère le le plus récent existant
-     * Y ajoute un nouveau PurchaseLine
+     * Ajoute le jeu au panier actif de l'utilisateur (créé s'il n'en a pas) et réserve le stock correspondant
+     * (OutOfStockException sinon, rien n'est créé) ; même chemin que addAllToBasket, la quantité s'ajoute donc
+     * à la ligne du jeu si le panier en a déjà une.
+     * Si deux appels créent le panier en même temps, l'index unique refuse le second, qui est rejoué une fois
+     * et retrouve le panier du premier. Un jeu en vente flash passe par son séquenceur (FlashSaleBusyException
+     * s'il est saturé), qui fusionne de la même façon : une demande qui rejoint une ligne sans réservation
+     * (expirée) est décomptée de la quantité entière de la ligne, comme la réserve reserveAdditions.
      * @param userID
      * @param gameID
      * @param quantity
      */
     @Override
     public void addToBasket(long userID, long gameID, int quantity) {
+        FlashSaleSequencer flashSale = flashSales.get(gameID);
+        if (flashSale == null) {
+            addToBasketNow(userID, List.of(new BasketItem(gameID, quantity)));
+        } else if (!flashSale.submit(userID, quantity, flashSaleTimeoutMillis)) {
+            throw new OutOfStockException(gameID, quantity);
+        }
+    }
+
+    /**
+     * Plusieurs jeux en une transaction : jeux lus en une requête, quantités d'un même jeu additionnées et fusionnées
+     * avec les lignes déjà dans le panier, stock réservé pour tout ou rien. Les jeux en vente flash passent ensuite
+     * un par un par leur séquenceur, hors de cette transaction.
+     */
+    @Override
+    public void addAllToBasket(long userID, List<BasketItem> items) {
+        if (items.size() > maxBasketItems) {
+            throw new IllegalArgumentException("Au plus " + maxBasketItems + " jeux par ajout");
+        }
+        List<BasketItem> now = new ArrayList<>(items.size());
+        List<BasketItem> sequenced = new ArrayList<>();
+        for (BasketItem item : items) {
+            (flashSales.containsKey(item.gameID()) ? sequenced : now).add(item);
+        }
+        if (!now.isEmpty()) {
+            addToBasketNow(userID, now);
+        }
+        for (BasketItem item : sequenced) {
+            addToBasket(userID, item.gameID(), item.quantity());
+        }
+    }
+
+    private void addToBasketNow(long userID, List<BasketItem> items) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> mergeLines(userID, items));
+        } catch (DataIntegrityViolationException e) {
+            // seul le conflit sur l'index unique de activeBasketOf se rejoue : le panier créé en parallèle doit
+            // alors exister ; toute autre violation (utilisateur inconnu...) remonte telle quelle
+            if (this.purchaseDAO.findActiveBasketId(userID).isEmpty()) {
+                throw e;
+            }
+            basketIds.invalidate(userID);
+            transactionTemplate.executeWithoutResult(status -> mergeLines(userID, items));
+        }
+    }
 
-        User user = userDAO.getReferenceById(userID);
-        List<Purchase> purchases = purchaseDAO.findByUserIdAndStatusOrderByCreatedAtDesc(userID,Purchase.OrderStatus.BASKET);
-        Purchase purchase;
-        if (purchases.size() > 0) {
-            purchase = purchases.get(0);
-        } else {
-            purchase = new Purchase();
-            purchase.setUser(user);
-            purchase.setStatus(Purchase.OrderStatus.BASKET);
-            purchase.setCurrency("EUR");
-            purchase.setCreatedAt(LocalDateTime.now());
-            this.purchaseDAO.save(purchase);
+    // dans une transaction ; nombre de requêtes indépendant du nombre de jeux, hors UPDATE de stock (un par jeu)
+    private void mergeLines(long userID, List<BasketItem> items) {
+        // triés par jeu : ordre de verrouillage des lignes Game (StockService.reserveAdditions)
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (BasketItem item : items) {
+            if (item.quantity() <= 0) {
+                throw new IllegalArgumentException("La quantité doit être positive");
+            }
+            quantities.merge(item.gameID(), item.quantity(), Integer::sum);
+        }
+        Map<Long, Game> games = new HashMap<>();
+        for (Game game : gameDAO.findAllById(quantities.keySet())) {
+            games.put(game.getId(), game);
+        }
+        if (games.size() < quantities.size()) {
+            throw new NoSuchElementException("Jeu inconnu : " + quantities.keySet().stream()
+                    .filter(id -> !games.containsKey(id)).toList());
+        }
+        this.stockService.reserveAdditions(mergeLines(userID, quantities, games));
+    }
+
+    // lignes fusionnées (au même prix) ou créées dans le panier actif de l'utilisateur, totaux compris ;
+    // le stock n'est pas réservé, c'est à l'appelant de le faire
+    private List<StockService.Addition> mergeLines(long userID, Map<Long, Integer> quantities, Map<Long, Game> games) {
+        int itemCount = 0;
+        for (int quantity : quantities.values()) {
+            itemCount += quantity;
+        }
+        long purchaseID = lockBasket(userID, itemCount);
+        Map<Long, PurchaseLine> existing = new HashMap<>();
+        for (PurchaseLine line : purchaseLineDAO.findByPurchaseIdAndGameIdInOrderById(purchaseID, quantities.keySet())) {
+            // au même prix seulement : une ligne garde le prix auquel elle a été ajoutée
+            if (line.getUnitPriceAtPurchase() == games.get(line.getGame().getId()).getPrice()) {
+                existing.putIfAbsent(line.getGame().getId(), line);
+            }
         }
 
-        // Purchaise exite
+        BigDecimal amount = BigDecimal.ZERO;
+        List<PurchaseLine> created = new ArrayList<>();
+        List<StockService.Addition> additions = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Game game = games.get(entry.getKey());
+            int quantity = entry.getValue();
+            PurchaseLine line = existing.get(game.getId());
+            if (line == null) {
+                line = new PurchaseLine();
+                line.setPurchase(purchaseDAO.getReferenceById(purchaseID));
+                line.setGame(game);
+                line.setQuantity(quantity);
+                line.setUnitPriceAtPurchase(game.getPrice());
+                created.add(line);
+                amount = amount.add(lineAmount(quantity, game.getPrice()));
+            } else {
+                // montant de la ligne recalculé en entier, comme le fait reconcileTotals
+                amount = amount.add(lineAmount(line.getQuantity() + quantity, game.getPrice()))
+                        .subtract(lineAmount(line.getQuantity(), game.getPrice()));
+                line.setQuantity(line.getQuantity() + quantity);
+            }
+            additions.add(new StockService.Addition(line, quantity));
+        }
+        this.purchaseLineDAO.saveAll(created);
+        // panier verrouillé par lockBasket depuis : ne peut pas avoir été payé entre-temps
+        if (this.purchaseDAO.addToTotals(purchaseID, amount, created.size(), 0) == 0) {
+            throw new IllegalStateException("Le purchase " + purchaseID + " n'est plus un panier");
+        }
+        return additions;
+    }
 
-        Game game = gameDAO.findById(gameID).get();
-        PurchaseLine purchaseLine = new PurchaseLine();
-        purchaseLine.setPurchase(purchase);
-        purchaseLine.setGame(game);
-        purchaseLine.setQuantity(quantity);
-        purchaseLine.setUnitPriceAtPurchase(game.getPrice());
+    // panier actif de l'utilisateur (créé s'il n'en a pas), verrouillé par l'UPDATE de son nombre d'articles
+    private long lockBasket(long userID, int itemCount) {
+        return activeBasket(userID, purchaseID -> this.purchaseDAO.addItemsToBasket(purchaseID, itemCount));
+    }
 
-        this.purchaseLineDAO.save(purchaseLine);
+    // panier en cache d'abord, puis recherche ou création ; update (conditionnel à activeBasketOf) confirme
+    // qu'il est encore actif et le verrouille. 0 = payé entre la recherche et l'UPDATE : on recommence,
+    // la recherche suivante ne le trouve plus et crée un nouveau panier
+    private long activeBasket(long userID, LongToIntFunction update) {
+        Long purchaseID = basketIds.get(userID);
+        if (purchaseID != null && update.applyAsInt(purchaseID) == 1) {
+            return purchaseID;
+        }
+        basketIds.invalidate(userID);
+        for (int attempt = 0; attempt < BASKET_ATTEMPTS; attempt++) {
+            purchaseID = this.purchaseDAO.findActiveBasketId(userID).orElseGet(() -> createBasket(userID));
+            if (update.applyAsInt(purchaseID) == 1) {
+                basketIds.put(userID, purchaseID);
+                return purchaseID;
+            }
+        }
+        throw new IllegalStateException("Panier de l'utilisateur " + userID + " payé pendant chaque tentative d'ajout");
+    }
 
+    // lot d'une vente flash, dans une transaction : chaque panier fusionne comme addToBasket (demandes d'un même
+    // utilisateur additionnées, paniers verrouillés dans l'ordre des ids), puis le stock du lot en un seul UPDATE
+    private void addLines(long gameID, List<FlashSaleSequencer.Intent> intents) {
+        Map<Long, Game> games = Map.of(gameID, gameDAO.findById(gameID).get());
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (FlashSaleSequencer.Intent intent : intents) {
+            quantities.merge(intent.userID(), intent.quantity(), Integer::sum);
+        }
+        List<StockService.Addition> additions = new ArrayList<>(quantities.size());
+        quantities.forEach((userID, quantity) -> additions.addAll(mergeLines(userID, Map.of(gameID, quantity), games)));
+        this.stockService.reserveAll(gameID, additions);
+    }
 
+    private long createBasket(long userID) {
+        Purchase purchase = new Purchase();
+        purchase.setUser(userDAO.getReferenceById(userID));
+        purchase.setActiveBasketOf(userID);
+        purchase.setStatus(Purchase.OrderStatus.BASKET);
+        purchase.setCurrency("EUR");
+        purchase.setCreatedAt(LocalDateTime.now());
+        // flush : la violation d'unicité doit sortir ici, pas au commit
+        return this.purchaseDAO.saveAndFlush(purchase).getId();
     }
 
     @Override
+    @Transactional
     public void removeFromBasket(long purchaseLineID) {
-        this.purchaseLineDAO.deleteById(purchaseLineID);
+        PurchaseLine purchaseLine = this.purchaseLineDAO.findById(purchaseLineID).orElse(null);
+        if (purchaseLine == null) {
+            return;
+        }
+        this.stockService.release(purchaseLineID);
+        // on ne retire des totaux que si c'est bien cet appel qui a supprimé la ligne ; une commande déjà payée
+        // ne change plus : tout est annulé, suppression et libération du stock comprises
+        if (this.purchaseLineDAO.deleteLine(purchaseLineID) == 1) {
+            int quantity = purchaseLine.getQuantity();
+            long purchaseID = purchaseLine.getPurchase().getId();
+            if (this.purchaseDAO.addToTotals(purchaseID,
+                    lineAmount(quantity, purchaseLine.getUnitPriceAtPurchase()).negate(), -1, -quantity) == 0) {
+                throw new IllegalStateException("Le purchase " + purchaseID + " n'est plus un panier");
+            }
+        }
     }
 
+    /**
+     * Idempotent : payer un purchase qui n'est plus au statut BASKET ne fait rien.
+     * Enregistre le paiement et garde le stock de chaque ligne (si une ligne n'en a plus, toute la transaction
+     * est annulée, statut compris) ; la sortie du stock est faite ensuite par OrderProcessingService.
+     */
     @Override
+    @Transactional
     public void pay(long purchaseID) {
-        // etape 1 : recuperer le purchase par son ID
-        Purchase purchase = this.purchaseDAO.findById(purchaseID).get();
+        // etape 1 : passer le purchase en PAID, seulement s'il est encore un panier
+        if (this.purchaseDAO.markPaid(purchaseID, LocalDateTime.now()) == 0) {
+            return;
+        }
 
-        // etape 2 : modifier le statut du purchase
-        purchase.setStatus(Purchase.OrderStatus.PAID);
+        // etape 2 : bloquer le stock des lignes jusqu'au traitement de la commande
+        this.stockService.hold(this.purchaseLineDAO.findByPurchaseId(purchaseID));
+        recordEvent(purchaseID, Purchase.OrderStatus.PAID);
+    }
 
-        // etape 3 : save l'entity purchase
-        this.purchaseDAO.save(purchase);
+    /**
+     * Seule une commande dont le stock est sorti (événement PAID traité, ou commande antérieure à l'outbox) peut être
+     * expédiée : false tant que le paiement est en attente de traitement, ou s'il a été abandonné.
+     */
+    @Override
+    @Transactional
+    public boolean ship(long purchaseID) {
+        // un événement ne revient jamais à PENDING : ce qui est vu DONE ici le reste jusqu'au commit
+        if (this.orderEventDAO.existsByPurchaseIdAndOrderStatusAndStatusNot(purchaseID, Purchase.OrderStatus.PAID,
+                OrderEvent.Status.DONE)) {
+            return false;
+        }
+        return advance(purchaseID, Purchase.OrderStatus.PAID, Purchase.OrderStatus.SHIPPED);
     }
 
     @Override
-    public float computeTotalPrice(long purchaseID) {
-        // recuperer purchase par ID
-        Purchase purchase = this.purchaseDAO.findById(purchaseID).get();
+    @Transactional
+    public boolean deliver(long purchaseID) {
+        return advance(purchaseID, Purchase.OrderStatus.SHIPPED, Purchase.OrderStatus.DELIVERED);
+    }
 
-        // calcul prix total en add quantiy x price des purchase line
-        float totalPrice = 0;
-        for( PurchaseLine purchaseLine : purchase.getPurchaseLines() ) {
-            float price = purchaseLine.getQuantity() * purchaseLine.getUnitPriceAtPurchase();
-            totalPrice = totalPrice + price;
+    /**
+     * Seule une commande payée et pas encore expédiée peut être annulée ; son stock est rendu par OrderProcessingService
+     * (ou seulement ses réservations libérées si son paiement a été abandonné).
+     */
+    @Override
+    @Transactional
+    public boolean cancel(long purchaseID) {
+        return advance(purchaseID, Purchase.OrderStatus.PAID, Purchase.OrderStatus.CANCELED);
+    }
+
+    // false si le purchase n'est pas (ou plus) au statut "from"
+    private boolean advance(long purchaseID, Purchase.OrderStatus from, Purchase.OrderStatus to) {
+        if (this.purchaseDAO.transition(purchaseID, from, to) == 0) {
+            return false;
         }
+        recordEvent(purchaseID, to);
+        return true;
+    }
 
-        return totalPrice;
+    // dans la transaction du changement de statut : l'événement existe si et seulement si le changement est validé
+    private void recordEvent(long purchaseID, Purchase.OrderStatus orderStatus) {
+        OrderEvent event = new OrderEvent();
+        event.setPurchaseId(purchaseID);
+        event.setOrderStatus(orderStatus);
+        event.setCreatedAt(LocalDateTime.now());
+        event.setNextAttemptAt(event.getCreatedAt());
+        this.orderEventDAO.save(event);
+    }
 
+    /**
+     * Lit le total stocké, sans charger le purchase ni ses lignes.
+     */
+    @Override
+    public BigDecimal computeTotalPrice(long purchaseID) {
+        return this.purchaseDAO.findTotalAmountById(purchaseID).orElseThrow();
+    }
+
+    /**
+     * Recalcule les totaux de tous les purchases à partir de leurs lignes, par lots, et corrige ceux qui divergent.
+     * Une correction n'est appliquée que si les totaux n'ont pas changé entre-temps (panier modifié en parallèle) ;
+     * dans ce cas le purchase sera revérifié au prochain passage.
+     * @return nombre de purchases corrigés
+     */
+    @Override
+    @Scheduled(cron = "${purchase.reconcile.cron}")
+    @Transactional
+    public int reconcileTotals() {
+        int fixed = 0;
+        long afterID = 0;
+        List<PurchaseTotals> batch;
+        do {
+            batch = this.purchaseDAO.findTotalsAfter(afterID, PageRequest.of(0, RECONCILE_BATCH));
+            if (batch.isEmpty()) {
+                break;
+            }
+            Map<Long, PurchaseTotals> expected = new HashMap<>();
+            for (PurchaseTotals stored : batch) {
+                expected.put(stored.id(), new PurchaseTotals(stored.id(), BigDecimal.ZERO.setScale(2), 0, 0));
+            }
+            for (LineAmount line : this.purchaseLineDAO.findAmountsByPurchaseIds(expected.keySet())) {
+                PurchaseTotals sum = expected.get(line.purchaseID());
+                expected.put(line.purchaseID(), new PurchaseTotals(sum.id(),
+                        sum.totalAmount().add(lineAmount(line.quantity(), line.unitPriceAtPurchase())),
+                        sum.lineCount() + 1,
+                        sum.itemCount() + line.quantity()));
+            }
+            for (PurchaseTotals stored : batch) {
+                PurchaseTotals target = expected.get(stored.id());
+                BigDecimal storedAmount = stored.totalAmount() == null ? BigDecimal.ZERO : stored.totalAmount();
+                if (storedAmount.compareTo(target.totalAmount()) != 0
+                        || stored.lineCount() != target.lineCount()
+                        || stored.itemCount() != target.itemCount()) {
+                    log.warn("Totaux du purchase {} incohérents : stocké {}/{}/{}, attendu {}/{}/{}", stored.id(),
+                            storedAmount, stored.lineCount(), stored.itemCount(),
+                            target.totalAmount(), target.lineCount(), target.itemCount());
+                    fixed += this.purchaseDAO.fixTotals(stored.id(), target.totalAmount(), target.lineCount(), target.itemCount(),
+                            storedAmount, stored.lineCount(), stored.itemCount());
+                }
+            }
+            afterID = batch.get(batch.size() - 1).id();
+        } while (batch.size() == RECONCILE_BATCH);
+        return fixed;
+    }
+
+    @Override
+    public CacheStats basketCacheStats() {
+        return basketIds.stats();
+    }
+
+    /**
+     * Sans effet si la vente flash du jeu est déjà lancée. Les paiements ne sont pas concernés : payer prolonge
+     * les réservations des lignes sans toucher à la ligne Game.
+     */
+    @Override
+    public void startFlashSale(long gameID) {
+        gameDAO.findAvailable(gameID);
+        flashSales.computeIfAbsent(gameID, id -> {
+            log.info("Vente flash lancée pour le jeu {}", id);
+            return new FlashSaleSequencer(id, flashSaleQueueCapacity, flashSaleBatchSize, flashSaleCommitter);
+        });
+    }
+
+    /**
+     * Les demandes déjà en file sont traitées ; les suivantes reprennent le chemin habituel.
+     */
+    @Override
+    public boolean stopFlashSale(long gameID) {
+        FlashSaleSequencer flashSale = flashSales.remove(gameID);
+        if (flashSale == null) {
+            return false;
+        }
+        flashSale.stop();
+        log.info("Vente flash terminée pour le jeu {} : {}", gameID, flashSale.stats());
+        return true;
+    }
+
+    @Override
+    public List<FlashSaleStats> flashSaleStats() {
+        return flashSales.values().stream().map(FlashSaleSequencer::stats).toList();
+    }
 
+    // prix float du catalogue converti via sa représentation décimale (12.99f -> 12.99, pas 12.98999977...)
+    static BigDecimal lineAmount(int quantity, float unitPrice) {
+        return new BigDecimal(Float.toString(unitPrice))
+                .multiply(BigDecimal.valueOf(quantity))
+                .setScale(2, RoundingMode.HALF_UP);
     }
 }
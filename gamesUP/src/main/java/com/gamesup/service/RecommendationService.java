@@ -0,0 +1,6 @@
+package com.gamesup.service;
+
+public interface RecommendationService {
+    public String recommendations(String username);
+    public RecommendationStats stats();
+}
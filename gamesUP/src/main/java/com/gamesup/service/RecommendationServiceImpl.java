@@ -0,0 +1,99 @@
+package com.gamesup.service;
+
+import com.gamesup.cache.TtlCache;
+import com.gamesup.client.BackendUnavailableException;
+import com.gamesup.client.KnnClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class RecommendationServiceImpl implements RecommendationService {
+
+    static final String FALLBACK = "{\"error\": \"Service indisponible\"}";
+
+    @Autowired
+    private KnnClient knnClient;
+
+    private final TtlCache<String, String> cache;
+    private final long staleMillis;
+
+    // un seul appel au backend par utilisateur à la fois, les autres attendent son résultat
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public RecommendationServiceImpl(@Value("${recommendation.cache.max-entries}") int maxEntries,
+                                     @Value("${recommendation.cache.ttl-ms}") long ttlMillis,
+                                     @Value("${recommendation.cache.stale-ms}") long staleMillis) {
+        this.cache = new TtlCache<>(maxEntries, ttlMillis);
+        this.staleMillis = staleMillis;
+    }
+
+    /**
+     * Sert depuis le cache si frais, sinon appelle le backend (une seule fois par utilisateur même
+     * si plusieurs requêtes arrivent en même temps). Si le backend est en panne on renvoie
+     * la dernière réponse connue tant qu'elle a moins de staleMillis.
+     */
+    @Override
+    public String recommendations(String username) {
+        String cached = cache.get(username);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(username, mine);
+        if (existing != null) {
+            coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                return staleOrFallback(username);
+            }
+        }
+
+        try {
+            String body = knnClient.fetchRecommendations();
+            cache.put(username, body);
+            mine.complete(body);
+            return body;
+        } catch (BackendUnavailableException e) {
+            mine.completeExceptionally(e);
+            return staleOrFallback(username);
+        } finally {
+            inFlight.remove(username, mine);
+        }
+    }
+
+    @Override
+    public RecommendationStats stats() {
+        return new RecommendationStats(cache.stats(),
+                staleServed.sum(),
+                coalesced.sum(),
+                fallbacks.sum(),
+                knnClient.calls(),
+                knnClient.failures(),
+                knnClient.rejected(),
+                knnClient.meanLatencyMillis(),
+                knnClient.maxLatencyMillis(),
+                knnClient.circuitState());
+    }
+
+    private String staleOrFallback(String username) {
+        String stale = cache.getStale(username, staleMillis);
+        if (stale != null) {
+            staleServed.increment();
+            return stale;
+        }
+        fallbacks.increment();
+        return FALLBACK;
+    }
+}
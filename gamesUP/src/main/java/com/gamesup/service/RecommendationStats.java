@@ -0,0 +1,16 @@
+package com.gamesup.service;
+
+import com.gamesup.cache.CacheStats;
+import com.gamesup.client.CircuitBreaker;
+
+public record RecommendationStats(CacheStats cache,
+                                  long staleServed,
+                                  long coalesced,
+                                  long fallbacks,
+                                  long backendCalls,
+                                  long backendFailures,
+                                  long backendRejected,
+                                  double backendMeanLatencyMs,
+                                  double backendMaxLatencyMs,
+                                  CircuitBreaker.State circuitState) {
+}
@@ -1,11 +1,10 @@
 package com.gamesup.service;
 
-import com.gamesup.entity.Review;
-
-import java.util.List;
+import com.gamesup.repository.ReviewView;
 
 public interface ReviewService {
     public void addReview(long gameID, long userID, int rating, String review);
-    public List<Review> list();
+    public PageResult<ReviewView> listViews(long offset, int limit);
     public void remove(long id);
+    public int rebuildRatings();
 }
@@ -2,17 +2,27 @@ package com.gamesup.service;
 
 import com.gamesup.entity.Review;
 import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.OffsetPageRequest;
 import com.gamesup.repository.ReviewDAO;
+import com.gamesup.repository.ReviewRating;
+import com.gamesup.repository.ReviewView;
 import com.gamesup.repository.UserDAO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class ReviewServiceImpl implements ReviewService {
 
+    private static final Logger log = LoggerFactory.getLogger(ReviewServiceImpl.class);
+
     @Autowired
     private ReviewDAO reviewDAO;
 
@@ -22,9 +32,20 @@ public class ReviewServiceImpl implements ReviewService {
     @Autowired
     private GameDAO gameDAO;
 
+    @Autowired
+    private GameService gameService;
+
 
+    /**
+     * Enregistre l'avis et met à jour les agrégats du jeu (nombre, somme, histogramme) dans la même transaction.
+     * @param rating note de 1 à 5
+     */
     @Override
+    @Transactional
     public void addReview(long gameID, long userID, int rating, String comment) {
+        if (rating < 1 || rating > 5) {
+            throw new IllegalArgumentException("La note doit être comprise entre 1 et 5");
+        }
 
         Review review = new Review();
         review.setRating(rating);
@@ -34,16 +55,92 @@ public class ReviewServiceImpl implements ReviewService {
         review.setGame(this.gameDAO.getReferenceById(gameID));
 
         this.reviewDAO.save(review);
+        this.gameDAO.addRating(gameID, rating, 1);
+        this.gameService.ratingsChanged(gameID);
     }
 
+    /**
+     * Avis les plus récents d'abord (l'id départage les avis créés au même instant), en projection :
+     * ni entité ni jeu complet à charger.
+     */
     @Override
-    public List<Review> list() {
-        return this.reviewDAO.findAll();
+    @Transactional(readOnly = true)
+    public PageResult<ReviewView> listViews(long offset, int limit) {
+        Sort order = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+        return PageResult.of(this.reviewDAO.findViews(OffsetPageRequest.of(offset, limit, order)));
     }
 
+    /**
+     * Les agrégats ne sont décrémentés que si c'est bien ce DELETE qui a supprimé l'avis
+     * (deux suppressions concurrentes du même avis ne le retirent qu'une fois).
+     */
     @Override
+    @Transactional
     public void remove(long id) {
-        this.reviewDAO.deleteById(id);
+        ReviewRating review = this.reviewDAO.findRatingById(id).orElse(null);
+        if (review == null) {
+            return;
+        }
+        if (this.reviewDAO.deleteReview(id) == 1) {
+            this.gameDAO.addRating(review.gameID(), review.rating(), -1);
+            this.gameService.ratingsChanged(review.gameID());
+        }
+    }
+
+    /**
+     * Recalcule les agrégats de tous les jeux en un seul passage sur les avis, lus en flux triés par jeu :
+     * un seul jeu est accumulé en mémoire à la fois. Corrige une éventuelle dérive (avis écrits hors service).
+     * @return nombre de jeux ayant au moins un avis
+     */
+    @Override
+    @Scheduled(cron = "${review.ratings.rebuild-cron}")
+    @Transactional
+    public int rebuildRatings() {
+        this.gameDAO.clearRatings();
+        int games = 0;
+        Aggregate current = null;
+        try (Stream<ReviewRating> ratings = this.reviewDAO.streamRatingsByGame()) {
+            for (ReviewRating rating : (Iterable<ReviewRating>) ratings::iterator) {
+                if (current == null || !current.gameID.equals(rating.gameID())) {
+                    if (current != null) {
+                        current.save(this.gameDAO);
+                        games++;
+                    }
+                    current = new Aggregate(rating.gameID());
+                }
+                current.add(rating.rating());
+            }
+        }
+        if (current != null) {
+            current.save(this.gameDAO);
+            games++;
+        }
+        this.gameService.catalogReloaded();
+        log.info("Agrégats d'avis recalculés pour {} jeux", games);
+        return games;
+    }
+
+    private static class Aggregate {
+
+        private final Long gameID;
+        private final int[] histogram = new int[5];
+        private int count;
+        private long sum;
+
+        Aggregate(Long gameID) {
+            this.gameID = gameID;
+        }
+
+        void add(int rating) {
+            count++;
+            sum += rating;
+            if (rating >= 1 && rating <= 5) {
+                histogram[rating - 1]++;
+            }
+        }
 
+        void save(GameDAO gameDAO) {
+            gameDAO.setRatings(gameID, count, sum, histogram[0], histogram[1], histogram[2], histogram[3], histogram[4]);
+        }
     }
 }
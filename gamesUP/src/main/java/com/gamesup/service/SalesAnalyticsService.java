@@ -0,0 +1,13 @@
+package com.gamesup.service;
+
+import java.time.LocalDateTime;
+
+public interface SalesAnalyticsService {
+
+    public enum Dimension { GAME, CATEGORY, PUBLISHER, AUTHOR }
+
+    public enum Sort { QUANTITY, REVENUE }
+
+    public SalesReport report(Dimension by, LocalDateTime from, LocalDateTime to, Sort sort, int limit);
+    public long rebuild();
+}
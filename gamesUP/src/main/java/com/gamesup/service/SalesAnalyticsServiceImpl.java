@@ -0,0 +1,172 @@
+package com.gamesup.service;
+
+import com.gamesup.analytics.SalesColumns;
+import com.gamesup.analytics.SalesLedger;
+import com.gamesup.entity.Game;
+import com.gamesup.repository.PurchaseLineDAO;
+import com.gamesup.repository.SaleLine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Analyse des ventes servie depuis la projection en colonnes (SalesLedger), sans requête sur les lignes de purchase.
+ * L'agrégation se fait par jeu ; catégorie, éditeur et auteur sont obtenus en regroupant les totaux par jeu
+ * avec le cache détail du catalogue.
+ */
+@Service
+public class SalesAnalyticsServiceImpl implements SalesAnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesAnalyticsServiceImpl.class);
+
+    @Autowired
+    private SalesLedger salesLedger;
+
+    @Autowired
+    private PurchaseLineDAO purchaseLineDAO;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private OrderProcessingService orderProcessingService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Relit toutes les ventes en base et remplace la projection ; les lots de commandes attendent la fin.
+     * @return nombre de lignes projetées
+     */
+    @Override
+    @Scheduled(cron = "${analytics.sales.rebuild-cron}")
+    public long rebuild() {
+        long start = System.nanoTime();
+        SalesColumns rebuilt = new SalesColumns();
+        orderProcessingService.runExclusive(() -> {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<SaleLine> sales = this.purchaseLineDAO.streamSales()) {
+                    sales.forEach(line -> append(rebuilt, line, 1));
+                }
+            });
+            salesLedger.replace(rebuilt);
+        });
+        log.info("Projection des ventes reconstruite : {} lignes en {} ms", rebuilt.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return rebuilt.size();
+    }
+
+    /**
+     * Ventes sur [from, to[ (bornes facultatives), regroupées par by et classées par sort décroissant.
+     */
+    @Override
+    public SalesReport report(Dimension by, LocalDateTime from, LocalDateTime to, Sort sort, int limit) {
+        long start = System.nanoTime();
+        SalesColumns.Totals totals = salesLedger.columns().aggregate(
+                from == null ? Long.MIN_VALUE : millis(from),
+                to == null ? Long.MAX_VALUE : millis(to));
+
+        Map<Long, Sum> sums = new HashMap<>();
+        for (int i = 0; i < totals.gameIDs().length; i++) {
+            if (totals.lines()[i] != 0 || totals.quantity()[i] != 0) {
+                sums.put(totals.gameIDs()[i], new Sum(totals.gameIDs()[i], null)
+                        .add(totals.quantity()[i], totals.amountCents()[i], totals.lines()[i]));
+            }
+        }
+
+        Comparator<Sum> order = sort == Sort.REVENUE
+                ? Comparator.comparingLong((Sum sum) -> sum.cents).reversed()
+                : Comparator.comparingLong((Sum sum) -> sum.quantity).reversed();
+        order = order.thenComparing(sum -> sum.id, Comparator.nullsLast(Comparator.naturalOrder()));
+
+        List<Sum> ranked;
+        if (by == Dimension.GAME) {
+            // on ne charge que les jeux affichés
+            ranked = sums.values().stream().sorted(order).limit(limit).toList();
+            Map<Long, String> titles = new HashMap<>();
+            gameService.details(ranked.stream().map(sum -> sum.id).toList())
+                    .forEach(game -> titles.put(game.getId(), game.getTitle()));
+            ranked.forEach(sum -> sum.name = titles.get(sum.id));
+        } else {
+            Function<Game, Reference> reference = switch (by) {
+                case CATEGORY -> game -> game.getCategory() == null ? null
+                        : new Reference(game.getCategory().getId(), game.getCategory().getName());
+                case PUBLISHER -> game -> game.getPublisher() == null ? null
+                        : new Reference(game.getPublisher().getId(), game.getPublisher().getName());
+                default -> game -> game.getAuthor() == null ? null
+                        : new Reference(game.getAuthor().getId(), game.getAuthor().getName());
+            };
+            Map<Long, Reference> references = new HashMap<>();
+            gameService.details(new ArrayList<>(sums.keySet()))
+                    .forEach(game -> references.put(game.getId(), reference.apply(game)));
+            // un jeu supprimé depuis sa vente tombe dans le groupe sans id
+            Map<Long, Sum> groups = new HashMap<>();
+            for (Sum game : sums.values()) {
+                Reference group = references.get(game.id);
+                Long id = group == null ? null : group.id();
+                groups.computeIfAbsent(id, key -> new Sum(key, group == null ? null : group.name()))
+                        .add(game.quantity, game.cents, game.lines);
+            }
+            ranked = groups.values().stream().sorted(order).limit(limit).toList();
+        }
+
+        List<SalesFigure> figures = ranked.stream()
+                .map(sum -> new SalesFigure(sum.id, sum.name, sum.quantity, BigDecimal.valueOf(sum.cents, 2), sum.lines))
+                .toList();
+        return new SalesReport(by, sort, from, to, totals.scanned(), (System.nanoTime() - start) / 1e6, figures);
+    }
+
+    // même arrondi que les totaux du purchase ; une annulation (sign = -1) retire la ligne
+    static void append(SalesColumns columns, SaleLine line, int sign) {
+        long cents = PurchaseServiceImpl.lineAmount(line.quantity(), line.unitPriceAtPurchase())
+                .movePointRight(2).longValueExact();
+        columns.append(line.gameID(), sign * line.quantity(), sign * cents, millis(line.paidAt()));
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Reference(Long id, String name) {
+    }
+
+    private static final class Sum {
+        final Long id;
+        String name;
+        long quantity;
+        long cents;
+        long lines;
+
+        Sum(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        Sum add(long quantity, long cents, long lines) {
+            this.quantity += quantity;
+            this.cents += cents;
+            this.lines += lines;
+            return this;
+        }
+    }
+}
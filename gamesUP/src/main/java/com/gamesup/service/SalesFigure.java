@@ -0,0 +1,9 @@
+package com.gamesup.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Ventes d'un jeu, d'une catégorie, d'un éditeur ou d'un auteur sur la période demandée, annulations déduites.
+ */
+public record SalesFigure(Long id, String name, long quantity, BigDecimal revenue, long lines) {
+}
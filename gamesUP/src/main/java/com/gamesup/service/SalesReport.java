@@ -0,0 +1,17 @@
+package com.gamesup.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Classement des ventes. linesScanned compte les lignes lues dans la projection (les segments hors période
+ * ne sont pas lus) ; tookMs mesure l'agrégation et le regroupement.
+ */
+public record SalesReport(SalesAnalyticsService.Dimension by,
+                          SalesAnalyticsService.Sort sort,
+                          LocalDateTime from,
+                          LocalDateTime to,
+                          long linesScanned,
+                          double tookMs,
+                          List<SalesFigure> figures) {
+}
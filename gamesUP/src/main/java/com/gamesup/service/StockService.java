@@ -0,0 +1,22 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.PurchaseLine;
+
+import java.util.List;
+
+public interface StockService {
+
+    // ligne de panier (nouvelle ou fusionnée, quantité déjà à jour) et quantité qui vient de lui être ajoutée
+    public record Addition(PurchaseLine purchaseLine, int added) {
+    }
+
+    public void reserve(PurchaseLine purchaseLine);
+    public void reserveAll(long gameID, List<Addition> additions);
+    public void reserveAdditions(List<Addition> additions);
+    public void release(long purchaseLineID);
+    public void hold(List<PurchaseLine> purchaseLines);
+    public void commit(List<PurchaseLine> purchaseLines);
+    public void restock(List<PurchaseLine> purchaseLines);
+    public void releaseAll(List<PurchaseLine> purchaseLines);
+    public int releaseExpired();
+}
@@ -0,0 +1,288 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.PurchaseLine;
+import com.gamesup.entity.StockReservation;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.StockReservationDAO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Réservation de stock sans verrou pessimiste : chaque mouvement est un UPDATE conditionnel sur la ligne Game
+ * (cf. GameDAO), la base garantit donc qu'on ne descend jamais sous zéro même avec beaucoup de paniers en parallèle.
+ * Disponible = stock - reserved.
+ */
+@Service
+public class StockServiceImpl implements StockService {
+
+    @Autowired
+    private GameDAO gameDAO;
+
+    @Autowired
+    private StockReservationDAO stockReservationDAO;
+
+    @Autowired
+    private GameService gameService;
+
+    // échéance des réservations d'un purchase payé : tenues jusqu'au commit, jamais libérées par releaseExpired
+    private static final LocalDateTime HELD = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    @Value("${stock.reservation.ttl-ms}")
+    private long reservationTtlMillis;
+
+    @Override
+    @Transactional
+    public void reserve(PurchaseLine purchaseLine) {
+        if (purchaseLine.getQuantity() <= 0) {
+            throw new IllegalArgumentException("La quantité doit être positive");
+        }
+        reserve(purchaseLine, LocalDateTime.now().plusNanos(reservationTtlMillis * 1_000_000));
+    }
+
+    /**
+     * Ajouts d'un même jeu (lot d'une vente flash), au plus un par ligne : comme reserveAdditions, une ligne qui a
+     * encore sa réservation n'en réserve que le complément et une autre sa quantité entière, mais en un seul UPDATE
+     * de la ligne Game pour le total ; OutOfStockException pour tout le lot si le total n'est plus disponible.
+     */
+    @Override
+    @Transactional
+    public void reserveAll(long gameID, List<Addition> additions) {
+        Map<Long, StockReservation> reservations = reservationsByLine(additions.stream()
+                .filter(a -> a.added() < a.purchaseLine().getQuantity()).map(Addition::purchaseLine).toList());
+        int total = 0;
+        for (Addition addition : additions) {
+            if (addition.added() <= 0) {
+                throw new IllegalArgumentException("La quantité doit être positive");
+            }
+            total += reservations.containsKey(addition.purchaseLine().getId())
+                    ? addition.added() : addition.purchaseLine().getQuantity();
+        }
+        if (gameDAO.reserve(gameID, total) == 0) {
+            throw new OutOfStockException(gameID, total);
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(reservationTtlMillis * 1_000_000);
+        List<StockReservation> created = new ArrayList<>();
+        for (Addition addition : additions) {
+            PurchaseLine purchaseLine = addition.purchaseLine();
+            StockReservation reservation = reservations.get(purchaseLine.getId());
+            if (reservation == null) {
+                reservation = new StockReservation();
+                reservation.setPurchaseLine(purchaseLine);
+                reservation.setGame(purchaseLine.getGame());
+                created.add(reservation);
+            }
+            reservation.setQuantity(purchaseLine.getQuantity());
+            reservation.setExpiresAt(expiresAt);
+        }
+        stockReservationDAO.saveAll(created);
+    }
+
+    /**
+     * Lignes d'un ajout au panier, au plus une par jeu. Une ligne fusionnée qui a encore sa réservation n'en réserve
+     * que le complément (la réservation grandit et repart pour un TTL) ; une ligne nouvelle, ou dont la réservation
+     * a expiré, réserve sa quantité entière. Jeux pris dans l'ordre des ids : deux paniers qui se croisent
+     * verrouillent les lignes Game dans le même ordre. OutOfStockException pour tout l'ajout si un jeu manque.
+     */
+    @Override
+    @Transactional
+    public void reserveAdditions(List<Addition> additions) {
+        // ligne fusionnée : elle avait déjà une quantité avant l'ajout
+        List<Long> mergedIDs = additions.stream().filter(a -> a.added() < a.purchaseLine().getQuantity())
+                .map(a -> a.purchaseLine().getId()).toList();
+        Map<Long, StockReservation> reservations = new HashMap<>();
+        if (!mergedIDs.isEmpty()) {
+            for (StockReservation reservation : stockReservationDAO.findByPurchaseLineIdIn(mergedIDs)) {
+                reservations.put(reservation.getPurchaseLine().getId(), reservation);
+            }
+        }
+        LocalDateTime expiresAt = LocalDateTime.now().plusNanos(reservationTtlMillis * 1_000_000);
+        List<StockReservation> created = new ArrayList<>();
+        List<Addition> sorted = additions.stream()
+                .sorted(Comparator.comparing((Addition a) -> a.purchaseLine().getGame().getId())).toList();
+        for (Addition addition : sorted) {
+            PurchaseLine purchaseLine = addition.purchaseLine();
+            if (addition.added() <= 0) {
+                throw new IllegalArgumentException("La quantité doit être positive");
+            }
+            long gameID = purchaseLine.getGame().getId();
+            StockReservation reservation = reservations.get(purchaseLine.getId());
+            int quantity = reservation == null ? purchaseLine.getQuantity() : addition.added();
+            if (gameDAO.reserve(gameID, quantity) == 0) {
+                throw new OutOfStockException(gameID, quantity);
+            }
+            if (reservation == null) {
+                reservation = new StockReservation();
+                reservation.setPurchaseLine(purchaseLine);
+                reservation.setGame(purchaseLine.getGame());
+                created.add(reservation);
+            }
+            // entité gérée : les réservations fusionnées partent en un UPDATE groupé au flush
+            reservation.setQuantity(purchaseLine.getQuantity());
+            reservation.setExpiresAt(expiresAt);
+        }
+        stockReservationDAO.saveAll(created);
+    }
+
+    private void reserve(PurchaseLine purchaseLine, LocalDateTime expiresAt) {
+        long gameID = purchaseLine.getGame().getId();
+        int quantity = purchaseLine.getQuantity();
+        if (gameDAO.reserve(gameID, quantity) == 0) {
+            throw new OutOfStockException(gameID, quantity);
+        }
+        StockReservation reservation = new StockReservation();
+        reservation.setQuantity(quantity);
+        reservation.setExpiresAt(expiresAt);
+        reservation.setPurchaseLine(purchaseLine);
+        reservation.setGame(purchaseLine.getGame());
+        stockReservationDAO.save(reservation);
+    }
+
+    @Override
+    @Transactional
+    public void release(long purchaseLineID) {
+        stockReservationDAO.findByPurchaseLineId(purchaseLineID).ifPresent(this::releaseOnce);
+    }
+
+    /**
+     * Au paiement : prolonge les réservations des lignes jusqu'au commit (traité plus tard par OrderProcessingService)
+     * et re-réserve les lignes dont la réservation a expiré ; s'il n'y a plus de stock pour l'une d'elles,
+     * OutOfStockException et tout le paiement est annulé.
+     */
+    @Override
+    @Transactional
+    public void hold(List<PurchaseLine> purchaseLines) {
+        List<Long> lineIDs = purchaseLines.stream().map(PurchaseLine::getId).toList();
+        if (lineIDs.isEmpty() || stockReservationDAO.extendAll(lineIDs, HELD) == lineIDs.size()) {
+            return;
+        }
+        Set<Long> reserved = new HashSet<>();
+        for (StockReservation reservation : stockReservationDAO.findByPurchaseLineIdIn(lineIDs)) {
+            reserved.add(reservation.getPurchaseLine().getId());
+        }
+        for (PurchaseLine purchaseLine : purchaseLines) {
+            if (!reserved.contains(purchaseLine.getId())) {
+                reserve(purchaseLine, HELD);
+            }
+        }
+    }
+
+    /**
+     * Décrémente le stock pour chaque ligne d'une commande payée. Une ligne encore réservée consomme sa réservation
+     * (toujours le cas après hold) ; sinon elle doit retrouver du stock disponible, ou OutOfStockException.
+     * Une réservation supprimée que Game.reserved ne couvre pas annule la transaction (IllegalStateException).
+     */
+    @Override
+    @Transactional
+    public void commit(List<PurchaseLine> purchaseLines) {
+        Map<Long, StockReservation> reservations = reservationsByLine(purchaseLines);
+        Set<Long> changed = new HashSet<>();
+        for (PurchaseLine purchaseLine : purchaseLines) {
+            long gameID = purchaseLine.getGame().getId();
+            int quantity = purchaseLine.getQuantity();
+            Optional<StockReservation> reservation = Optional.ofNullable(reservations.get(purchaseLine.getId()));
+
+            boolean consumed = reservation.isPresent()
+                    && stockReservationDAO.deleteReservation(reservation.get().getId()) == 1;
+            if (consumed) {
+                // réservation supprimée mais Game.reserved ne la couvre plus : on annule tout plutôt que de la perdre
+                if (gameDAO.commitReserved(gameID, quantity) == 0) {
+                    throw new IllegalStateException("Réservation de la ligne " + purchaseLine.getId()
+                            + " absente du stock réservé du jeu " + gameID);
+                }
+            } else if (gameDAO.decrementStock(gameID, quantity) == 0) {
+                throw new OutOfStockException(gameID, quantity);
+            }
+            changed.add(gameID);
+        }
+        changed.forEach(gameService::stockChanged);
+    }
+
+    /**
+     * Commande annulée : une ligne encore réservée libère sa réservation, une ligne déjà sortie du stock y revient.
+     */
+    @Override
+    @Transactional
+    public void restock(List<PurchaseLine> purchaseLines) {
+        Map<Long, StockReservation> reservations = reservationsByLine(purchaseLines);
+        Set<Long> changed = new HashSet<>();
+        for (PurchaseLine purchaseLine : purchaseLines) {
+            StockReservation reservation = reservations.get(purchaseLine.getId());
+            if (reservation == null || !releaseOnce(reservation)) {
+                gameDAO.restock(purchaseLine.getGame().getId(), purchaseLine.getQuantity());
+            }
+            changed.add(purchaseLine.getGame().getId());
+        }
+        changed.forEach(gameService::stockChanged);
+    }
+
+    /**
+     * Commande annulée dont le paiement n'a jamais été appliqué (abandonné) : seules les réservations encore
+     * présentes sont libérées, rien ne revient au stock puisque rien n'en est sorti.
+     */
+    @Override
+    @Transactional
+    public void releaseAll(List<PurchaseLine> purchaseLines) {
+        Set<Long> changed = new HashSet<>();
+        for (StockReservation reservation : reservationsByLine(purchaseLines).values()) {
+            if (releaseOnce(reservation)) {
+                changed.add(reservation.getGame().getId());
+            }
+        }
+        changed.forEach(gameService::stockChanged);
+    }
+
+    /**
+     * Rend au stock disponible les paniers abandonnés.
+     * @return nombre de réservations libérées
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${stock.reservation.sweep-ms}")
+    @Transactional
+    public int releaseExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> expired = stockReservationDAO.findTop500ByExpiresAtBefore(now);
+        int released = 0;
+        for (StockReservation reservation : expired) {
+            // conditionnel : un paiement a pu prolonger la réservation depuis la lecture
+            if (stockReservationDAO.deleteExpired(reservation.getId(), now) == 1) {
+                gameDAO.release(reservation.getGame().getId(), reservation.getQuantity());
+                released++;
+            }
+        }
+        return released;
+    }
+
+    // toutes les réservations des lignes en une requête
+    private Map<Long, StockReservation> reservationsByLine(List<PurchaseLine> purchaseLines) {
+        Map<Long, StockReservation> reservations = new HashMap<>();
+        List<Long> lineIDs = purchaseLines.stream().map(PurchaseLine::getId).toList();
+        if (!lineIDs.isEmpty()) {
+            for (StockReservation reservation : stockReservationDAO.findByPurchaseLineIdIn(lineIDs)) {
+                reservations.put(reservation.getPurchaseLine().getId(), reservation);
+            }
+        }
+        return reservations;
+    }
+
+    // la suppression conditionnelle garantit qu'une réservation n'est rendue qu'une fois (paiement ou expiration)
+    private boolean releaseOnce(StockReservation reservation) {
+        if (stockReservationDAO.deleteReservation(reservation.getId()) == 0) {
+            return false;
+        }
+        gameDAO.release(reservation.getGame().getId(), reservation.getQuantity());
+        return true;
+    }
+}
@@ -2,10 +2,13 @@ package com.gamesup.service;
 
 import com.gamesup.entity.User;
 import com.gamesup.repository.UserDAO;
+import com.gamesup.security.CachingAuthenticationProvider;
+import com.gamesup.security.TokenService;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 //@Service
 //public class UserServiceImpl implements UserService{
@@ -58,6 +61,8 @@ public class UserServiceImpl implements UserService {
 
     @Autowired private UserDAO userDAO;
     @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private TokenService tokenService;
+    @Autowired private CachingAuthenticationProvider authenticationProvider;
 
     @Override
     public User connexion(String email, String rawPassword) {
@@ -76,10 +81,14 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public void updateRole(long userID, User.Role newRole) {
         User user = userDAO.findById(userID).orElseThrow();
-        user.setRole(newRole);
-        userDAO.save(user);
+        userDAO.updateRole(userID, newRole);
+        // les jetons et identifiants en cache portent l'ancien rôle ; un jeton émis après le changement porte
+        // la nouvelle époque et reste valide, même émis dans la même milliseconde
+        tokenService.revokeAllFor(user.getEmail(), userDAO.findTokenEpochById(userID));
+        authenticationProvider.evict(user.getEmail());
     }
 
     // Optionnel : évite les effets de bord en tests
@@ -0,0 +1,13 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.User;
+
+/**
+ * Utilisateur tel que renvoyé par l'API : jamais le mot de passe (même haché), jamais les collections.
+ */
+public record UserView(Long id, String email, User.Role role) {
+
+    public static UserView of(User user) {
+        return new UserView(user.getId(), user.getEmail(), user.getRole());
+    }
+}
@@ -0,0 +1,21 @@
+package com.gamesup.service;
+
+import com.gamesup.cache.ContentVersion;
+
+import java.util.List;
+
+public interface WishlistService {
+    public boolean add(long userID, long gameID);
+
+    public boolean remove(long userID, long gameID);
+
+    public List<GameView> listViews(long userID);
+
+    public List<GameView> mostWishedViews(int limit);
+
+    public int wishCount(long gameID);
+
+    public boolean wished(long userID, long gameID);
+
+    public ContentVersion version();
+}
@@ -0,0 +1,92 @@
+package com.gamesup.service;
+
+import com.gamesup.cache.ContentVersion;
+import com.gamesup.repository.UserDAO;
+import com.gamesup.search.WishlistIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Écritures dans la table de jointure, lectures (listes, indicateurs, compteurs) depuis WishlistIndex :
+ * afficher une page de jeux ne coûte aucune requête d'appartenance.
+ */
+@Service
+public class WishlistServiceImpl implements WishlistService {
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private WishlistIndex wishlistIndex;
+
+    /**
+     * @return false si l'utilisateur ou le jeu n'existe pas, ou si le jeu est déjà dans la liste
+     */
+    @Override
+    @Transactional
+    public boolean add(long userID, long gameID) {
+        if (userDAO.addWish(userID, gameID) == 0) {
+            return false;
+        }
+        afterCommit(() -> wishlistIndex.add(userID, gameID));
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public boolean remove(long userID, long gameID) {
+        if (userDAO.removeWish(userID, gameID) == 0) {
+            return false;
+        }
+        afterCommit(() -> wishlistIndex.remove(userID, gameID));
+        return true;
+    }
+
+    @Override
+    public List<GameView> listViews(long userID) {
+        return gameService.detailViews(Arrays.stream(wishlistIndex.games(userID)).boxed().toList(), userID);
+    }
+
+    @Override
+    public List<GameView> mostWishedViews(int limit) {
+        return gameService.detailViews(wishlistIndex.mostWished(limit).stream()
+                .map(WishlistIndex.Entry::gameID).toList(), null);
+    }
+
+    @Override
+    public int wishCount(long gameID) {
+        return wishlistIndex.count(gameID);
+    }
+
+    @Override
+    public boolean wished(long userID, long gameID) {
+        return wishlistIndex.contains(userID, gameID);
+    }
+
+    /**
+     * Change à chaque ajout ou retrait validé, quel que soit l'utilisateur.
+     */
+    @Override
+    public ContentVersion version() {
+        return wishlistIndex.version();
+    }
+
+    // l'index ne doit refléter que des écritures validées
+    private void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
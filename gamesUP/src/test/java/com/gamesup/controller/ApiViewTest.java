@@ -0,0 +1,97 @@
+package com.gamesup.controller;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.service.GameService;
+import com.gamesup.service.UserService;
+import com.gamesup.service.WishlistService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApiViewTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired GameService gameService;
+    @Autowired UserService userService;
+    @Autowired WishlistService wishlistService;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    @Test
+    void gameIsServedFlat() throws Exception {
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", "categorie", null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 20f, 10, author.getId(), category.getId(), publisher.getId());
+        long gameID = gameService.filter(null, null, null, title).get(0).getId();
+        String email = "vue+" + UUID.randomUUID() + "@example.com";
+        userService.inscription(email, "123456");
+        long userID = userService.connexion(email, "123456").getId();
+        wishlistService.add(userID, gameID);
+
+        mockMvc.perform(get("/game/details").param("gameID", String.valueOf(gameID))
+                        .param("userID", String.valueOf(userID)).with(user("client")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value(title))
+                .andExpect(jsonPath("$.categoryID").value(category.getId()))
+                .andExpect(jsonPath("$.categoryName").value("Catégorie"))
+                .andExpect(jsonPath("$.publisherName").value(publisher.getName()))
+                .andExpect(jsonPath("$.ratingHistogram", hasSize(5)))
+                .andExpect(jsonPath("$.wishCount").value(1))
+                .andExpect(jsonPath("$.wished").value(true))
+                .andExpect(jsonPath("$.category").doesNotExist())
+                .andExpect(jsonPath("$.reserved").doesNotExist());
+
+        mockMvc.perform(get("/game/filter").param("name", title).with(user("client")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].authorName").value("Auteur"))
+                .andExpect(jsonPath("$.content[0].wished").doesNotExist());
+    }
+
+    @Test
+    void pageOffsetUsesTheCappedSize() throws Exception {
+        mockMvc.perform(get("/game/filter").param("page", "2").param("size", "1000").with(user("client")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.offset").value(200))
+                .andExpect(jsonPath("$.size").value(100));
+
+        mockMvc.perform(get("/review/list").param("page", "3").param("size", "0").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.offset").value(3))
+                .andExpect(jsonPath("$.size").value(1));
+    }
+
+    @Test
+    void loginNeverReturnsThePassword() throws Exception {
+        String email = "vue+" + UUID.randomUUID() + "@example.com";
+        userService.inscription(email, "123456");
+
+        mockMvc.perform(get("/login").param("email", email).param("password", "123456").with(user("client")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.email").value(email))
+                .andExpect(jsonPath("$.role").value("CUSTOMER"))
+                .andExpect(jsonPath("$.*", hasSize(3)))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+}
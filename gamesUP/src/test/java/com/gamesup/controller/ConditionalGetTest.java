@@ -0,0 +1,124 @@
+package com.gamesup.controller;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.User;
+import com.gamesup.metrics.SqlStatementScope;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.UserDAO;
+import com.gamesup.service.GameService;
+import com.gamesup.service.WishlistService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired GameService gameService;
+    @Autowired WishlistService wishlistService;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    Author author;
+    Category category;
+    Publisher publisher;
+    long gameID;
+
+    @BeforeEach
+    void seed() {
+        author = authorDAO.save(new Author(null, "Auteur", null));
+        category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        gameID = addGame();
+    }
+
+    @Test
+    void unchangedGameIsAnswered304WithoutSql() throws Exception {
+        MvcResult first = mockMvc.perform(details())
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            MvcResult second = mockMvc.perform(details().header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andReturn();
+            assertEquals(0, second.getResponse().getContentLength());
+            assertEquals(0, scope.statements());
+        }
+
+        // une écriture sur le jeu change son ETag
+        gameService.update(gameID, "Renommé " + UUID.randomUUID(), 25f, 5, author.getId(), category.getId(), publisher.getId());
+        MvcResult changed = mockMvc.perform(details().header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void wishChangesTheDetailETag() throws Exception {
+        String etag = mockMvc.perform(details()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        User user = new User();
+        user.setEmail("etag+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        long userID = userDAO.save(user).getId();
+
+        wishlistService.add(userID, gameID);
+        mockMvc.perform(details().header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+    }
+
+    @Test
+    void filterIsConditionalOnTheWholeCatalog() throws Exception {
+        MvcResult first = mockMvc.perform(filter()).andExpect(status().isOk()).andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        String lastModified = first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+        assertNotNull(lastModified);
+
+        mockMvc.perform(filter().header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        mockMvc.perform(filter().header(HttpHeaders.IF_MODIFIED_SINCE, lastModified)).andExpect(status().isNotModified());
+
+        // n'importe quel jeu ajouté change le catalogue
+        addGame();
+        mockMvc.perform(filter().header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isOk());
+    }
+
+    private MockHttpServletRequestBuilder details() {
+        return get("/game/details").param("gameID", String.valueOf(gameID)).with(user("client"));
+    }
+
+    private MockHttpServletRequestBuilder filter() {
+        return get("/game/filter").param("publisher", publisher.getName()).with(user("client"));
+    }
+
+    private long addGame() {
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 20f, 10, author.getId(), category.getId(), publisher.getId());
+        return gameService.filter(null, null, null, title).get(0).getId();
+    }
+}
@@ -0,0 +1,159 @@
+package com.gamesup.datasource;
+
+import com.gamesup.cache.CatalogVersions;
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.service.GameService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// deux bases H2 en mémoire, le réplica est alimenté à la demande par H2ReplicaCopier
+@SpringBootTest(properties = {
+        "datasource.replica.url=jdbc:h2:mem:gamesup-replica-${random.uuid};MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "datasource.replica.max-lag-ms=60000",
+        "datasource.replica.heartbeat-ms=3600000",
+        "datasource.replica.h2-copy-ms=3600000"})
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    @Autowired GameService gameService;
+    @Autowired GameDAO gameDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+    @Autowired H2ReplicaCopier copier;
+    @Autowired ReplicaState replicaState;
+    @Autowired CatalogVersions catalogVersions;
+    @Autowired ReplicaLagMonitor monitor;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired @Qualifier("replicaDataSource") DataSource replicaDataSource;
+
+    JdbcTemplate replica;
+    Author author;
+    Category category;
+    Publisher publisher;
+    long gameID;
+    String title;
+
+    @BeforeEach
+    void seed() {
+        replica = new JdbcTemplate(replicaDataSource);
+        author = authorDAO.save(new Author(null, "Auteur", null));
+        category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 20f, 10, author.getId(), category.getId(), publisher.getId());
+        gameID = gameService.filter(null, null, null, title).get(0).getId();
+        replicate();
+    }
+
+    @AfterEach
+    void logout() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsReadTheReplica() {
+        assertEquals("Réplica", readOnlyTitle());
+        // transaction d'écriture, et transactions ouvertes d'office par Spring Data : primaire
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        assertEquals(title, readWrite.execute(status -> gameDAO.findById(gameID).orElseThrow().getTitle()));
+        assertEquals(title, gameDAO.findById(gameID).orElseThrow().getTitle());
+    }
+
+    @Test
+    void laggingReplicaIsBypassed() {
+        replica.update("update replica_heartbeat set written_at = ? where id = 1", System.currentTimeMillis() - 120_000);
+        monitor.tick();
+        assertEquals(title, readOnlyTitle());
+
+        // le battement écrit au passage précédent arrive avec la copie suivante
+        replicate();
+        assertEquals("Réplica", readOnlyTitle());
+    }
+
+    @Test
+    void writersReadTheirOwnWritesUntilTheReplicaCatchesUp() {
+        loginAs("alice");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> gameDAO.restock(gameID, 1));
+        assertEquals(title, readOnlyTitle());
+
+        loginAs("bob");
+        assertEquals("Réplica", readOnlyTitle());
+
+        replicate();
+        loginAs("alice");
+        assertEquals("Réplica", readOnlyTitle());
+    }
+
+    @Test
+    void catalogCacheWaitsForTheReplicaToHaveTheLastCatalogWrite() {
+        // réplica dans les temps (battement récent) mais sans l'écriture d'alice : l'entrée remplie pour bob
+        // serait ensuite servie à tout le monde, alice comprise
+        String renamed = "Renommé " + UUID.randomUUID();
+        loginAs("alice");
+        gameService.update(gameID, renamed, 20f, 10, author.getId(), category.getId(), publisher.getId());
+
+        loginAs("bob");
+        assertEquals(renamed, gameService.detailView(gameID, null).title());
+        assertEquals(renamed, gameService.filterViews(null, null, publisher.getName(), null, 0, 20, "id", null)
+                .content().get(0).title());
+        loginAs("alice");
+        assertEquals(renamed, gameService.detailView(gameID, null).title());
+
+        // lu sur le primaire sans avoir écrit : bob n'y est pas retenu
+        loginAs("bob");
+        assertTrue(replicaState.readable("bob"));
+        assertEquals("Réplica", readOnlyTitle());
+    }
+
+    @Test
+    void catalogMissReadsACaughtUpReplicaWithoutPinningTheReader() {
+        // battement postérieur à la dernière écriture du catalogue (l'ajout du seed)
+        replica.update("update replica_heartbeat set written_at = ? where id = 1",
+                Math.max(System.currentTimeMillis(), catalogVersions.catalog().modifiedAt() + 1));
+        monitor.tick();
+
+        loginAs("bob");
+        assertEquals("Réplica", gameService.detailView(gameID, null).title());
+        assertTrue(replicaState.readable("bob"));
+        assertEquals("Réplica", readOnlyTitle());
+    }
+
+    // copie du primaire, puis titre modifié sur le réplica seulement pour savoir d'où vient une lecture
+    private void replicate() {
+        copier.copy();
+        replica.update("update game set title = ? where id = ?", "Réplica", gameID);
+    }
+
+    private String readOnlyTitle() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> gameDAO.findById(gameID).orElseThrow().getTitle());
+    }
+
+    private static void loginAs(String user) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+}
@@ -0,0 +1,77 @@
+package com.gamesup.entity;
+
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.PublisherDAO;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class EntityIdentityTest {
+
+    @Autowired GameDAO gameDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+    @Autowired EntityManager entityManager;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void equalityFollowsTheIdOnly() {
+        Author author = new Author(null, "Auteur", null);
+        Author twin = new Author(null, "Auteur", null);
+        // non persistées : seule l'instance elle-même lui est égale
+        assertNotEquals(author, twin);
+        assertEquals(author, author);
+
+        Set<Author> set = new HashSet<>();
+        set.add(author);
+        authorDAO.save(author);
+        // le hashCode ne dépend pas de l'id : l'entité reste trouvable une fois l'id attribué
+        assertTrue(set.contains(author));
+
+        Author loaded = authorDAO.findById(author.getId()).orElseThrow();
+        loaded.setName("Renommé");
+        assertEquals(author, loaded);
+        assertEquals(author.hashCode(), loaded.hashCode());
+    }
+
+    @Test
+    void proxyEqualsLoadedEntityWithoutInitialization() {
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        Game game = new Game();
+        game.setTitle("Jeu " + UUID.randomUUID());
+        game.setCategory(category);
+        game.setPublisher(publisher);
+        long gameID = gameDAO.save(game).getId();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Game loaded = gameDAO.findById(gameID).orElseThrow();
+            Category proxy = loaded.getCategory();
+            assertFalse(Hibernate.isInitialized(proxy));
+            // ni equals (lu depuis l'entité chargée) ni toString ne parcourent les associations
+            assertEquals(category, proxy);
+            assertNotEquals(category, entityManager.getReference(Publisher.class, publisher.getId()));
+            assertFalse(loaded.toString().contains("Catégorie"));
+            assertFalse(Hibernate.isInitialized(proxy));
+            // appelés sur le proxy, equals et hashCode passent par l'entité réelle
+            assertEquals(proxy, category);
+            assertEquals(category.hashCode(), proxy.hashCode());
+        });
+    }
+}
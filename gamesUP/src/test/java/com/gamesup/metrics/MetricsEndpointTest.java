@@ -0,0 +1,62 @@
+package com.gamesup.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsEndpointTest {
+
+    @Autowired MockMvc mockMvc;
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void prometheusEndpointExposesRouteSqlPoolHibernateAndCacheMetrics() throws Exception {
+        String token = login();
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/game/filter").param("name", "absent").header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertTrue(scrape.matches("(?s).*http_server_requests_seconds_bucket\\{[^}]*uri=\"/game/filter\".*"),
+                "histogramme des latences par route");
+        assertTrue(scrape.contains("gamesup_http_sql_statements{method=\"GET\",uri=\"/game/filter\",quantile=\"0.99\"}"), "SQL par route");
+        assertTrue(scrape.contains("gamesup_http_sql_time_seconds_count{method=\"GET\",uri=\"/game/filter\"}"), "temps SQL par route");
+        assertTrue(scrape.contains("gamesup_sql_statements_seconds_count"), "exécutions SQL globales");
+        assertTrue(scrape.contains("hikaricp_connections_active"), "pool de connexions");
+        assertTrue(scrape.contains("hibernate_"), "statistiques Hibernate");
+        assertTrue(scrape.contains("gamesup_cache_hits_total{cache=\"catalog.pages\"}"), "caches");
+        assertTrue(scrape.contains("gamesup_cache_hit_ratio{cache=\"credentials\"}"), "caches");
+    }
+
+    @Test
+    void scrapeRequiresAdminButHealthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    private String login() throws Exception {
+        String body = mockMvc.perform(post("/auth/token").param("email", "admin@gamesup.com").param("password", "123456"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+}
@@ -0,0 +1,170 @@
+package com.gamesup.ratelimit;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.User;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.UserDAO;
+import com.gamesup.service.GameService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = {
+        "ratelimit.max-keys=50",
+        "ratelimit.routes.signup.capacity=2",
+        "ratelimit.routes.signup.period=1h",
+        "ratelimit.routes.review-add.capacity=1",
+        "ratelimit.routes.review-add.period=1h"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdmissionControlTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired AdmissionControl admissionControl;
+    @Autowired MeterRegistry registry;
+    @Autowired GameService gameService;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    @BeforeEach
+    void forgetClients() {
+        // tous les seaux sont pleins deux heures plus tard
+        admissionControl.sweep(System.nanoTime() + TimeUnit.HOURS.toNanos(2));
+    }
+
+    @Test
+    void signupIsLimitedPerClientIp() throws Exception {
+        double rejectedBefore = rejected("signup");
+        assertNotEquals(429, mockMvc.perform(signup("10.0.0.1")).andReturn().getResponse().getStatus());
+        assertNotEquals(429, mockMvc.perform(signup("10.0.0.1")).andReturn().getResponse().getStatus());
+
+        MvcResult rejected = mockMvc.perform(signup("10.0.0.1")).andReturn();
+        assertEquals(429, rejected.getResponse().getStatus());
+        // une requête toutes les 30 min une fois la rafale consommée
+        long retryAfter = Long.parseLong(rejected.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(retryAfter > 1700 && retryAfter <= 1800, "Retry-After " + retryAfter);
+        assertEquals("0", rejected.getResponse().getHeader("X-RateLimit-Remaining"));
+        assertEquals(rejectedBefore + 1, rejected("signup"));
+
+        assertNotEquals(429, mockMvc.perform(signup("10.0.0.2")).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void reviewsAreLimitedPerUserNotPerIp() throws Exception {
+        long gameID = game();
+        long userID = newUser();
+        assertEquals(200, mockMvc.perform(review("alice", gameID, userID)).andReturn().getResponse().getStatus());
+        assertEquals(429, mockMvc.perform(review("alice", gameID, userID)).andReturn().getResponse().getStatus());
+        // même IP, autre utilisateur
+        assertEquals(200, mockMvc.perform(review("bob", gameID, userID)).andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    void concurrentClientsNeverGetMoreThanTheBurst() throws Exception {
+        AdmissionControl.Route route = route("review-add");
+        long now = System.nanoTime();
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        if (admissionControl.admit(route, "user:hammer", now).admitted()) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, admitted.get());
+    }
+
+    @Test
+    void trackedClientsAreBoundedAndIdleOnesEvicted() {
+        AdmissionControl.Route route = route("review-add");
+        long now = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            admissionControl.admit(route, "user:" + UUID.randomUUID(), now);
+        }
+        assertEquals(50, admissionControl.keys());
+        // au-delà, les nouveaux clients partagent un seau : un seul passe
+        assertTrue(registry.get("gamesup.ratelimit.overflow").counter().count() >= 150);
+        assertFalse(admissionControl.admit(route, "user:" + UUID.randomUUID(), now).admitted());
+
+        assertEquals(0, admissionControl.sweep(now));
+        assertEquals(50, admissionControl.sweep(now + TimeUnit.HOURS.toNanos(1)));
+        assertEquals(0, admissionControl.keys());
+    }
+
+    private AdmissionControl.Route route(String name) {
+        return admissionControl.route(post(name.equals("signup") ? "/signup" : "/review/add")
+                .buildRequest(new MockServletContext()));
+    }
+
+    private double rejected(String route) {
+        return registry.get("gamesup.ratelimit.requests").tags("route", route, "outcome", "rejected").counter().count();
+    }
+
+    private static MockHttpServletRequestBuilder signup(String ip) {
+        return post("/signup").param("email", "limite+" + UUID.randomUUID() + "@example.com").param("password", "secret")
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                });
+    }
+
+    private static MockHttpServletRequestBuilder review(String name, long gameID, long userID) {
+        return post("/review/add").param("gameID", String.valueOf(gameID)).param("userID", String.valueOf(userID))
+                .param("rating", "5").param("review", "x").with(user(name));
+    }
+
+    private long game() {
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 20f, 10, author.getId(), category.getId(), publisher.getId());
+        return gameService.filter(null, null, null, title).get(0).getId();
+    }
+
+    private long newUser() {
+        User user = new User();
+        user.setEmail("limite+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        return userDAO.save(user).getId();
+    }
+}
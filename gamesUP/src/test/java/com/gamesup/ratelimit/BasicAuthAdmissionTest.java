@@ -0,0 +1,85 @@
+package com.gamesup.ratelimit;
+
+import com.gamesup.security.CachingAuthenticationProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Avec HTTP Basic activé, l'admission par IP passe avant la vérification des identifiants : un client refusé
+ * ne coûte pas de BCrypt (on compte les vérifications qui atteignent le fournisseur d'authentification).
+ */
+@SpringBootTest(properties = {
+        "security.http-basic.enabled=true",
+        "ratelimit.basic-auth.capacity=2",
+        "ratelimit.basic-auth.period=1h",
+        "ratelimit.routes.token.capacity=1",
+        "ratelimit.routes.token.period=1h"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BasicAuthAdmissionTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired AdmissionControl admissionControl;
+    @Autowired CachingAuthenticationProvider authenticationProvider;
+
+    @BeforeEach
+    void forgetClients() {
+        admissionControl.sweep(System.nanoTime() + TimeUnit.HOURS.toNanos(2));
+    }
+
+    @Test
+    void wrongBasicCredentialsAreThrottledBeforeBcrypt() throws Exception {
+        long verified = authenticationProvider.stats().misses();
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/game/filter").with(wrongCredentials()).with(from("10.0.0.1")))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(get("/game/filter").with(wrongCredentials()).with(from("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        assertEquals(verified + 2, authenticationProvider.stats().misses());
+
+        // les autres clients gardent leur seau
+        mockMvc.perform(get("/game/filter").with(wrongCredentials()).with(from("10.0.0.2")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void ipKeyedRouteIsAdmittedBeforeAuthentication() throws Exception {
+        mockMvc.perform(post("/auth/token").with(wrongCredentials()).with(from("10.0.0.3")))
+                .andExpect(status().isUnauthorized());
+        // seau Basic pas encore vide : c'est la route /auth/token qui refuse, sans vérifier les identifiants
+        long verified = authenticationProvider.stats().misses();
+        mockMvc.perform(post("/auth/token").with(wrongCredentials()).with(from("10.0.0.3")))
+                .andExpect(status().isTooManyRequests());
+        assertEquals(verified, authenticationProvider.stats().misses());
+    }
+
+    private static RequestPostProcessor wrongCredentials() {
+        return httpBasic("inconnu+" + UUID.randomUUID() + "@example.com", "mauvais");
+    }
+
+    private static RequestPostProcessor from(String ip) {
+        return request -> {
+            request.setRemoteAddr(ip);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.gamesup.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Le cache d'identifiants évite la lecture en base et le BCrypt pour un client déjà vérifié :
+ * on compte les appels à l'encodeur (les temps sont mesurés par AuthBenchmark, module benchmarks).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CachingAuthenticationProviderTest {
+
+    private static final String ADMIN = "admin@gamesup.com";
+    private static final String PASSWORD = "123456";
+
+    @Autowired CustomUserDetailsService userDetailsService;
+    @Autowired PasswordEncoder passwordEncoder;
+
+    final AtomicInteger bcryptCalls = new AtomicInteger();
+    CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void provider() {
+        PasswordEncoder counting = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return passwordEncoder.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                bcryptCalls.incrementAndGet();
+                return passwordEncoder.matches(rawPassword, encodedPassword);
+            }
+        };
+        DaoAuthenticationProvider basic = new DaoAuthenticationProvider(counting);
+        basic.setUserDetailsService(userDetailsService);
+        provider = new CachingAuthenticationProvider(basic, 100, 60_000);
+    }
+
+    @Test
+    void verifiedCredentialsSkipBcrypt() {
+        Authentication first = provider.authenticate(credentials(PASSWORD));
+        assertEquals(1, bcryptCalls.get());
+
+        for (int i = 0; i < 5; i++) {
+            Authentication cached = provider.authenticate(credentials(PASSWORD));
+            assertTrue(cached.isAuthenticated());
+            assertEquals(first.getAuthorities(), cached.getAuthorities());
+            assertNull(cached.getCredentials());
+        }
+        assertEquals(1, bcryptCalls.get());
+        assertEquals(5, provider.stats().hits());
+    }
+
+    @Test
+    void wrongPasswordAndEvictionGoBackToBcrypt() {
+        provider.authenticate(credentials(PASSWORD));
+
+        // un autre mot de passe ne profite pas de l'entrée en cache
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(credentials("mauvais")));
+        assertEquals(2, bcryptCalls.get());
+
+        provider.evict(ADMIN);
+        provider.authenticate(credentials(PASSWORD));
+        assertEquals(3, bcryptCalls.get());
+    }
+
+    private static UsernamePasswordAuthenticationToken credentials(String password) {
+        return new UsernamePasswordAuthenticationToken(ADMIN, password);
+    }
+}
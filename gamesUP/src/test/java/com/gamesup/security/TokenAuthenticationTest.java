@@ -0,0 +1,87 @@
+package com.gamesup.security;
+
+import com.gamesup.entity.User;
+import com.gamesup.repository.UserDAO;
+import com.gamesup.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenAuthenticationTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired UserService userService;
+    @Autowired UserDAO userDAO;
+    @Autowired TokenService tokenService;
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void tokenGrantsAccessUntilLogout() throws Exception {
+        String token = login("admin@gamesup.com", "123456");
+
+        mockMvc.perform(get("/game/cache/stats").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/game/cache/stats").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void missingWrongOrTamperedTokenIsRejected() throws Exception {
+        mockMvc.perform(get("/game/filter")).andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/auth/token").param("email", "admin@gamesup.com").param("password", "faux"))
+                .andExpect(status().isUnauthorized());
+
+        String token = login("admin@gamesup.com", "123456");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        mockMvc.perform(get("/game/filter").header("Authorization", "Bearer " + tampered))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void roleChangeRevokesExistingTokens() throws Exception {
+        String email = "role+" + UUID.randomUUID() + "@example.com";
+        userService.inscription(email, "123456");
+        String customerToken = login(email, "123456");
+
+        mockMvc.perform(get("/game/cache/stats").header("Authorization", "Bearer " + customerToken))
+                .andExpect(status().isForbidden());
+
+        User user = userDAO.findByEmail(email).orElseThrow();
+        userService.updateRole(user.getId(), User.Role.ADMIN);
+        mockMvc.perform(get("/game/filter").header("Authorization", "Bearer " + customerToken))
+                .andExpect(status().isUnauthorized());
+
+        // émis aussitôt après, même milliseconde comprise : la nouvelle époque est acceptée
+        String adminToken = login(email, "123456");
+        mockMvc.perform(get("/game/cache/stats").header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        // émis depuis une lecture antérieure au changement : ancien rôle, ancienne époque, refusé
+        mockMvc.perform(get("/game/filter").header("Authorization", "Bearer " + tokenService.issue(user)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String login(String email, String password) throws Exception {
+        String body = mockMvc.perform(post("/auth/token").param("email", email).param("password", password))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+}
@@ -0,0 +1,137 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.Purchase;
+import com.gamesup.entity.PurchaseLine;
+import com.gamesup.entity.User;
+import com.gamesup.metrics.SqlStatementScope;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.PurchaseLineDAO;
+import com.gamesup.repository.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ActiveBasketTest {
+
+    @Autowired PurchaseService purchaseService;
+    @Autowired GameService gameService;
+    @Autowired PurchaseDAO purchaseDAO;
+    @Autowired PurchaseLineDAO purchaseLineDAO;
+    @Autowired GameDAO gameDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    long userID;
+    long gameID;
+
+    @BeforeEach
+    void seed() {
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 10f, 1000, author.getId(), category.getId(), publisher.getId());
+        gameID = gameService.filter(null, null, null, title).get(0).getId();
+
+        User user = new User();
+        user.setEmail("actif+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        userID = userDAO.save(user).getId();
+    }
+
+    @Test
+    void paidBasketIsReplacedByANewOne() {
+        purchaseService.addToBasket(userID, gameID, 1);
+        long first = purchaseDAO.findActiveBasketId(userID).orElseThrow();
+        purchaseService.pay(first);
+        assertTrue(purchaseDAO.findActiveBasketId(userID).isEmpty());
+
+        // l'id en cache désigne le panier payé : l'ajout ne doit pas le toucher
+        purchaseService.addToBasket(userID, gameID, 2);
+        long second = purchaseDAO.findActiveBasketId(userID).orElseThrow();
+        assertNotEquals(first, second);
+        assertEquals(new BigDecimal("10.00"), purchaseService.computeTotalPrice(first));
+        assertEquals(1, purchaseLineDAO.findByPurchaseId(first).size());
+        assertEquals(new BigDecimal("20.00"), purchaseService.computeTotalPrice(second));
+    }
+
+    @Test
+    void concurrentFirstAddsShareOneBasket() throws Exception {
+        int clients = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> calls = new ArrayList<>();
+        try {
+            for (int i = 0; i < clients; i++) {
+                calls.add(pool.submit(() -> {
+                    start.await();
+                    purchaseService.addToBasket(userID, gameID, 1);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Purchase> baskets = purchaseDAO.findByUserIdAndStatusOrderByCreatedAtDesc(userID, Purchase.OrderStatus.BASKET);
+        assertEquals(1, baskets.size());
+        // même jeu : les ajouts concurrents fusionnent dans une seule ligne, sans en perdre aucun
+        assertEquals(1, baskets.get(0).getLineCount());
+        assertEquals(clients, baskets.get(0).getItemCount());
+        List<PurchaseLine> lines = purchaseLineDAO.findByPurchaseId(baskets.get(0).getId());
+        assertEquals(1, lines.size());
+        assertEquals(clients, lines.get(0).getQuantity());
+    }
+
+    @Test
+    void otherIntegrityErrorsAreNotReplayed() {
+        // utilisateur inconnu : la clé étrangère refuse le panier, rien à rejouer
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            assertThrows(DataIntegrityViolationException.class, () -> purchaseService.addToBasket(-1, gameID, 1));
+            // jeux, panier actif, INSERT refusé, puis la vérification du panier actif ; pas de second essai
+            assertEquals(4, scope.statements());
+        }
+        assertEquals(0, gameDAO.findById(gameID).orElseThrow().getReserved());
+    }
+
+    @Test
+    void constraintRejectsASecondActiveBasket() {
+        purchaseService.addToBasket(userID, gameID, 1);
+
+        Purchase duplicate = new Purchase();
+        duplicate.setUser(userDAO.getReferenceById(userID));
+        duplicate.setActiveBasketOf(userID);
+        duplicate.setCreatedAt(LocalDateTime.now());
+        assertThrows(DataIntegrityViolationException.class, () -> purchaseDAO.saveAndFlush(duplicate));
+    }
+}
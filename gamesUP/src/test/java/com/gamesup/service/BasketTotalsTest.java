@@ -0,0 +1,160 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.Purchase;
+import com.gamesup.entity.PurchaseLine;
+import com.gamesup.entity.User;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.PurchaseLineDAO;
+import com.gamesup.repository.StockReservationDAO;
+import com.gamesup.repository.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BasketTotalsTest {
+
+    @Autowired PurchaseService purchaseService;
+    @Autowired GameService gameService;
+    @Autowired PurchaseDAO purchaseDAO;
+    @Autowired PurchaseLineDAO purchaseLineDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired GameDAO gameDAO;
+    @Autowired StockReservationDAO stockReservationDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    long userID;
+    long cheapGame;
+    long expensiveGame;
+
+    @BeforeEach
+    void seed() {
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        cheapGame = addGame(5.10f, author, category, publisher);
+        expensiveGame = addGame(12.99f, author, category, publisher);
+
+        User user = new User();
+        user.setEmail("panier+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        userID = userDAO.save(user).getId();
+    }
+
+    @Test
+    void totalsFollowAddsAndRemovals() {
+        purchaseService.addToBasket(userID, expensiveGame, 3);
+        purchaseService.addToBasket(userID, cheapGame, 1);
+
+        Purchase basket = basket();
+        assertEquals(new BigDecimal("44.07"), purchaseService.computeTotalPrice(basket.getId()));
+        assertEquals(2, basket.getLineCount());
+        assertEquals(4, basket.getItemCount());
+
+        long expensiveLine = purchaseLineDAO.findByPurchaseId(basket.getId()).stream()
+                .filter(l -> l.getGame().getId() == expensiveGame).findFirst().orElseThrow().getId();
+        purchaseService.removeFromBasket(expensiveLine);
+        purchaseService.removeFromBasket(expensiveLine);
+
+        basket = basket();
+        assertEquals(new BigDecimal("5.10"), purchaseService.computeTotalPrice(basket.getId()));
+        assertEquals(1, basket.getLineCount());
+        assertEquals(1, basket.getItemCount());
+    }
+
+    @Test
+    void addsOfTheSameGameMergeIntoOneLine() {
+        purchaseService.addToBasket(userID, expensiveGame, 1);
+        purchaseService.addAllToBasket(userID, List.of(new BasketItem(expensiveGame, 2), new BasketItem(cheapGame, 1),
+                new BasketItem(expensiveGame, 1)));
+
+        Purchase basket = basket();
+        List<PurchaseLine> lines = purchaseLineDAO.findByPurchaseId(basket.getId());
+        assertEquals(2, lines.size());
+        PurchaseLine expensive = lines.stream().filter(l -> l.getGame().getId() == expensiveGame).findFirst().orElseThrow();
+        assertEquals(4, expensive.getQuantity());
+        assertEquals(4, stockReservationDAO.findByPurchaseLineId(expensive.getId()).orElseThrow().getQuantity());
+        assertEquals(4, gameDAO.findById(expensiveGame).orElseThrow().getReserved());
+        assertEquals(new BigDecimal("57.06"), purchaseService.computeTotalPrice(basket.getId()));
+        assertEquals(2, basket.getLineCount());
+        assertEquals(5, basket.getItemCount());
+        assertEquals(0, purchaseService.reconcileTotals());
+    }
+
+    @Test
+    void batchIsAllOrNothing() {
+        purchaseService.addToBasket(userID, cheapGame, 1);
+        assertThrows(OutOfStockException.class, () -> purchaseService.addAllToBasket(userID,
+                List.of(new BasketItem(cheapGame, 2), new BasketItem(expensiveGame, 51))));
+        assertThrows(NoSuchElementException.class, () -> purchaseService.addAllToBasket(userID,
+                List.of(new BasketItem(cheapGame, 2), new BasketItem(-1, 1))));
+
+        Purchase basket = basket();
+        assertEquals(1, basket.getItemCount());
+        assertEquals(new BigDecimal("5.10"), purchaseService.computeTotalPrice(basket.getId()));
+        assertEquals(1, purchaseLineDAO.findByPurchaseId(basket.getId()).get(0).getQuantity());
+        assertEquals(1, gameDAO.findById(cheapGame).orElseThrow().getReserved());
+        assertEquals(0, gameDAO.findById(expensiveGame).orElseThrow().getReserved());
+    }
+
+    @Test
+    void paidOrderKeepsItsLines() {
+        purchaseService.addToBasket(userID, expensiveGame, 2);
+        long purchaseID = basket().getId();
+        long lineID = purchaseLineDAO.findByPurchaseId(purchaseID).get(0).getId();
+        purchaseService.pay(purchaseID);
+
+        assertThrows(IllegalStateException.class, () -> purchaseService.removeFromBasket(lineID));
+        assertTrue(purchaseLineDAO.findById(lineID).isPresent());
+        assertEquals(new BigDecimal("25.98"), purchaseService.computeTotalPrice(purchaseID));
+        assertEquals(2, gameDAO.findById(expensiveGame).orElseThrow().getReserved());
+
+        // l'ajout suivant ne touche pas la commande payée
+        purchaseService.addToBasket(userID, expensiveGame, 1);
+        assertNotEquals(purchaseID, basket().getId());
+        assertEquals(new BigDecimal("25.98"), purchaseService.computeTotalPrice(purchaseID));
+    }
+
+    @Test
+    void reconciliationRepairsDriftedTotals() {
+        purchaseService.addToBasket(userID, expensiveGame, 2);
+        Purchase basket = basket();
+        basket.setTotalAmount(new BigDecimal("1.00"));
+        basket.setItemCount(9);
+        purchaseDAO.save(basket);
+
+        assertTrue(purchaseService.reconcileTotals() >= 1);
+        assertEquals(new BigDecimal("25.98"), purchaseService.computeTotalPrice(basket.getId()));
+        assertEquals(2, basket().getItemCount());
+        assertEquals(0, purchaseService.reconcileTotals());
+    }
+
+    private Purchase basket() {
+        return purchaseDAO.findByUserIdAndStatusOrderByCreatedAtDesc(userID, Purchase.OrderStatus.BASKET).get(0);
+    }
+
+    private long addGame(float price, Author author, Category category, Publisher publisher) {
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, price, 50, author.getId(), category.getId(), publisher.getId());
+        return gameService.filter(null, null, null, title).get(0).getId();
+    }
+}
@@ -0,0 +1,101 @@
+package com.gamesup.service;
+
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.search.SearchQuery;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "catalog.import.batch-size=2")
+@ActiveProfiles("test")
+class CatalogImportTest {
+
+    @Autowired CatalogImportService catalogImportService;
+    @Autowired GameService gameService;
+    @Autowired CategoryDAO categoryDAO;
+
+    @Test
+    void importsAcrossBatchesAndDedupesReferences() throws Exception {
+        String marker = "m" + UUID.randomUUID().toString().replace("-", "");
+        String json = """
+                [
+                  {"game_id": 1, "name": "Alpha %1$s", "categories": ["Cat %1$s", "Party"], "mechanics": ["Trading"],
+                   "min_players": 2, "max_players": 4, "year_published": 2017, "average_rating": 4.4},
+                  {"game_id": 2, "name": "Beta %1$s", "categories": ["Cat %1$s"], "author": "Auteur %1$s", "price": 12.5, "stock": 3},
+                  {"game_id": 3, "name": "", "categories": ["Ignorée %1$s"]},
+                  {"game_id": 4, "name": "Gamma %1$s", "categories": ["Autre %1$s"], "author": "Auteur %1$s"}
+                ]
+                """.formatted(marker);
+
+        ImportReport report = catalogImportService.importGames(stream(json));
+
+        assertEquals(3, report.games());
+        assertEquals(1, report.skipped());
+        assertEquals(2, report.categories());
+        assertEquals(1, report.authors());
+
+        // l'index de recherche est reconstruit après l'import
+        List<GameView> games = gameService.searchViews(new SearchQuery(marker, true, "Cat " + marker, null, null, null, null, false, 20), null);
+        assertEquals(2, games.size());
+        GameView beta = games.stream().filter(g -> g.title().startsWith("Beta")).findFirst().orElseThrow();
+        assertEquals(12.5f, beta.price());
+        assertEquals(3, beta.stock());
+        assertEquals("Auteur " + marker, beta.authorName());
+
+        assertEquals(3, gameService.searchViews(new SearchQuery(marker, true, null, null, null, null, null, false, 20), null).size());
+
+        // un second import réutilise les références existantes
+        long categoriesBefore = categoryDAO.count();
+        ImportReport again = catalogImportService.importGames(stream(json));
+        assertEquals(0, again.categories());
+        assertEquals(0, again.authors());
+        assertEquals(categoriesBefore, categoryDAO.count());
+    }
+
+    @Test
+    void importsTheKnnSyntheticDataset() throws Exception {
+        try (InputStream in = Files.newInputStream(Path.of("../KNN/synthetic_games.json"))) {
+            ImportReport report = catalogImportService.importGames(in);
+            assertEquals(100, report.games());
+            assertEquals(0, report.skipped());
+        }
+    }
+
+    @Test
+    void failedImportStillRefreshesTheCatalog() {
+        String marker = "m" + UUID.randomUUID().toString().replace("-", "");
+        String longTitle = "Long " + marker + " " + "x".repeat(300);
+        // un lot complet (batch-size=2) validé, puis un JSON coupé
+        String json = """
+                [
+                  {"name": "%2$s"},
+                  {"name": "Delta %1$s", "currency": "EUROS"},
+                  {"name": "Epsilon %1$s"},
+                  {"name": "Zeta
+                """.formatted(marker, longTitle);
+
+        assertThrows(IOException.class, () -> catalogImportService.importGames(stream(json)));
+
+        // le lot validé est visible : index reconstruit malgré l'erreur ; titre tronqué, devise invalide ignorée
+        List<GameView> games = gameService.searchViews(new SearchQuery(marker, true, null, null, null, null, null, false, 20), null);
+        assertEquals(2, games.size());
+        assertTrue(games.stream().anyMatch(g -> g.title().length() == 255 && longTitle.startsWith(g.title())));
+        assertTrue(games.stream().noneMatch(g -> g.title().startsWith("Delta")));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
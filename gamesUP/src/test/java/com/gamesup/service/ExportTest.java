@@ -0,0 +1,176 @@
+package com.gamesup.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.Review;
+import com.gamesup.entity.User;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.ReviewDAO;
+import com.gamesup.repository.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ExportTest {
+
+    @Autowired ExportService exportService;
+    @Autowired ReviewService reviewService;
+    @Autowired PurchaseService purchaseService;
+    @Autowired GameService gameService;
+    @Autowired ReviewDAO reviewDAO;
+    @Autowired PurchaseDAO purchaseDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+    @Autowired ObjectMapper objectMapper;
+    @Autowired MockMvc mockMvc;
+
+    long firstGameID;
+    long secondGameID;
+
+    @BeforeEach
+    void seed() {
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        firstGameID = game(author, category, publisher);
+        secondGameID = game(author, category, publisher);
+    }
+
+    @Test
+    void reviewsAreExportedInIdOrderAndResumable() throws Exception {
+        long afterID = lastReviewID();
+        for (int rating = 1; rating <= 3; rating++) {
+            reviewService.addReview(firstGameID, newUser(), rating, "Avis " + rating);
+        }
+
+        List<JsonNode> all = ndjson(out -> exportService.exportReviews(afterID, Long.MAX_VALUE, out));
+        assertEquals(3, all.size());
+        assertEquals(List.of(1, 2, 3), all.stream().map(node -> node.get("rating").asInt()).toList());
+        assertEquals(firstGameID, all.get(0).get("gameID").asLong());
+        assertEquals("Avis 1", all.get(0).get("comment").asText());
+        assertTrue(all.get(0).get("id").asLong() < all.get(1).get("id").asLong());
+
+        // reprise après le premier avis reçu, et limite
+        long resumeAfter = all.get(0).get("id").asLong();
+        List<JsonNode> rest = ndjson(out -> exportService.exportReviews(resumeAfter, Long.MAX_VALUE, out));
+        assertEquals(List.of(all.get(1), all.get(2)), rest);
+        assertEquals(List.of(all.get(1)), ndjson(out -> exportService.exportReviews(resumeAfter, 1, out)));
+    }
+
+    @Test
+    void onlyPaidPurchasesAreExportedWithTheirLines() throws Exception {
+        long paid = basket(2);
+        purchaseService.pay(paid);
+        long basket = basket(1);
+        long canceled = basket(1);
+        purchaseService.pay(canceled);
+        purchaseService.cancel(canceled);
+        long lastPaid = basket(1);
+        purchaseService.pay(lastPaid);
+
+        List<JsonNode> exported = ndjson(out -> exportService.exportPurchases(paid - 1, Long.MAX_VALUE, out));
+        assertEquals(List.of(paid, lastPaid), exported.stream().map(node -> node.get("id").asLong()).toList());
+        JsonNode first = exported.get(0);
+        assertEquals("PAID", first.get("status").asText());
+        assertEquals(2, first.get("lines").size());
+        assertEquals(firstGameID, first.get("lines").get(0).get("gameID").asLong());
+        assertEquals(secondGameID, first.get("lines").get(1).get("gameID").asLong());
+        assertFalse(first.get("paidAt").isNull());
+        assertTrue(basket < canceled);
+
+        assertEquals(1, ndjson(out -> exportService.exportPurchases(paid - 1, 1, out)).size());
+        assertEquals(List.of(exported.get(1)), ndjson(out -> exportService.exportPurchases(paid, Long.MAX_VALUE, out)));
+    }
+
+    @Test
+    void endpointStreamsNdjson() throws Exception {
+        long afterID = lastReviewID();
+        reviewService.addReview(secondGameID, newUser(), 5, "Parfait");
+
+        MvcResult started = mockMvc.perform(get("/export/reviews").param("afterID", String.valueOf(afterID))
+                        .with(user("admin").roles("ADMIN")))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn();
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        assertEquals("Parfait", objectMapper.readTree(body.strip()).get("comment").asText());
+
+        mockMvc.perform(get("/export/reviews").with(user("client"))).andExpect(status().isForbidden());
+    }
+
+    private interface Export {
+        void to(ByteArrayOutputStream out) throws Exception;
+    }
+
+    private List<JsonNode> ndjson(Export export) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.to(out);
+        List<JsonNode> nodes = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                nodes.add(objectMapper.readTree(line));
+            }
+        }
+        return nodes;
+    }
+
+    private long lastReviewID() {
+        return reviewDAO.findAll().stream().mapToLong(Review::getId).max().orElse(0);
+    }
+
+    private long basket(int lines) {
+        long userID = newUser();
+        purchaseService.addToBasket(userID, firstGameID, 1);
+        if (lines > 1) {
+            purchaseService.addToBasket(userID, secondGameID, 2);
+        }
+        return purchaseDAO.findActiveBasketId(userID).orElseThrow();
+    }
+
+    private long newUser() {
+        User user = new User();
+        user.setEmail("export+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        return userDAO.save(user).getId();
+    }
+
+    private long game(Author author, Category category, Publisher publisher) {
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 15f, 1000, author.getId(), category.getId(), publisher.getId());
+        return gameService.filter(null, null, null, title).get(0).getId();
+    }
+}
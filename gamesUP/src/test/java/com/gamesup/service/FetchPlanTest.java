@@ -0,0 +1,148 @@
+package com.gamesup.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.Purchase;
+import com.gamesup.entity.PurchaseLine;
+import com.gamesup.entity.User;
+import com.gamesup.metrics.SqlStatementScope;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.PurchaseLineDAO;
+import com.gamesup.repository.UserDAO;
+import com.gamesup.search.CatalogSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nombre exact de requêtes SQL par appel de service (compté au niveau JDBC par SqlStatementScope),
+ * cache catalogue désactivé pour mesurer les plans de chargement eux-mêmes. Une association repassée
+ * en EAGER ou un plan oublié ajoute des requêtes et fait échouer le build.
+ */
+@SpringBootTest(properties = "catalog.cache.ttl-ms=0")
+@ActiveProfiles("test")
+class FetchPlanTest {
+
+    @Autowired GameService gameService;
+    @Autowired ReviewService reviewService;
+    @Autowired PurchaseService purchaseService;
+    @Autowired CatalogSearchIndex searchIndex;
+    @Autowired PurchaseDAO purchaseDAO;
+    @Autowired PurchaseLineDAO purchaseLineDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+    @Autowired ObjectMapper objectMapper;
+
+    String marker;
+    List<Long> games = new ArrayList<>();
+    long userID;
+
+    @BeforeEach
+    void seed() {
+        marker = UUID.randomUUID().toString();
+        Author author = authorDAO.save(new Author(null, "Auteur " + marker, null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie " + marker, null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + marker, null));
+        for (int i = 0; i < 5; i++) {
+            String title = "Jeu " + i + " " + marker;
+            gameService.add(title, 10 + i, 100, author.getId(), category.getId(), publisher.getId());
+            games.add(gameService.filter(null, null, null, title).get(0).getId());
+        }
+        User user = new User();
+        user.setEmail("plan+" + marker + "@example.com");
+        user.setPassword("x");
+        userID = userDAO.save(user).getId();
+    }
+
+    @Test
+    void gameReadsFetchReferencesInTheSameQuery() {
+        assertEquals(1, statements(() -> gameService.detail(games.get(0))));
+        assertEquals(1, statements(() -> gameService.filter("Catégorie " + marker, null, null, null)));
+        // page complète : contenu + count
+        assertEquals(2, statements(() -> gameService.filter("Catégorie " + marker, null, null, null, 0, 2, "id")));
+        assertEquals(1, statements(searchIndex::rebuild));
+
+        Game game = gameService.detail(games.get(0));
+        // lecture + merge (select + update) + relecture pour le cache
+        assertEquals(4, statements(() -> gameService.update(game.getId(), "Renommé " + marker, 12, 100,
+                game.getAuthor().getId(), game.getCategory().getId(), game.getPublisher().getId())));
+    }
+
+    @Test
+    void apiViewsAreSingleProjections() throws Exception {
+        assertEquals(1, statements(() -> gameService.detailView(games.get(0), userID)));
+        assertEquals(1, statements(() -> gameService.detailViews(games, null)));
+        assertEquals(2, statements(() -> gameService.filterViews("Catégorie " + marker, null, null, null, 0, 2, "id", userID)));
+
+        reviewService.addReview(games.get(0), userID, 4, "Bien");
+        List<PageResult<?>> page = new ArrayList<>();
+        assertEquals(1, statements(() -> page.add(reviewService.listViews(0, 20))));
+        // pas de graphe à parcourir : le jeu se réduit à son id et son titre
+        String json = objectMapper.writeValueAsString(page.get(0));
+        assertTrue(json.contains("\"gameTitle\":\"Jeu 0 " + marker + "\""));
+        assertFalse(json.contains("Auteur " + marker));
+    }
+
+    @Test
+    void reviewListIsOneStatementWhateverTheGames() throws Exception {
+        for (long game : games) {
+            reviewService.addReview(game, userID, 4, "Bien");
+        }
+        // insert + agrégats + relecture du jeu après commit
+        assertEquals(3, statements(() -> reviewService.addReview(games.get(0), userID, 5, "Top")));
+
+        List<PageResult<?>> page = new ArrayList<>();
+        assertEquals(1, statements(() -> page.add(reviewService.listViews(0, 20))));
+        // le titre de chaque jeu vient de la même requête, sans relecture par jeu
+        String json = objectMapper.writeValueAsString(page.get(0));
+        for (int i = 0; i < games.size(); i++) {
+            assertTrue(json.contains("\"gameTitle\":\"Jeu " + i + " " + marker + "\""));
+        }
+    }
+
+    @Test
+    void basketStatementsDoNotDependOnBasketSize() {
+        // jeux + verrou du panier + lignes existantes + insert ligne + totaux + réservation (update + insert) ;
+        // la 1re fois, recherche et création du panier en plus
+        assertEquals(9, statements(() -> purchaseService.addToBasket(userID, games.get(0), 1)));
+        assertEquals(7, statements(() -> purchaseService.addToBasket(userID, games.get(1), 2)));
+        assertEquals(7, statements(() -> purchaseService.addToBasket(userID, games.get(2), 1)));
+        // fusion avec les trois lignes : les réservations en une requête, lignes et réservations en deux batchs,
+        // seul le stock reste un UPDATE par jeu
+        List<BasketItem> again = games.subList(0, 3).stream().map(id -> new BasketItem(id, 1)).toList();
+        assertEquals(10, statements(() -> purchaseService.addAllToBasket(userID, again)));
+
+        Purchase basket = purchaseDAO.findByUserIdAndStatusOrderByCreatedAtDesc(userID, Purchase.OrderStatus.BASKET).get(0);
+        assertEquals(1, statements(() -> purchaseService.computeTotalPrice(basket.getId())));
+
+        PurchaseLine line = purchaseLineDAO.findByPurchaseId(basket.getId()).get(2);
+        // ligne + réservation (select, delete, update stock) + delete ligne + totaux
+        assertEquals(6, statements(() -> purchaseService.removeFromBasket(line.getId())));
+
+        // transition + lignes + prolongation des réservations + événement ; le stock sort en arrière-plan
+        assertEquals(4, statements(() -> purchaseService.pay(basket.getId())));
+    }
+
+    private static long statements(Runnable call) {
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            call.run();
+            return scope.statements();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.PurchaseLine;
+import com.gamesup.entity.StockReservation;
+import com.gamesup.entity.User;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.PurchaseLineDAO;
+import com.gamesup.repository.StockReservationDAO;
+import com.gamesup.repository.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Jeu très demandé : 64 clients concurrents, 600 ajouts au panier d'une unité chacun (un utilisateur par ajout)
+ * pour 300 exemplaires, par le chemin habituel puis en vente flash. Seules la survente et l'épuisement exact sont
+ * vérifiés ici ; la comparaison des débits est dans FlashSaleBenchmark (module benchmarks).
+ * Contexte et base à part, refermés à la fin : les paniers et réservations créés ne doivent pas gêner les autres tests.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:gamesup-flash-${random.uuid};MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE",
+        "purchase.flash-sale.decision-timeout-ms=10000"})
+@DirtiesContext
+@ActiveProfiles("test")
+class FlashSaleTest {
+
+    private static final int CLIENTS = 64;
+    private static final int ORDERS = 600;
+    private static final int STOCK = 300;
+
+    @Autowired PurchaseService purchaseService;
+    @Autowired GameService gameService;
+    @Autowired GameDAO gameDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+    @Autowired PurchaseDAO purchaseDAO;
+    @Autowired PurchaseLineDAO purchaseLineDAO;
+    @Autowired StockReservationDAO stockReservationDAO;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    Author author;
+    Category category;
+    Publisher publisher;
+
+    record Result(int accepted, int soldOut, int errors) {
+    }
+
+    @BeforeEach
+    void seed() {
+        author = authorDAO.save(new Author(null, "Auteur", null));
+        category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+    }
+
+    @Test
+    void usualPathNeverOversells() throws Exception {
+        long gameID = game();
+        Result direct = run(gameID, users());
+
+        assertTrue(direct.accepted() <= STOCK);
+        assertEquals(ORDERS, direct.accepted() + direct.soldOut() + direct.errors());
+        assertEquals(direct.accepted(), gameDAO.findById(gameID).orElseThrow().getReserved());
+    }
+
+    @Test
+    void flashSaleSellsExactlyTheStock() throws Exception {
+        long gameID = game();
+        purchaseService.startFlashSale(gameID);
+        Result flash;
+        try {
+            flash = run(gameID, users());
+        } finally {
+            purchaseService.stopFlashSale(gameID);
+        }
+        assertTrue(purchaseService.flashSaleStats().stream().noneMatch(s -> s.gameID() == gameID));
+
+        // tout le stock part, chaque demande a une réponse
+        assertEquals(STOCK, flash.accepted());
+        assertEquals(ORDERS - STOCK, flash.soldOut());
+        assertEquals(0, flash.errors());
+        Game sold = gameDAO.findById(gameID).orElseThrow();
+        assertEquals(STOCK, sold.getReserved());
+        assertEquals(STOCK, sold.getStock());
+    }
+
+    @Test
+    void stoppedFlashSaleFallsBackToTheUsualPath() {
+        long gameID = game();
+        purchaseService.startFlashSale(gameID);
+        purchaseService.startFlashSale(gameID);
+        long[] users = users();
+        purchaseService.addToBasket(users[0], gameID, 2);
+        FlashSaleStats stats = purchaseService.flashSaleStats().stream().filter(s -> s.gameID() == gameID)
+                .findFirst().orElseThrow();
+        assertEquals(1, stats.accepted());
+        assertEquals(1, stats.batches());
+
+        assertTrue(purchaseService.stopFlashSale(gameID));
+        assertFalse(purchaseService.stopFlashSale(gameID));
+        purchaseService.addToBasket(users[1], gameID, 1);
+        assertEquals(3, gameDAO.findById(gameID).orElseThrow().getReserved());
+        assertThrows(OutOfStockException.class, () -> purchaseService.addToBasket(users[2], gameID, STOCK));
+    }
+
+    @Test
+    void flashSaleMergesIntoTheBasketLine() {
+        long gameID = game();
+        long userID = users(1)[0];
+        purchaseService.addToBasket(userID, gameID, 2);
+        purchaseService.startFlashSale(gameID);
+        try {
+            purchaseService.addToBasket(userID, gameID, 1);
+            purchaseService.addToBasket(userID, gameID, 1);
+        } finally {
+            purchaseService.stopFlashSale(gameID);
+        }
+
+        List<PurchaseLine> lines = basketLines(userID);
+        assertEquals(1, lines.size());
+        assertEquals(4, lines.get(0).getQuantity());
+        assertEquals(4, reservationOf(lines.get(0)).getQuantity());
+        assertEquals(4, gameDAO.findById(gameID).orElseThrow().getReserved());
+        assertEquals(4, purchaseDAO.findById(lines.get(0).getPurchase().getId()).orElseThrow().getItemCount());
+    }
+
+    @Test
+    void lineWithoutReservationIsReservedWhole() {
+        long gameID = game();
+        long userID = users(1)[0];
+        purchaseService.addToBasket(userID, gameID, 2);
+        // réservation expirée et libérée : la ligne reste dans le panier, sans stock réservé
+        PurchaseLine line = basketLines(userID).get(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            stockReservationDAO.deleteReservation(reservationOf(line).getId());
+            gameDAO.release(gameID, 2);
+            gameDAO.decrementStock(gameID, STOCK - 3);
+        });
+
+        purchaseService.startFlashSale(gameID);
+        try {
+            // 2 + 2 > 3 disponibles : refusé par la décision, sans lot rejoué
+            assertThrows(OutOfStockException.class, () -> purchaseService.addToBasket(userID, gameID, 2));
+            purchaseService.addToBasket(userID, gameID, 1);
+            FlashSaleStats stats = purchaseService.flashSaleStats().stream().filter(s -> s.gameID() == gameID)
+                    .findFirst().orElseThrow();
+            assertEquals(1, stats.rejected());
+            assertEquals(0, stats.replayedBatches());
+        } finally {
+            purchaseService.stopFlashSale(gameID);
+        }
+
+        Game game = gameDAO.findById(gameID).orElseThrow();
+        assertEquals(3, game.getReserved());
+        assertEquals(3, reservationOf(basketLines(userID).get(0)).getQuantity());
+    }
+
+    private Result run(long gameID, long[] users) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.add(pool.submit(() -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < ORDERS) {
+                        try {
+                            purchaseService.addToBasket(users[i], gameID, 1);
+                            accepted.incrementAndGet();
+                        } catch (OutOfStockException e) {
+                            soldOut.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        return new Result(accepted.get(), soldOut.get(), errors.get());
+    }
+
+    private long game() {
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 30f, STOCK, author.getId(), category.getId(), publisher.getId());
+        return gameService.filter(null, null, null, title).get(0).getId();
+    }
+
+    private List<PurchaseLine> basketLines(long userID) {
+        return purchaseLineDAO.findByPurchaseId(purchaseDAO.findActiveBasketId(userID).orElseThrow());
+    }
+
+    private StockReservation reservationOf(PurchaseLine line) {
+        return stockReservationDAO.findByPurchaseLineIdIn(List.of(line.getId())).get(0);
+    }
+
+    private long[] users() {
+        return users(ORDERS);
+    }
+
+    private long[] users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setEmail("flash+" + UUID.randomUUID() + "@example.com");
+            user.setPassword("x");
+            users.add(user);
+        }
+        return userDAO.saveAll(users).stream().mapToLong(User::getId).toArray();
+    }
+}
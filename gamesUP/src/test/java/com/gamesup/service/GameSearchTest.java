@@ -0,0 +1,117 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.search.SearchQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GameSearchTest {
+
+    @Autowired GameService gameService;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    // mot unique par test pour ne pas voir les jeux créés par les autres tests
+    String marker;
+    Category category;
+
+    @BeforeEach
+    void seed() {
+        marker = "m" + UUID.randomUUID().toString().replace("-", "");
+        Author author = authorDAO.save(new Author(null, "Jacob Fryxelius", null));
+        category = categoryDAO.save(new Category(null, "Stratégie " + marker, null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "FryxGames " + marker, null));
+
+        gameService.add(game("Terraforming Mars", "Coloniser la planète rouge " + marker, 45, 10, category, author, publisher));
+        gameService.add(game("Mars Open", "Jeu de dés " + marker, 20, 0, category, author, publisher));
+        gameService.add(game("Wingspan", "Oiseaux et terraforming " + marker, 50, 3, null, author, publisher));
+    }
+
+    @Test
+    void findsByWordInsideTitleAndRanksTitleFirst() {
+        List<GameView> result = gameService.searchViews(query("terraforming " + marker, true), null);
+
+        assertEquals(2, result.size());
+        assertEquals("Terraforming Mars", result.get(0).title());
+        assertEquals("Wingspan", result.get(1).title());
+    }
+
+    @Test
+    void orSemanticsNeedsAnyWord() {
+        SearchQuery query = new SearchQuery("oiseaux dés", false, null, null, "FryxGames " + marker, null, null, false, 20);
+
+        assertEquals(2, gameService.searchViews(query, null).size());
+    }
+
+    @Test
+    void andSemanticsRequiresEveryWord() {
+        List<GameView> result = gameService.searchViews(query("mars terraforming " + marker, true), null);
+
+        assertEquals(1, result.size());
+        assertEquals("Terraforming Mars", result.get(0).title());
+    }
+
+    @Test
+    void prefixAndAccentInsensitive() {
+        List<GameView> result = gameService.searchViews(query("PLANETE terra " + marker, true), null);
+
+        assertEquals(1, result.size());
+        assertEquals("Terraforming Mars", result.get(0).title());
+    }
+
+    @Test
+    void combinesTextWithFilters() {
+        SearchQuery query = new SearchQuery(marker, true, category.getName(), null, null, null, 30f, true, 20);
+        assertTrue(gameService.searchViews(query, null).isEmpty());
+
+        query = new SearchQuery(marker, true, category.getName(), null, null, null, null, true, 20);
+        assertEquals(List.of("Terraforming Mars"), gameService.searchViews(query, null).stream().map(GameView::title).toList());
+    }
+
+    @Test
+    void indexFollowsUpdatesAndDeletes() {
+        GameView mars = gameService.searchViews(query("terraforming mars " + marker, true), null).get(0);
+        gameService.update(mars.id(), "Ark Nova", 60, 5,
+                mars.authorID(), mars.categoryID(), mars.publisherID());
+
+        assertEquals("Ark Nova", gameService.searchViews(query("ark " + marker, true), null).get(0).title());
+        assertTrue(gameService.searchViews(query("terraforming mars " + marker, true), null).isEmpty());
+
+        gameService.remove(mars.id());
+        assertTrue(gameService.searchViews(query("ark " + marker, true), null).isEmpty());
+    }
+
+    private SearchQuery query(String text, boolean matchAll) {
+        return new SearchQuery(text, matchAll, null, null, null, null, null, false, 20);
+    }
+
+    private Game game(String title, String description, float price, int stock,
+                      Category category, Author author, Publisher publisher) {
+        Game game = new Game();
+        game.setTitle(title);
+        game.setDescription(description);
+        game.setPrice(price);
+        game.setStock(stock);
+        game.setCategory(category);
+        game.setAuthor(author);
+        game.setPublisher(publisher);
+        return game;
+    }
+}
@@ -0,0 +1,102 @@
+package com.gamesup.service;
+
+import com.gamesup.cache.GameSnapshot;
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.PublisherDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GameServiceCacheTest {
+
+    @Autowired GameService gameService;
+    @Autowired GameDAO gameDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    Author author;
+    Category category;
+    Publisher publisher;
+
+    @BeforeEach
+    void seed() {
+        author = authorDAO.save(new Author(null, "Auteur " + UUID.randomUUID(), null));
+        category = categoryDAO.save(new Category(null, "Catégorie " + UUID.randomUUID(), null, null));
+        publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+    }
+
+    @Test
+    void detailServedFromCacheAsDetachedCopy() {
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 10, 5, author.getId(), category.getId(), publisher.getId());
+        long id = gameDAO.findAll().stream().filter(g -> g.getTitle().equals(title)).findFirst().orElseThrow().getId();
+
+        long hitsBefore = gameService.cacheStats().get("details").hits();
+        Game first = gameService.detail(id);
+        first.setTitle("modifié par l'appelant");
+        Game second = gameService.detail(id);
+
+        assertEquals(title, second.getTitle());
+        assertEquals(category.getName(), second.getCategory().getName());
+        assertTrue(gameService.cacheStats().get("details").hits() > hitsBefore);
+    }
+
+    @Test
+    void snapshotHistogramCannotBeChangedFromOutside() {
+        int[] histogram = {1, 0, 0, 0, 2};
+        GameSnapshot snapshot = new GameSnapshot(1L, "Jeu", "jeu", null, null, 5, 3, 11, histogram, 10f, "EUR",
+                null, null, null);
+        histogram[0] = 99;
+        snapshot.ratingHistogram()[4] = 99;
+
+        assertArrayEquals(new int[]{1, 0, 0, 0, 2}, snapshot.ratingHistogram());
+        assertArrayEquals(new int[]{1, 0, 0, 0, 2}, GameView.of(snapshot, 0, null).ratingHistogram());
+    }
+
+    @Test
+    void updateInvalidatesDetailAndFilters() {
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 10, 5, author.getId(), category.getId(), publisher.getId());
+        long id = gameDAO.findAll().stream().filter(g -> g.getTitle().equals(title)).findFirst().orElseThrow().getId();
+
+        gameService.detail(id);
+        assertEquals(1, gameService.filter(null, author.getName(), null, null).size());
+
+        String newTitle = title + " v2";
+        gameService.update(id, newTitle, 12, 4, author.getId(), category.getId(), publisher.getId());
+
+        assertEquals(newTitle, gameService.detail(id).getTitle());
+        List<Game> byAuthor = gameService.filter(null, author.getName(), null, null);
+        assertEquals(newTitle, byAuthor.get(0).getTitle());
+        assertEquals(12, byAuthor.get(0).getPrice());
+    }
+
+    @Test
+    void addAndRemoveInvalidateMatchingFilters() {
+        assertTrue(gameService.filter(category.getName(), null, null, null).isEmpty());
+
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 10, 5, author.getId(), category.getId(), publisher.getId());
+        List<Game> afterAdd = gameService.filter(category.getName(), null, null, null);
+        assertEquals(1, afterAdd.size());
+
+        gameService.remove(afterAdd.get(0).getId());
+        assertTrue(gameService.filter(category.getName(), null, null, null).isEmpty());
+    }
+}
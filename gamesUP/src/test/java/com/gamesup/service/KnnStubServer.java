@@ -0,0 +1,70 @@
+package com.gamesup.service;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Faux service KNN pour les tests : répond sur /test/recommendations avec un délai
+ * et un mode panne réglables, et compte les appels reçus.
+ */
+public class KnnStubServer {
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile long delayMillis;
+    private volatile boolean failing;
+
+    public KnnStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1_000);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/test/recommendations", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"recommendations\": [{\"game_id\": 201}], \"call\": " + requests.get() + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            int status = failing ? 500 : 200;
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public void reset() {
+        requests.set(0);
+        delayMillis = 0;
+        failing = false;
+    }
+
+    public void setDelayMillis(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,212 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.OrderEvent;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.Purchase;
+import com.gamesup.entity.User;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.OrderEventDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.StockReservationDAO;
+import com.gamesup.repository.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"order.processing.max-attempts=2", "order.processing.retry-backoff-ms=0"})
+@ActiveProfiles("test")
+class OrderPipelineTest {
+
+    @Autowired PurchaseService purchaseService;
+    @Autowired OrderProcessingService orderProcessingService;
+    @Autowired StockService stockService;
+    @Autowired GameService gameService;
+    @Autowired GameDAO gameDAO;
+    @Autowired PurchaseDAO purchaseDAO;
+    @Autowired OrderEventDAO orderEventDAO;
+    @Autowired StockReservationDAO stockReservationDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    long gameID;
+
+    @BeforeEach
+    void seed() {
+        orderProcessingService.processPending();
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 20f, 1000, author.getId(), category.getId(), publisher.getId());
+        gameID = gameService.filter(null, null, null, title).get(0).getId();
+    }
+
+    @Test
+    void payRecordsThePaymentAndStockLeavesInBackground() {
+        long purchaseID = paidOrder(3);
+
+        Purchase purchase = purchaseDAO.findById(purchaseID).get();
+        assertEquals(Purchase.OrderStatus.PAID, purchase.getStatus());
+        assertNotNull(purchase.getPaidAt());
+        // payé mais pas encore traité : le stock est toujours réservé
+        Game game = gameDAO.findById(gameID).get();
+        assertEquals(1000, game.getStock());
+        assertEquals(3, game.getReserved());
+
+        assertTrue(orderProcessingService.processPending() >= 1);
+        game = gameDAO.findById(gameID).get();
+        assertEquals(997, game.getStock());
+        assertEquals(0, game.getReserved());
+        assertEquals(997, gameService.detail(gameID).getStock());
+        assertEquals(0, orderProcessingService.stats().pending());
+    }
+
+    @Test
+    void paidReservationsSurviveTheExpirySweep() {
+        long purchaseID = paidOrder(2);
+        // même avec une horloge très en avance, la réservation d'une commande payée n'est pas libérée
+        stockReservationDAO.findAll().forEach(r -> assertTrue(r.getExpiresAt().isAfter(LocalDateTime.now().plusYears(100))));
+        stockService.releaseExpired();
+        assertEquals(2, gameDAO.findById(gameID).get().getReserved());
+
+        orderProcessingService.processPending();
+        assertEquals(998, gameDAO.findById(gameID).get().getStock());
+        assertEquals(Purchase.OrderStatus.PAID, purchaseDAO.findById(purchaseID).get().getStatus());
+    }
+
+    @Test
+    void lifecycleTransitionsAndCancellationRestock() {
+        long shipped = paidOrder(1);
+        assertFalse(purchaseService.deliver(shipped));
+        // pas d'expédition tant que le stock n'est pas sorti
+        assertFalse(purchaseService.ship(shipped));
+        orderProcessingService.processPending();
+        assertTrue(purchaseService.ship(shipped));
+        assertFalse(purchaseService.cancel(shipped));
+        assertTrue(purchaseService.deliver(shipped));
+        assertEquals(Purchase.OrderStatus.DELIVERED, purchaseDAO.findById(shipped).get().getStatus());
+
+        // annulée avant traitement : la réservation est rendue
+        long canceledEarly = paidOrder(4);
+        assertTrue(purchaseService.cancel(canceledEarly));
+        // annulée après traitement : le stock sorti revient
+        long canceledLate = paidOrder(5);
+        orderProcessingService.processPending();
+        assertEquals(994, gameDAO.findById(gameID).get().getStock());
+        assertTrue(purchaseService.cancel(canceledLate));
+        orderProcessingService.processPending();
+
+        Game game = gameDAO.findById(gameID).get();
+        assertEquals(999, game.getStock());
+        assertEquals(0, game.getReserved());
+        assertEquals(Purchase.OrderStatus.CANCELED, purchaseDAO.findById(canceledLate).get().getStatus());
+    }
+
+    @Test
+    void failingEventIsIsolatedRetriedThenAbandoned() {
+        long broken = paidOrder(2);
+        long healthy = paidOrder(1);
+        // plus de réservation ni de stock pour la commande "broken" : sa sortie du stock échoue
+        transactionTemplate.executeWithoutResult(status -> {
+            stockReservationDAO.findAll().stream()
+                    .filter(r -> r.getQuantity() == 2)
+                    .forEach(r -> {
+                        stockReservationDAO.deleteReservation(r.getId());
+                        gameDAO.release(gameID, 2);
+                    });
+            gameDAO.decrementStock(gameID, 999);
+        });
+
+        orderProcessingService.processPending();
+        assertEquals(OrderEvent.Status.DONE, eventOf(healthy).getStatus());
+        OrderEvent failing = eventOf(broken);
+        assertEquals(OrderEvent.Status.PENDING, failing.getStatus());
+        assertEquals(1, failing.getAttempts());
+        assertNotNull(failing.getLastError());
+
+        // annulation en attente derrière le paiement en échec
+        assertTrue(purchaseService.cancel(broken));
+        orderProcessingService.processPending();
+        assertEquals(OrderEvent.Status.FAILED, eventOf(broken).getStatus());
+        assertTrue(orderProcessingService.stats().failed() >= 1);
+
+        // paiement abandonné : l'annulation ne rend pas au stock ce qui n'en est jamais sorti
+        orderProcessingService.processPending();
+        assertEquals(OrderEvent.Status.DONE, eventOf(broken, Purchase.OrderStatus.CANCELED).getStatus());
+        assertEquals(0, gameDAO.findById(gameID).get().getStock());
+    }
+
+    @Test
+    void abandonedPaymentIsNeverShippedAndCancelReleasesItsReservation() {
+        long purchaseID = paidOrder(3);
+        OrderEvent payment = eventOf(purchaseID);
+        transactionTemplate.executeWithoutResult(status -> orderEventDAO.recordFailure(payment.getId(),
+                OrderEvent.Status.FAILED, LocalDateTime.now(), "abandonné"));
+
+        assertFalse(purchaseService.ship(purchaseID));
+        assertEquals(Purchase.OrderStatus.PAID, purchaseDAO.findById(purchaseID).get().getStatus());
+
+        assertTrue(purchaseService.cancel(purchaseID));
+        orderProcessingService.processPending();
+        Game game = gameDAO.findById(gameID).get();
+        assertEquals(1000, game.getStock());
+        assertEquals(0, game.getReserved());
+    }
+
+    @Test
+    void throughputAndLagAreMeasured() {
+        List<Long> orders = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            orders.add(paidOrder(1));
+        }
+        long before = orderProcessingService.stats().processed();
+        assertEquals(150, orderProcessingService.processPending());
+
+        OrderProcessingStats stats = orderProcessingService.stats();
+        assertEquals(before + 150, stats.processed());
+        assertEquals(0, stats.pending());
+        assertTrue(stats.lastRunEventsPerSecond() > 0);
+        assertTrue(stats.maxLagMs() > 0);
+        assertEquals(850, gameDAO.findById(gameID).get().getStock());
+    }
+
+    private long paidOrder(int quantity) {
+        User user = new User();
+        user.setEmail("commande+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        long userID = userDAO.save(user).getId();
+        purchaseService.addToBasket(userID, gameID, quantity);
+        long purchaseID = purchaseDAO.findActiveBasketId(userID).orElseThrow();
+        purchaseService.pay(purchaseID);
+        return purchaseID;
+    }
+
+    private OrderEvent eventOf(long purchaseID) {
+        return eventOf(purchaseID, Purchase.OrderStatus.PAID);
+    }
+
+    private OrderEvent eventOf(long purchaseID, Purchase.OrderStatus orderStatus) {
+        return orderEventDAO.findAll().stream()
+                .filter(e -> e.getPurchaseId() == purchaseID && e.getOrderStatus() == orderStatus)
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,106 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.OffsetPageRequest;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.ReviewView;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaginationTest {
+
+    @Autowired GameService gameService;
+    @Autowired ReviewService reviewService;
+    @Autowired UserService userService;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    @Test
+    void filterPagesCoverEveryGameOnceWithTotal() {
+        Author author = authorDAO.save(new Author(null, "Auteur " + UUID.randomUUID(), null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        for (int i = 0; i < 7; i++) {
+            gameService.add("Jeu " + i, 10, 1, author.getId(), category.getId(), publisher.getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        long offset = 0;
+        PageResult<Game> page;
+        do {
+            page = gameService.filter(null, author.getName(), null, null, offset, 3, "title");
+            assertEquals(7, page.totalElements());
+            page.content().forEach(g -> seen.add(g.getId()));
+            offset += page.size();
+        } while (page.hasNext());
+
+        assertEquals(7, seen.size());
+        assertEquals(7, seen.stream().distinct().count());
+
+        PageResult<Game> shifted = gameService.filter(null, author.getName(), null, null, 2, 3, "title");
+        assertEquals("Jeu 2", shifted.content().get(0).getTitle());
+    }
+
+    @Test
+    void unalignedOffsetKnowsWhenItReachesTheEnd() {
+        Author author = authorDAO.save(new Author(null, "Auteur " + UUID.randomUUID(), null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        for (int i = 0; i < 7; i++) {
+            gameService.add("Jeu " + i, 10, 1, author.getId(), category.getId(), publisher.getId());
+        }
+
+        // lignes 5 et 6 sur 7 : la « page 1 » de taille 3 n'est pas la dernière, mais il ne reste rien après
+        PageResult<GameView> last = gameService.filterViews(null, author.getName(), null, null, 5, 3, "title", null);
+        assertEquals(List.of("Jeu 5", "Jeu 6"), last.content().stream().map(GameView::title).toList());
+        assertEquals(7, last.totalElements());
+        assertFalse(last.hasNext());
+
+        PageResult<GameView> middle = gameService.filterViews(null, author.getName(), null, null, 2, 3, "title", null);
+        assertEquals(3, middle.content().size());
+        assertTrue(middle.hasNext());
+    }
+
+    @Test
+    void pageSizeIsCapped() {
+        PageResult<ReviewView> page = reviewService.listViews(0, 10_000);
+        assertEquals(OffsetPageRequest.MAX_LIMIT, page.size());
+    }
+
+    @Test
+    void reviewsNewestFirst() {
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 10, 1, author.getId(), category.getId(), publisher.getId());
+        long gameID = gameService.filter(null, null, null, title).get(0).getId();
+        String email = "avis+" + UUID.randomUUID() + "@example.com";
+        userService.inscription(email, "123456");
+        long userID = userService.connexion(email, "123456").getId();
+
+        reviewService.addReview(gameID, userID, 3, "premier");
+        reviewService.addReview(gameID, userID, 4, "second");
+
+        PageResult<ReviewView> page = reviewService.listViews(0, 2);
+        assertEquals("second", page.content().get(0).comment());
+        assertEquals("premier", page.content().get(1).comment());
+        assertTrue(page.totalElements() >= 2);
+    }
+}
@@ -0,0 +1,120 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.Review;
+import com.gamesup.entity.User;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.ReviewDAO;
+import com.gamesup.repository.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RatingAggregatesTest {
+
+    @Autowired ReviewService reviewService;
+    @Autowired GameService gameService;
+    @Autowired GameDAO gameDAO;
+    @Autowired ReviewDAO reviewDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    long userID;
+    long good;
+    long average;
+
+    @BeforeEach
+    void seed() {
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        good = addGame("Bon jeu", author, category, publisher);
+        average = addGame("Jeu moyen", author, category, publisher);
+
+        User user = new User();
+        user.setEmail("avis+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        userID = userDAO.save(user).getId();
+    }
+
+    @Test
+    void aggregatesFollowAddsAndRemovals() {
+        reviewService.addReview(good, userID, 5, "Excellent");
+        reviewService.addReview(good, userID, 4, "Très bien");
+        reviewService.addReview(average, userID, 3, "Correct");
+
+        Game detail = gameService.detail(good);
+        assertEquals(2, detail.getReviewCount());
+        assertEquals(4.5, detail.getAverageRating());
+        assertArrayEquals(new int[]{0, 0, 0, 1, 1}, detail.getRatingHistogram());
+
+        List<Long> ranking = gameService.topRatedViews(100, 1, null).stream().map(GameView::id).toList();
+        assertTrue(ranking.indexOf(good) < ranking.indexOf(average));
+
+        long five = reviewsOf(good).stream().filter(r -> r.getRating() == 5).findFirst().orElseThrow().getId();
+        reviewService.remove(five);
+        reviewService.remove(five);
+
+        detail = gameService.detail(good);
+        assertEquals(1, detail.getReviewCount());
+        assertEquals(4.0, detail.getAverageRating());
+        assertArrayEquals(new int[]{0, 0, 0, 1, 0}, detail.getRatingHistogram());
+        ranking = gameService.topRatedViews(100, 1, null).stream().map(GameView::id).toList();
+        assertTrue(ranking.indexOf(good) < ranking.indexOf(average));
+        assertFalse(gameService.topRatedViews(100, 2, null).stream().anyMatch(g -> g.id() == good));
+    }
+
+    @Test
+    void rejectsRatingOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> reviewService.addReview(good, userID, 6, "Trop"));
+        assertEquals(0, gameService.detail(good).getReviewCount());
+    }
+
+    @Test
+    void rebuildRepairsDriftedAggregates() {
+        reviewService.addReview(average, userID, 2, "Bof");
+        reviewService.addReview(average, userID, 3, "Correct");
+        transactionTemplate.executeWithoutResult(status -> {
+            gameDAO.setRatings(average, 40, 200, 0, 0, 0, 0, 40);
+            gameDAO.setRatings(good, 7, 7, 7, 0, 0, 0, 0);
+        });
+
+        reviewService.rebuildRatings();
+
+        Game rebuilt = gameService.detail(average);
+        assertEquals(2, rebuilt.getReviewCount());
+        assertEquals(2.5, rebuilt.getAverageRating());
+        assertArrayEquals(new int[]{0, 1, 1, 0, 0}, rebuilt.getRatingHistogram());
+        assertEquals(0, gameService.detail(good).getReviewCount());
+        assertNull(gameService.detail(good).getAverageRating());
+    }
+
+    private List<Review> reviewsOf(long gameID) {
+        return reviewDAO.findAll().stream().filter(r -> r.getGame().getId() == gameID).toList();
+    }
+
+    private long addGame(String title, Author author, Category category, Publisher publisher) {
+        String unique = title + " " + UUID.randomUUID();
+        gameService.add(unique, 10, 10, author.getId(), category.getId(), publisher.getId());
+        return gameService.filter(null, null, null, unique).get(0).getId();
+    }
+}
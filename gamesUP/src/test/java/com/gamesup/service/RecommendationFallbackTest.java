@@ -0,0 +1,56 @@
+package com.gamesup.service;
+
+import com.gamesup.client.CircuitBreaker;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// contexte à part : délai de lecture court, et le circuit reste ouvert à la fin
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class RecommendationFallbackTest {
+
+    static KnnStubServer stub;
+
+    @DynamicPropertySource
+    static void knnProperties(DynamicPropertyRegistry registry) throws IOException {
+        stub = new KnnStubServer();
+        registry.add("recommendation.base-url", stub::baseUrl);
+        registry.add("recommendation.read-timeout-ms", () -> "800");
+        registry.add("recommendation.breaker.failure-threshold", () -> "2");
+        registry.add("recommendation.breaker.open-ms", () -> "60000");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop();
+    }
+
+    @Autowired
+    RecommendationService recommendationService;
+
+    @Test
+    void slowBackendOpensCircuitAndFallsBack() {
+        stub.setDelayMillis(2000);
+        String user = "user-" + UUID.randomUUID();
+
+        assertEquals(RecommendationServiceImpl.FALLBACK, recommendationService.recommendations(user));
+        assertEquals(RecommendationServiceImpl.FALLBACK, recommendationService.recommendations(user));
+        assertEquals(CircuitBreaker.State.OPEN, recommendationService.stats().circuitState());
+
+        int before = stub.requests();
+        assertEquals(RecommendationServiceImpl.FALLBACK, recommendationService.recommendations(user));
+        assertEquals(before, stub.requests());
+    }
+}
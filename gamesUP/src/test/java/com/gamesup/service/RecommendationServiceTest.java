@@ -0,0 +1,101 @@
+package com.gamesup.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RecommendationServiceTest {
+
+    static KnnStubServer stub;
+
+    @DynamicPropertySource
+    static void knnProperties(DynamicPropertyRegistry registry) throws IOException {
+        stub = new KnnStubServer();
+        registry.add("recommendation.base-url", stub::baseUrl);
+        // large : un premier appel à froid (JIT, connexion) ne doit pas tomber en repli ;
+        // le délai court est testé à part (RecommendationFallbackTest)
+        registry.add("recommendation.read-timeout-ms", () -> "10000");
+        registry.add("recommendation.breaker.failure-threshold", () -> "2");
+        registry.add("recommendation.breaker.open-ms", () -> "60000");
+        registry.add("recommendation.cache.ttl-ms", () -> "200");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop();
+    }
+
+    @Autowired
+    RecommendationService recommendationService;
+
+    @BeforeEach
+    void resetStub() {
+        stub.reset();
+    }
+
+    @Test
+    @Order(1)
+    void secondCallServedFromCache() {
+        String user = "user-" + UUID.randomUUID();
+        String first = recommendationService.recommendations(user);
+        String second = recommendationService.recommendations(user);
+
+        assertEquals(first, second);
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    @Order(2)
+    void concurrentCallsAreCoalesced() throws Exception {
+        String user = "user-" + UUID.randomUUID();
+        stub.setDelayMillis(150);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> recommendationService.recommendations(user)));
+            }
+            for (Future<String> result : results) {
+                assertTrue(result.get().contains("recommendations"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    @Order(3)
+    void expiredEntryServedWhileBackendFails() throws InterruptedException {
+        String user = "user-" + UUID.randomUUID();
+        String fresh = recommendationService.recommendations(user);
+        Thread.sleep(250);
+        stub.setFailing(true);
+
+        assertEquals(fresh, recommendationService.recommendations(user));
+        assertEquals(2, stub.requests());
+    }
+}
@@ -1,7 +1,7 @@
 package com.gamesup.service;
 
-import com.gamesup.entity.Review;
 import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.ReviewView;
 import com.gamesup.repository.UserDAO;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,11 +17,11 @@ public class ReviewServiceTest {
 
     @Test
     public void listReview() {
-        List<Review> reviews = reviewService.list();
-        for (Review review : reviews) {
-            System.out.println("Review ID: " + review.getId()
-                    + ", Rating: " + review.getRating()
-                    + ", Comment: " + review.getComment());
+        List<ReviewView> reviews = reviewService.listViews(0, 20).content();
+        for (ReviewView review : reviews) {
+            System.out.println("Review ID: " + review.id()
+                    + ", Rating: " + review.rating()
+                    + ", Comment: " + review.comment());
         }
     }
 
@@ -0,0 +1,162 @@
+package com.gamesup.service;
+
+import com.gamesup.analytics.SalesColumns;
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.User;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SalesAnalyticsTest {
+
+    @Autowired SalesAnalyticsService salesAnalyticsService;
+    @Autowired PurchaseService purchaseService;
+    @Autowired OrderProcessingService orderProcessingService;
+    @Autowired GameService gameService;
+    @Autowired PurchaseDAO purchaseDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    long categoryID;
+    long cheapID;
+    long expensiveID;
+
+    @BeforeEach
+    void seed() {
+        orderProcessingService.processPending();
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Ventes " + UUID.randomUUID(), null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        categoryID = category.getId();
+        cheapID = game(9.99f, author, category, publisher);
+        expensiveID = game(59.9f, author, category, publisher);
+    }
+
+    @Test
+    void aggregationMatchesANaiveSumAcrossSegments() {
+        SalesColumns columns = new SalesColumns();
+        Random random = new Random(42);
+        int rows = 200_000;
+        long[] paidAt = new long[rows];
+        int[] game = new int[rows];
+        int[] quantity = new int[rows];
+        long[] cents = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            // dates globalement croissantes, avec du désordre local
+            paidAt[i] = i * 1000L + random.nextInt(50_000);
+            game[i] = random.nextInt(500);
+            quantity[i] = random.nextInt(20) == 0 ? -1 : 1 + random.nextInt(3);
+            cents[i] = quantity[i] * (100L + random.nextInt(5000));
+            columns.append(game[i], quantity[i], cents[i], paidAt[i]);
+        }
+        assertEquals(rows, columns.size());
+
+        long[][] windows = {{Long.MIN_VALUE, Long.MAX_VALUE}, {0, 70_000_000L}, {65_000_000L, 140_000_000L}, {123_456_789L, 123_999_999L}};
+        for (long[] window : windows) {
+            Map<Long, long[]> expected = new HashMap<>();
+            for (int i = 0; i < rows; i++) {
+                if (paidAt[i] >= window[0] && paidAt[i] < window[1]) {
+                    long[] sum = expected.computeIfAbsent((long) game[i], key -> new long[3]);
+                    sum[0] += quantity[i];
+                    sum[1] += cents[i];
+                    sum[2] += Integer.signum(quantity[i]);
+                }
+            }
+            SalesColumns.Totals totals = columns.aggregate(window[0], window[1]);
+            for (int i = 0; i < totals.gameIDs().length; i++) {
+                long[] sum = expected.getOrDefault(totals.gameIDs()[i], new long[3]);
+                assertEquals(sum[0], totals.quantity()[i]);
+                assertEquals(sum[1], totals.amountCents()[i]);
+                assertEquals(sum[2], totals.lines()[i]);
+            }
+        }
+        // une fenêtre étroite ne lit que les segments qui la recoupent
+        assertTrue(columns.aggregate(123_456_789L, 123_999_999L).scanned() <= 2L * 65536);
+    }
+
+    @Test
+    void paidOrdersAreProjectedOnceProcessedAndCancellationsReversed() {
+        paidOrder(cheapID, 3);
+        long second = paidOrder(expensiveID, 1);
+        // payé mais pas encore traité : pas encore compté
+        assertNull(figure(SalesAnalyticsService.Dimension.GAME, cheapID));
+
+        orderProcessingService.processPending();
+        SalesFigure cheap = figure(SalesAnalyticsService.Dimension.GAME, cheapID);
+        assertEquals(3, cheap.quantity());
+        assertEquals(0, new BigDecimal("29.97").compareTo(cheap.revenue()));
+        assertNotNull(cheap.name());
+        SalesFigure category = figure(SalesAnalyticsService.Dimension.CATEGORY, categoryID);
+        assertEquals(4, category.quantity());
+        assertEquals(0, new BigDecimal("89.87").compareTo(category.revenue()));
+        assertEquals(2, category.lines());
+
+        assertTrue(purchaseService.cancel(second));
+        orderProcessingService.processPending();
+        assertEquals(0, new BigDecimal("29.97").compareTo(figure(SalesAnalyticsService.Dimension.CATEGORY, categoryID).revenue()));
+
+        // la reconstruction depuis la base donne les mêmes chiffres que la projection tenue à jour
+        salesAnalyticsService.rebuild();
+        assertEquals(3, figure(SalesAnalyticsService.Dimension.CATEGORY, categoryID).quantity());
+        assertNull(figure(SalesAnalyticsService.Dimension.GAME, expensiveID));
+    }
+
+    @Test
+    void periodExcludesSalesOutsideTheWindow() {
+        paidOrder(cheapID, 2);
+        orderProcessingService.processPending();
+        LocalDateTime now = LocalDateTime.now();
+        List<SalesFigure> before = salesAnalyticsService.report(SalesAnalyticsService.Dimension.GAME,
+                null, now.minusDays(1), SalesAnalyticsService.Sort.QUANTITY, 1000).figures();
+        assertTrue(before.stream().noneMatch(f -> f.id() == cheapID));
+        List<SalesFigure> today = salesAnalyticsService.report(SalesAnalyticsService.Dimension.GAME,
+                now.minusDays(1), now.plusDays(1), SalesAnalyticsService.Sort.QUANTITY, 1000).figures();
+        assertEquals(2, today.stream().filter(f -> f.id() == cheapID).findFirst().orElseThrow().quantity());
+    }
+
+    private SalesFigure figure(SalesAnalyticsService.Dimension by, long id) {
+        return salesAnalyticsService.report(by, null, null, SalesAnalyticsService.Sort.REVENUE, 1000).figures().stream()
+                .filter(f -> f.id() != null && f.id() == id && f.lines() != 0)
+                .findFirst().orElse(null);
+    }
+
+    private long game(float price, Author author, Category category, Publisher publisher) {
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, price, 1000, author.getId(), category.getId(), publisher.getId());
+        return gameService.filter(null, null, null, title).get(0).getId();
+    }
+
+    private long paidOrder(long gameID, int quantity) {
+        User user = new User();
+        user.setEmail("ventes+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        long userID = userDAO.save(user).getId();
+        purchaseService.addToBasket(userID, gameID, quantity);
+        long purchaseID = purchaseDAO.findActiveBasketId(userID).orElseThrow();
+        purchaseService.pay(purchaseID);
+        return purchaseID;
+    }
+}
@@ -0,0 +1,107 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.search.SimilarityIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SimilarGamesTest {
+
+    @Autowired GameService gameService;
+    @Autowired SimilarityIndex similarityIndex;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    // catégories, auteurs et éditeur propres au test : les jeux des autres tests n'ont rien en commun avec les nôtres
+    Category strategy;
+    Category party;
+    Author fryxelius;
+    Author other;
+    Publisher publisher;
+    long mars;
+    long expedition;
+    long colony;
+    long party1;
+
+    @BeforeEach
+    void seed() {
+        String marker = UUID.randomUUID().toString();
+        strategy = categoryDAO.save(new Category(null, "Stratégie " + marker, null, null));
+        party = categoryDAO.save(new Category(null, "Ambiance " + marker, null, null));
+        fryxelius = authorDAO.save(new Author(null, "Jacob Fryxelius " + marker, null));
+        other = authorDAO.save(new Author(null, "Autre " + marker, null));
+        publisher = publisherDAO.save(new Publisher(null, "FryxGames " + marker, null));
+
+        mars = add("Terraforming Mars", 20, strategy, fryxelius);
+        expedition = add("Ares Expedition", 25, strategy, fryxelius);
+        colony = add("Colonie", 20, strategy, other);
+        party1 = add("Blabla", 80, party, other);
+    }
+
+    @Test
+    void sameCategoryAndAuthorComeFirst() {
+        List<GameView> similar = gameService.similarViews(mars, 2, null);
+
+        assertEquals(List.of(expedition, colony), similar.stream().map(GameView::id).toList());
+        assertEquals("Ares Expedition", similar.get(0).title());
+        assertTrue(gameService.similarViews(-1, 10, null).isEmpty());
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        // même vecteur que Terraforming Mars : similarité 1
+        gameService.update(colony, "Colonie", 20, 3, fryxelius.getId(), strategy.getId(), publisher.getId());
+        List<SimilarityIndex.Neighbor> neighbors = similarityIndex.similar(mars, 1);
+        assertEquals(colony, neighbors.get(0).gameID());
+        assertEquals(1f, neighbors.get(0).similarity(), 1e-5);
+
+        gameService.remove(colony);
+        assertEquals(expedition, similarityIndex.similar(mars, 1).get(0).gameID());
+        for (long id : List.of(mars, expedition, party1)) {
+            assertTrue(similarityIndex.similar(id, 100).stream().noneMatch(n -> n.gameID() == colony));
+        }
+        assertTrue(similarityIndex.similar(colony, 10).isEmpty());
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFullRebuild() {
+        gameService.update(party1, "Blabla", 22, 3, fryxelius.getId(), strategy.getId(), publisher.getId());
+        gameService.update(expedition, "Ares Expedition", 90, 3, other.getId(), party.getId(), publisher.getId());
+        long added = add("Underwater Cities", 40, party, fryxelius);
+        gameService.remove(colony);
+
+        List<Long> games = List.of(mars, expedition, party1, added);
+        List<List<SimilarityIndex.Neighbor>> incremental = games.stream().map(id -> similarityIndex.similar(id, 100)).toList();
+        similarityIndex.rebuild();
+        assertEquals(incremental, games.stream().map(id -> similarityIndex.similar(id, 100)).toList());
+    }
+
+    private long add(String title, float price, Category category, Author author) {
+        Game game = new Game();
+        game.setTitle(title);
+        game.setPrice(price);
+        game.setStock(10);
+        game.setCategory(category);
+        game.setAuthor(author);
+        game.setPublisher(publisher);
+        gameService.add(game);
+        return game.getId();
+    }
+}
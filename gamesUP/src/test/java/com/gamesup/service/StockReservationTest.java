@@ -0,0 +1,177 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Game;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.Purchase;
+import com.gamesup.entity.PurchaseLine;
+import com.gamesup.entity.User;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.GameDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.PurchaseDAO;
+import com.gamesup.repository.PurchaseLineDAO;
+import com.gamesup.repository.StockReservationDAO;
+import com.gamesup.repository.UserDAO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationTest {
+
+    @Autowired PurchaseService purchaseService;
+    @Autowired StockService stockService;
+    @Autowired OrderProcessingService orderProcessingService;
+    @Autowired GameService gameService;
+    @Autowired GameDAO gameDAO;
+    @Autowired UserDAO userDAO;
+    @Autowired PurchaseDAO purchaseDAO;
+    @Autowired PurchaseLineDAO purchaseLineDAO;
+    @Autowired StockReservationDAO stockReservationDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+    @Autowired TransactionTemplate transactionTemplate;
+
+    long gameID;
+
+    @BeforeEach
+    void seed() {
+        Author author = authorDAO.save(new Author(null, "Auteur", null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie", null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + UUID.randomUUID(), null));
+        String title = "Jeu " + UUID.randomUUID();
+        gameService.add(title, 20, 10, author.getId(), category.getId(), publisher.getId());
+        gameID = gameService.filter(null, null, null, title).get(0).getId();
+    }
+
+    @Test
+    void noOversellUnderContention() throws Exception {
+        int buyers = 40;
+        List<Long> userIDs = new ArrayList<>();
+        for (int i = 0; i < buyers; i++) {
+            userIDs.add(newUser());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (long userID : userIDs) {
+            results.add(pool.submit(() -> {
+                start.await();
+                try {
+                    purchaseService.addToBasket(userID, gameID, 1);
+                } catch (OutOfStockException e) {
+                    return false;
+                }
+                purchaseService.pay(basketOf(userID));
+                return true;
+            }));
+        }
+        start.countDown();
+
+        int sold = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                sold++;
+            }
+        }
+        pool.shutdown();
+        orderProcessingService.processPending();
+
+        Game game = gameDAO.findById(gameID).get();
+        assertEquals(10, sold);
+        assertEquals(0, game.getStock());
+        assertEquals(0, game.getReserved());
+    }
+
+    @Test
+    void basketReservesAndRemovalReleases() {
+        long userID = newUser();
+        purchaseService.addToBasket(userID, gameID, 4);
+        assertEquals(4, gameDAO.findById(gameID).get().getReserved());
+
+        long otherUser = newUser();
+        assertThrows(OutOfStockException.class, () -> purchaseService.addToBasket(otherUser, gameID, 7));
+        assertTrue(purchaseDAO.findByUserIdAndStatusOrderByCreatedAtDesc(otherUser, Purchase.OrderStatus.BASKET).isEmpty());
+
+        long lineID = purchaseLineDAO.findByPurchaseId(basketOf(userID)).get(0).getId();
+        purchaseService.removeFromBasket(lineID);
+        assertEquals(0, gameDAO.findById(gameID).get().getReserved());
+    }
+
+    @Test
+    void expiredReservationsAreReleased() {
+        long userID = newUser();
+        purchaseService.addToBasket(userID, gameID, 3);
+        stockReservationDAO.findAll().forEach(r -> {
+            r.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+            stockReservationDAO.save(r);
+        });
+
+        assertTrue(stockService.releaseExpired() >= 1);
+        assertEquals(0, gameDAO.findById(gameID).get().getReserved());
+
+        // le panier expiré peut encore être payé tant qu'il reste du stock
+        purchaseService.pay(basketOf(userID));
+        orderProcessingService.processPending();
+        assertEquals(7, gameDAO.findById(gameID).get().getStock());
+    }
+
+    @Test
+    void payingTwiceDecrementsOnce() {
+        long userID = newUser();
+        purchaseService.addToBasket(userID, gameID, 2);
+        long purchaseID = basketOf(userID);
+
+        purchaseService.pay(purchaseID);
+        purchaseService.pay(purchaseID);
+        orderProcessingService.processPending();
+
+        assertEquals(8, gameDAO.findById(gameID).get().getStock());
+        assertEquals(8, gameService.detail(gameID).getStock());
+    }
+
+    @Test
+    void reservationMissingFromReservedStockRollsBack() {
+        long userID = newUser();
+        purchaseService.addToBasket(userID, gameID, 2);
+        List<PurchaseLine> lines = purchaseLineDAO.findByPurchaseId(basketOf(userID));
+        // Game.reserved ne couvre plus la réservation : la consommer ne doit pas retomber sur le stock libre
+        transactionTemplate.executeWithoutResult(status -> gameDAO.release(gameID, 2));
+
+        assertThrows(IllegalStateException.class, () -> stockService.commit(lines));
+        assertEquals(1, stockReservationDAO.findByPurchaseLineIdIn(List.of(lines.get(0).getId())).size());
+        assertEquals(10, gameDAO.findById(gameID).orElseThrow().getStock());
+    }
+
+    private long newUser() {
+        User user = new User();
+        user.setEmail("acheteur+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        return userDAO.save(user).getId();
+    }
+
+    private long basketOf(long userID) {
+        return purchaseDAO.findByUserIdAndStatusOrderByCreatedAtDesc(userID, Purchase.OrderStatus.BASKET).get(0).getId();
+    }
+}
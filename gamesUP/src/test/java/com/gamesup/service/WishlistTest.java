@@ -0,0 +1,128 @@
+package com.gamesup.service;
+
+import com.gamesup.entity.Author;
+import com.gamesup.entity.Category;
+import com.gamesup.entity.Publisher;
+import com.gamesup.entity.User;
+import com.gamesup.metrics.SqlStatementScope;
+import com.gamesup.repository.AuthorDAO;
+import com.gamesup.repository.CategoryDAO;
+import com.gamesup.repository.PublisherDAO;
+import com.gamesup.repository.UserDAO;
+import com.gamesup.search.WishlistIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WishlistTest {
+
+    @Autowired WishlistService wishlistService;
+    @Autowired WishlistIndex wishlistIndex;
+    @Autowired GameService gameService;
+    @Autowired UserDAO userDAO;
+    @Autowired AuthorDAO authorDAO;
+    @Autowired CategoryDAO categoryDAO;
+    @Autowired PublisherDAO publisherDAO;
+
+    String marker;
+    List<Long> games = new ArrayList<>();
+    long alice;
+    long bob;
+
+    @BeforeEach
+    void seed() {
+        marker = UUID.randomUUID().toString();
+        Author author = authorDAO.save(new Author(null, "Auteur " + marker, null));
+        Category category = categoryDAO.save(new Category(null, "Catégorie " + marker, null, null));
+        Publisher publisher = publisherDAO.save(new Publisher(null, "Éditeur " + marker, null));
+        for (int i = 0; i < 50; i++) {
+            String title = "Jeu " + i + " " + marker;
+            gameService.add(title, 10, 100, author.getId(), category.getId(), publisher.getId());
+            games.add(gameService.filter(null, null, null, title).get(0).getId());
+        }
+        alice = newUser();
+        bob = newUser();
+    }
+
+    @Test
+    void addRemoveAndListKeepTableAndIndexInSync() {
+        assertTrue(wishlistService.add(alice, games.get(3)));
+        assertTrue(wishlistService.add(alice, games.get(1)));
+        assertFalse(wishlistService.add(alice, games.get(1)));
+        assertFalse(wishlistService.add(alice, -1));
+        assertFalse(wishlistService.add(-1, games.get(1)));
+
+        List<GameView> list = wishlistService.listViews(alice);
+        assertEquals(List.of(games.get(1), games.get(3)), list.stream().map(GameView::id).toList());
+        assertTrue(list.stream().allMatch(GameView::wished));
+
+        assertTrue(wishlistService.remove(alice, games.get(3)));
+        assertFalse(wishlistService.remove(alice, games.get(3)));
+        assertEquals(List.of(games.get(1)), wishlistService.listViews(alice).stream().map(GameView::id).toList());
+
+        // l'index reconstruit depuis la table donne le même état
+        wishlistIndex.rebuild();
+        assertTrue(wishlistIndex.contains(alice, games.get(1)));
+        assertFalse(wishlistIndex.contains(alice, games.get(3)));
+        assertEquals(1, wishlistIndex.count(games.get(1)));
+    }
+
+    @Test
+    void catalogPageIsFlaggedWithoutQueries() {
+        wishlistService.add(alice, games.get(0));
+        wishlistService.add(alice, games.get(7));
+        wishlistService.add(bob, games.get(7));
+
+        // page déjà en cache : le marquage vient de l'index, sans requête
+        assertEquals(50, gameService.filterViews("Catégorie " + marker, null, null, null, 0, 50, "id", null).content().size());
+        PageResult<GameView> page;
+        try (SqlStatementScope scope = SqlStatementScope.open()) {
+            page = gameService.filterViews("Catégorie " + marker, null, null, null, 0, 50, "id", alice);
+            assertEquals(0, scope.statements());
+        }
+        for (GameView game : page.content()) {
+            boolean expected = game.id().equals(games.get(0)) || game.id().equals(games.get(7));
+            assertEquals(expected, game.wished(), "jeu " + game.id());
+        }
+        GameView popular = page.content().stream().filter(g -> g.id().equals(games.get(7))).findFirst().orElseThrow();
+        assertEquals(2, popular.wishCount());
+
+        // sans utilisateur : seulement les compteurs
+        GameView anonymous = gameService.detailView(games.get(7), null);
+        assertNull(anonymous.wished());
+        assertEquals(2, anonymous.wishCount());
+    }
+
+    @Test
+    void mostWishedOrdersByCount() {
+        long carol = newUser();
+        for (long user : List.of(alice, bob, carol)) {
+            wishlistService.add(user, games.get(10));
+        }
+        wishlistService.add(alice, games.get(20));
+        wishlistService.add(bob, games.get(20));
+        wishlistService.add(carol, games.get(30));
+
+        List<GameView> top = wishlistService.mostWishedViews(100).stream()
+                .filter(g -> g.title().endsWith(marker)).toList();
+        assertEquals(List.of(games.get(10), games.get(20), games.get(30)), top.stream().map(GameView::id).toList());
+        assertEquals(List.of(3, 2, 1), top.stream().map(GameView::wishCount).toList());
+    }
+
+    private long newUser() {
+        User user = new User();
+        user.setEmail("wish+" + UUID.randomUUID() + "@example.com");
+        user.setPassword("x");
+        return userDAO.save(user).getId();
+    }
+}